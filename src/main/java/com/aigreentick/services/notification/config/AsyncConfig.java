@@ -1,16 +1,22 @@
 package com.aigreentick.services.notification.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.aigreentick.services.notification.config.properties.AsyncProperties;
+import com.aigreentick.services.notification.enums.AsyncExecutionMode;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,13 +27,19 @@ import lombok.extern.slf4j.Slf4j;
 public class AsyncConfig implements AsyncConfigurer {
 
     private final AsyncProperties asyncProperties;
+    private final MeterRegistry meterRegistry;
 
     @Bean(name = "emailTaskExecutor")
     public Executor emailTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-
         AsyncProperties.EmailAsyncConfig emailConfig = asyncProperties.getEmail();
 
+        if (emailConfig.getMode() == AsyncExecutionMode.VIRTUAL) {
+            return virtualThreadExecutor("Email", emailConfig.getThreadNamePrefix(),
+                    emailConfig.getAwaitTerminationSeconds());
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
         executor.setCorePoolSize(emailConfig.getCorePoolSize());
         executor.setMaxPoolSize(emailConfig.getMaxPoolSize());
         executor.setQueueCapacity(emailConfig.getQueueCapacity());
@@ -35,6 +47,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setKeepAliveSeconds(emailConfig.getKeepAliveSeconds());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(emailConfig.getAwaitTerminationSeconds());
+        executor.setRejectedExecutionHandler(abortAndCount("emailTaskExecutor"));
 
         executor.initialize();
 
@@ -48,17 +61,23 @@ public class AsyncConfig implements AsyncConfigurer {
 
     @Bean(name = "pushTaskExecutor")
     public Executor pushTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-
         AsyncProperties.PushAsyncConfig pushConfig = asyncProperties.getPush();
 
+        if (pushConfig.getMode() == AsyncExecutionMode.VIRTUAL) {
+            return virtualThreadExecutor("Push", pushConfig.getThreadNamePrefix(),
+                    pushConfig.getAwaitTerminationSeconds());
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
         executor.setCorePoolSize(pushConfig.getCorePoolSize());
         executor.setMaxPoolSize(pushConfig.getMaxPoolSize());
         executor.setQueueCapacity(pushConfig.getQueueCapacity());
         executor.setThreadNamePrefix(pushConfig.getThreadNamePrefix());
         executor.setKeepAliveSeconds(pushConfig.getKeepAliveSeconds());
         executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(60);
+        executor.setAwaitTerminationSeconds(pushConfig.getAwaitTerminationSeconds());
+        executor.setRejectedExecutionHandler(abortAndCount("pushTaskExecutor"));
 
         executor.initialize();
 
@@ -70,9 +89,95 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * Short blocking steps inside a push send: token lookups, segment pages and
+     * pipelined status callbacks. Always virtual threads, since each step waits on
+     * MongoDB or a provider; the callers bound how many run at once. On shutdown
+     * the services drain their own work first, then the executor waits up to
+     * await-termination-seconds for whatever is left.
+     */
+    @Bean(name = "pushFanOutExecutor")
+    public SimpleAsyncTaskExecutor pushFanOutExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("push-fanout-");
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(asyncProperties.getPush().getAwaitTerminationSeconds() * 1000L);
+        return executor;
+    }
+
+    /**
+     * Audit events get their own small pool so slow audit calls never take
+     * delivery threads. Audit is best-effort: when the queue is full the event
+     * is dropped and counted.
+     */
+    @Bean(name = "auditTaskExecutor")
+    public Executor auditTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        AsyncProperties.AuditAsyncConfig auditConfig = asyncProperties.getAudit();
+
+        executor.setCorePoolSize(auditConfig.getCorePoolSize());
+        executor.setMaxPoolSize(auditConfig.getMaxPoolSize());
+        executor.setQueueCapacity(auditConfig.getQueueCapacity());
+        executor.setThreadNamePrefix(auditConfig.getThreadNamePrefix());
+        executor.setKeepAliveSeconds(auditConfig.getKeepAliveSeconds());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(auditConfig.getAwaitTerminationSeconds());
+
+        Counter rejected = rejectedCounter("auditTaskExecutor");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            log.warn("Audit executor saturated, dropping audit task");
+        });
+
+        executor.initialize();
+
+        log.info("Audit Task Executor initialized with corePoolSize={}, maxPoolSize={}, queueCapacity={}",
+                auditConfig.getCorePoolSize(),
+                auditConfig.getMaxPoolSize(),
+                auditConfig.getQueueCapacity());
+
+        return executor;
+    }
+
+    /**
+     * One virtual thread per task. There is no queue to fill up; the number of
+     * in-flight sends is bounded per provider by ProviderBulkheads.
+     */
+    private Executor virtualThreadExecutor(String name, String threadNamePrefix,
+            int awaitTerminationSeconds) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(awaitTerminationSeconds * 1000L);
+
+        log.info("{} Task Executor initialized on virtual threads", name);
+
+        return executor;
+    }
+
+    /**
+     * Same behaviour as the default AbortPolicy, plus a rejection metric
+     */
+    private RejectedExecutionHandler abortAndCount(String executorName) {
+        Counter rejected = rejectedCounter(executorName);
+        return (task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException(executorName + " saturated (queue full)");
+        };
+    }
+
+    private Counter rejectedCounter(String executorName) {
+        return Counter.builder("notification.executor.rejected")
+                .description("Tasks rejected by a saturated executor")
+                .tag("executor", executorName)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Unqualified @Async work is background work: keep it off the delivery pools
+     */
     @Override
     public Executor getAsyncExecutor() {
-        return emailTaskExecutor();
+        return auditTaskExecutor();
     }
 
     @Override
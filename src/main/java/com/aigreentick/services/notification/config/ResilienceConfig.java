@@ -4,6 +4,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.aigreentick.services.notification.config.properties.EmailRetryProperties;
+import com.aigreentick.services.notification.exceptions.NotificationBackpressureException;
 
 import io.github.resilience4j.core.IntervalFunction;
 import io.github.resilience4j.retry.Retry;
@@ -50,7 +51,8 @@ public class ResilienceConfig {
                                                 RuntimeException.class)
                                 .ignoreExceptions(
                                                 IllegalArgumentException.class,
-                                                IllegalStateException.class)
+                                                IllegalStateException.class,
+                                                NotificationBackpressureException.class)
                                 .build();
 
                 Retry retry = retryRegistry.retry("emailRetry", config);
@@ -1,9 +1,15 @@
 package com.aigreentick.services.notification.config.properties;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import com.aigreentick.services.notification.enums.AsyncExecutionMode;
+
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.Data;
 
@@ -15,10 +21,33 @@ public class AsyncProperties {
     
     private EmailAsyncConfig email = new EmailAsyncConfig();
     private PushAsyncConfig push = new PushAsyncConfig();
+    private AuditAsyncConfig audit = new AuditAsyncConfig();
+
+    /**
+     * Bulkhead per provider type (SMTP, SENDGRID, FCM, APNS, WEB_PUSH).
+     * Providers without an entry get the channel's max-concurrent-sends-per-provider
+     * and the defaults below.
+     */
+    private Map<String, ProviderBulkheadConfig> bulkheads = new HashMap<>();
     
     @Data
     public static class EmailAsyncConfig {
         private boolean enabled = true;
+
+        private AsyncExecutionMode mode = AsyncExecutionMode.POOL;
+
+        /** In-flight sends allowed per email provider (the real limit in VIRTUAL mode) */
+        @Min(1)
+        private int maxConcurrentSendsPerProvider = 1000;
+
+        /**
+         * POOL mode: share of max-pool-size one provider's sends may hold, so a
+         * stalled provider leaves threads for the others. Bulkhead limits above
+         * it are lowered to it.
+         */
+        @Min(1)
+        @Max(99)
+        private int maxProviderPoolPercent = 50;
         
         @Min(1)
         private int corePoolSize = 5;
@@ -41,6 +70,21 @@ public class AsyncProperties {
     @Data
     public static class PushAsyncConfig {
         private boolean enabled = true;
+
+        private AsyncExecutionMode mode = AsyncExecutionMode.POOL;
+
+        /** In-flight sends allowed per push provider (the real limit in VIRTUAL mode) */
+        @Min(1)
+        private int maxConcurrentSendsPerProvider = 1000;
+
+        /**
+         * POOL mode: share of max-pool-size one provider's sends may hold, so a
+         * stalled provider leaves threads for the others. Bulkhead limits above
+         * it are lowered to it.
+         */
+        @Min(1)
+        @Max(99)
+        private int maxProviderPoolPercent = 50;
         
         @Min(1)
         private int corePoolSize = 5;
@@ -55,5 +99,45 @@ public class AsyncProperties {
         
         @Min(10)
         private int keepAliveSeconds = 60;
+
+        /** Also bounds how long fan-out pages and pipelined callbacks are drained on shutdown */
+        @Min(10)
+        private int awaitTerminationSeconds = 60;
+    }
+
+    @Data
+    public static class AuditAsyncConfig {
+        @Min(1)
+        private int corePoolSize = 2;
+
+        @Min(1)
+        private int maxPoolSize = 4;
+
+        /** Audit events beyond this are dropped and counted, never run on a delivery pool */
+        @Min(0)
+        private int queueCapacity = 1000;
+
+        private String threadNamePrefix = "audit-async-";
+
+        @Min(10)
+        private int keepAliveSeconds = 60;
+
+        @Min(10)
+        private int awaitTerminationSeconds = 30;
+    }
+
+    @Data
+    public static class ProviderBulkheadConfig {
+        /** Sends in flight at once */
+        @Min(1)
+        private Integer maxConcurrentCalls;
+
+        /** Callers allowed to wait for a slot; further callers are rejected immediately */
+        @Min(0)
+        private int maxWaitingCalls = 1000;
+
+        /** How long a caller waits for a slot before it is rejected */
+        @Min(0)
+        private long maxWaitMs = 5000;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.aigreentick.services.notification.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+
+import com.aigreentick.services.notification.enums.batch.BackpressurePolicy;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Settings shared by every notification batch lane (email, push, ...)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "batch.notification")
+@Data
+@Validated
+public class BatchWriterProperties {
+
+    /**
+     * When disabled, every enqueued document is written inline as a batch of one
+     */
+    private boolean enabled = true;
+
+    @Min(1)
+    @Max(10000)
+    private int batchSize = 50;
+
+    @Min(1)
+    private int queueCapacity = 1000;
+
+    /**
+     * Maximum time the oldest buffered document may wait before its batch is flushed
+     */
+    @Min(1)
+    private long flushIntervalMs = 1000;
+
+    @Min(1)
+    @Max(64)
+    private int writerThreads = 1;
+
+    /**
+     * Upper bound for a single queue poll, so writers notice shutdown promptly
+     */
+    @Min(1)
+    private long pollTimeoutMs = 100;
+
+    @Min(0)
+    private long shutdownTimeoutMs = 10000;
+
+    /**
+     * Bulk write attempts per flush; only the documents that failed are retried
+     */
+    @Min(1)
+    @Max(10)
+    private int bulkMaxAttempts = 3;
+
+    /**
+     * Wait before the second bulk attempt; doubles for every further attempt
+     */
+    @Min(0)
+    private long bulkRetryWaitMs = 200;
+
+    /**
+     * Upper bound of the wait between bulk attempts
+     */
+    @Min(0)
+    private long bulkRetryMaxWaitMs = 5000;
+
+    // ==================== BACKPRESSURE ====================
+
+    @NotNull
+    private BackpressurePolicy backpressure = BackpressurePolicy.BLOCK;
+
+    /**
+     * Deadline for BLOCK: how long a caller may wait for queue space
+     */
+    @Min(0)
+    private long enqueueTimeoutMs = 100;
+
+    /**
+     * Directory holding per-lane overflow logs for SPILL; required for that
+     * policy. Spilled entries exist nowhere else, so this must be a persistent
+     * volume that outlives the pod, not an emptyDir, tmpfs or the temp directory.
+     */
+    private String spillDirectory;
+
+    @Min(100)
+    private long spillDrainIntervalMs = 5000;
+
+    // ==================== WRITE-AHEAD LOG ====================
+
+    @Valid
+    private WalConfig wal = new WalConfig();
+
+    @AssertTrue(message = "batch.notification.spill-directory must be set when backpressure is SPILL")
+    public boolean isSpillDirectoryConfigured() {
+        return backpressure != BackpressurePolicy.SPILL || StringUtils.hasText(spillDirectory);
+    }
+
+    @Data
+    public static class WalConfig {
+        /**
+         * Log every queued entry to local disk so it survives a JVM crash.
+         * Off by default, since it needs {@link #directory} on a persistent volume.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Required while enabled. The log only helps if it survives the crash,
+         * so mount a persistent volume here (not an emptyDir, tmpfs or the temp
+         * directory) and keep it with the same instance across restarts.
+         */
+        private String directory;
+
+        @Min(65536)
+        @Max(1073741824)
+        private int segmentSizeBytes = 16 * 1024 * 1024;
+
+        /**
+         * One fsync covers every append made within this interval
+         */
+        @Min(1)
+        @Max(1000)
+        private long groupCommitIntervalMs = 5;
+
+        @Min(1)
+        private long awaitDurableTimeoutMs = 1000;
+
+        @AssertTrue(message = "batch.notification.wal.directory must be set while the write-ahead log is enabled")
+        public boolean isDirectoryConfigured() {
+            return !enabled || StringUtils.hasText(directory);
+        }
+    }
+}
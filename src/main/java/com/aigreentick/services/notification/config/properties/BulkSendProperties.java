@@ -0,0 +1,32 @@
+package com.aigreentick.services.notification.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Settings for the streaming NDJSON bulk send endpoints
+ */
+@Configuration
+@ConfigurationProperties(prefix = "delivery.bulk")
+@Data
+@Validated
+public class BulkSendProperties {
+
+    /**
+     * Items validated, inserted and queued together; also how often result lines are flushed
+     */
+    @Min(1)
+    @Max(5000)
+    private int chunkSize = 500;
+
+    /**
+     * Items read from one submission; the rest of the input is ignored
+     */
+    @Min(1)
+    private int maxItems = 1000000;
+}
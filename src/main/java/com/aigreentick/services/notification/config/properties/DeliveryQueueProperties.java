@@ -0,0 +1,143 @@
+package com.aigreentick.services.notification.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import com.aigreentick.services.notification.enums.DeliveryLane;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Settings for the Redis Streams delivery queue between the orchestrators
+ * and the delivery services. Each channel has one stream per {@link DeliveryLane}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "delivery.queue")
+@Data
+@Validated
+public class DeliveryQueueProperties {
+
+    /**
+     * When disabled, accepted notifications go to the in-memory async executors
+     */
+    private boolean enabled = true;
+
+    /**
+     * One stream per channel and lane: {@code <prefix><channel>:<lane>}
+     */
+    private String streamPrefix = "notification:delivery:";
+
+    /**
+     * Shared by every instance, so each entry is delivered by exactly one of them
+     */
+    private String consumerGroup = "notification-delivery";
+
+    /**
+     * Unique per instance; defaults to the host name. Keep it stable across
+     * restarts so an instance picks its own unacknowledged entries back up.
+     */
+    private String consumerName;
+
+    /**
+     * Entries read per XREADGROUP call
+     */
+    @Min(1)
+    @Max(1000)
+    private int batchSize = 50;
+
+    @Min(100)
+    @Max(30000)
+    private long pollTimeoutMs = 2000;
+
+    /**
+     * Deliveries running at once per channel on this instance
+     */
+    @Min(1)
+    private int maxInFlightPerChannel = 200;
+
+    /**
+     * Unacknowledged entries idle for this long are claimed from their consumer
+     */
+    @Min(1000)
+    private long claimIdleMs = 300000;
+
+    /**
+     * How often pending entries are checked for claiming
+     */
+    @Min(1000)
+    private long claimIntervalMs = 15000;
+
+    @Min(1)
+    @Max(1000)
+    private int claimBatchSize = 100;
+
+    /**
+     * Deliveries of one entry before it is dead-lettered and its notification failed
+     */
+    @Min(1)
+    @Max(100)
+    private int maxDeliveries = 5;
+
+    /**
+     * Approximate stream length (XADD MAXLEN ~). Trimming ignores acknowledgement,
+     * so keep this well above the largest expected backlog.
+     */
+    @Min(1000)
+    private long maxLength = 1000000;
+
+    /**
+     * On shutdown, how long deliveries already handed to the executor may run
+     * before they are abandoned to the claim of another instance
+     */
+    @Min(0)
+    private long shutdownTimeoutMs = 30000;
+
+    @Valid
+    private LaneConfig critical = new LaneConfig(8, 100, 1000);
+
+    @Valid
+    private LaneConfig transactional = new LaneConfig(4, 100, 5000);
+
+    @Valid
+    private LaneConfig bulk = new LaneConfig(1, 50, 300000);
+
+    public LaneConfig getLane(DeliveryLane lane) {
+        return switch (lane) {
+            case CRITICAL -> critical;
+            case TRANSACTIONAL -> transactional;
+            case BULK -> bulk;
+        };
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LaneConfig {
+        /**
+         * Share of each read round; a backlogged lane gets weight / total of the reads
+         */
+        @Min(1)
+        @Max(100)
+        private int weight;
+
+        /**
+         * Percentage of max-in-flight-per-channel this lane may occupy; below 100
+         * keeps capacity free for the other lanes
+         */
+        @Min(1)
+        @Max(100)
+        private int maxInFlightPercent;
+
+        /**
+         * Accept-to-delivered latency objective, exported as an SLO histogram bucket
+         */
+        @Min(1)
+        private long latencySloMs;
+    }
+}
@@ -0,0 +1,77 @@
+package com.aigreentick.services.notification.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Settings for scheduled sends: an in-memory timing wheel for entries due
+ * within the horizon, MongoDB for everything further out
+ */
+@Configuration
+@ConfigurationProperties(prefix = "delivery.scheduler")
+@Data
+@Validated
+public class DeliverySchedulerProperties {
+
+    @Min(10)
+    @Max(1000)
+    private long tickMs = 100;
+
+    /**
+     * Buckets per wheel level; the lowest level spans tick-ms * wheel-size
+     */
+    @Min(16)
+    @Max(4096)
+    private int wheelSize = 512;
+
+    /**
+     * Entries due within this window are claimed into the timing wheel
+     */
+    @Min(10000)
+    private long horizonMs = 600000;
+
+    @Min(1000)
+    private long scanIntervalMs = 5000;
+
+    @Min(1)
+    @Max(10000)
+    private int claimBatchSize = 1000;
+
+    /**
+     * Entries held in the timing wheel at most; further due entries wait in MongoDB
+     */
+    @Min(1)
+    private int maxWheelEntries = 200000;
+
+    /**
+     * How long past its due time a claimed entry stays with its instance
+     * before another one may take it over
+     */
+    @Min(10000)
+    private long leaseMs = 120000;
+
+    /**
+     * Releases per second on this instance; entries due at the same moment
+     * are spread out instead of hitting the queue at once
+     */
+    @Min(1)
+    private int maxReleasesPerSecond = 2000;
+
+    /**
+     * How far ahead a send may be scheduled
+     */
+    @Min(1)
+    @Max(365)
+    private int maxScheduleAheadDays = 30;
+
+    /**
+     * How long the "already released" marker for a notification is kept in Redis
+     */
+    @Min(1)
+    private long releaseMarkerTtlHours = 24;
+}
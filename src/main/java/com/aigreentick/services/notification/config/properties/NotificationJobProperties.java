@@ -0,0 +1,50 @@
+package com.aigreentick.services.notification.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Settings for batch and bulk send jobs and their progress stream
+ */
+@Configuration
+@ConfigurationProperties(prefix = "delivery.jobs")
+@Data
+@Validated
+public class NotificationJobProperties {
+
+    /**
+     * How often delivery outcomes are added to their jobs; each flush is one bulk write
+     */
+    @Min(100)
+    private long progressFlushIntervalMs = 1000;
+
+    /**
+     * How often an open progress stream re-reads its job
+     */
+    @Min(100)
+    private long streamIntervalMs = 1000;
+
+    /**
+     * Progress streams are closed after this; clients reconnect to keep following
+     */
+    @Min(1000)
+    private long streamTimeoutMs = 1800000;
+
+    /**
+     * How often running jobs without recent progress are reconciled
+     */
+    @Min(1000)
+    private long reconcileIntervalMs = 60000;
+
+    /**
+     * A running job whose progress has not moved for this long has its sent and failed
+     * counts recounted from its notifications. Keep it well above the flush interval,
+     * so outcomes still waiting for a flush are not counted twice.
+     */
+    @Min(1000)
+    private long reconcileAfterMs = 300000;
+}
@@ -0,0 +1,84 @@
+package com.aigreentick.services.notification.config.properties;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import com.aigreentick.services.notification.enums.DeliveryLane;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Send rates for campaign traffic, per provider and per recipient domain,
+ * shared by every instance through Redis
+ */
+@Configuration
+@ConfigurationProperties(prefix = "delivery.pacing")
+@Data
+@Validated
+public class PacingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Queue lanes whose sends are paced; sends on other lanes are not
+     */
+    private Set<DeliveryLane> pacedLanes = EnumSet.of(DeliveryLane.BULK);
+
+    private String keyPrefix = "notification:pacing:";
+
+    /**
+     * Tokens an instance takes from the shared bucket per Redis call, at most
+     */
+    @Min(1)
+    private int maxLeaseTokens = 50;
+
+    /**
+     * Longest a paced send sleeps before asking for tokens again
+     */
+    @Min(1)
+    private long maxWaitSliceMs = 1000;
+
+    /**
+     * Keyed by provider type; providers not listed are not paced
+     */
+    private Map<String, RateConfig> providers = new HashMap<>();
+
+    /**
+     * Keyed by recipient domain, e.g. gmail.com
+     */
+    private Map<String, RateConfig> domains = new HashMap<>();
+
+    /**
+     * Rate for each recipient domain not listed in domains; unset leaves them unpaced
+     */
+    private RateConfig defaultDomain;
+
+    /**
+     * Domain buckets kept on one instance
+     */
+    @Min(1)
+    private int maxDomainBuckets = 10000;
+
+    @Data
+    public static class RateConfig {
+        @Min(1)
+        private int ratePerSecond = 100;
+
+        /**
+         * Tokens that may be spent at once after an idle period; defaults to a tenth of a second's worth
+         */
+        @Min(1)
+        private Integer burst;
+
+        public int effectiveBurst() {
+            return burst != null ? burst : Math.max(1, ratePerSecond / 10);
+        }
+    }
+}
@@ -23,6 +23,9 @@ public class PushProperties {
     private WebConfig web = new WebConfig();
     private ValidationConfig validation = new ValidationConfig();
     private RetryConfig retry = new RetryConfig();
+    private SegmentConfig segment = new SegmentConfig();
+    private TokenCacheConfig tokenCache = new TokenCacheConfig();
+    private PruningConfig pruning = new PruningConfig();
     
     @Data
     public static class FcmConfig {
@@ -57,6 +60,23 @@ public class PushProperties {
         
         @Min(1000)
         private int timeout = 30000;
+
+        /** HTTP/2 connections to APNs; each one multiplexes many streams */
+        @Min(1)
+        private int concurrentConnections = 1;
+
+        /** Notifications in flight (sent, not yet answered) across all connections */
+        @Min(1)
+        private int maxConcurrentStreams = 1000;
+
+        /** How long a send waits for a free stream before it fails as UNAVAILABLE */
+        @Min(0)
+        private long streamWaitMs = 5000;
+
+        /** Overrides for a local or stub APNs server; unset means Apple's hosts */
+        private String serverHost;
+        private Integer serverPort;
+        private String trustedCertificatePath;
     }
     
     @Data
@@ -76,6 +96,18 @@ public class PushProperties {
         
         @Min(0)
         private int defaultTtl = 86400; // 24 hours
+
+        /** Requests awaiting a push service response, across all origins */
+        @Min(1)
+        private int maxConcurrentRequests = 1000;
+
+        /** How long a send waits for a free request slot before it fails as UNAVAILABLE */
+        @Min(0)
+        private long requestWaitMs = 5000;
+
+        /** Parsed subscriptions (endpoint, public key, auth secret) kept in memory */
+        @Min(0)
+        private int subscriptionCacheSize = 10000;
     }
     
     @Data
@@ -97,6 +129,11 @@ public class PushProperties {
         @Min(1)
         @Max(100)
         private int maxDataPayloadKb = 4;
+        
+        /** Tokens per bulk register/deactivate call */
+        @Min(1)
+        @Max(10000)
+        private int maxBulkDeviceTokens = 1000;
     }
     
     @Data
@@ -116,4 +153,50 @@ public class PushProperties {
         @Min(1000)
         private long maxDelayMs = 30000;
     }
+    
+    @Data
+    public static class TokenCacheConfig {
+        private boolean enabled = true;
+        
+        /** Entries per cache (by token value and by user id) */
+        @Min(1)
+        private long maxSize = 100000;
+        
+        /** Upper bound on staleness if an invalidation message is lost */
+        @Min(1)
+        private long ttlSeconds = 300;
+        
+        private String invalidationChannel = "notification:device-token:invalidate";
+    }
+    
+    @Data
+    public static class PruningConfig {
+        @Min(100)
+        private long flushIntervalMs = 1000;
+        
+        /** Tokens per bulk deactivation; capped by validation.max-bulk-device-tokens */
+        @Min(1)
+        private int maxBatchSize = 500;
+        
+        @Min(1)
+        private int queueCapacity = 100000;
+    }
+    
+    @Data
+    public static class SegmentConfig {
+        /** Devices per cursor page, pending-record bulk insert and provider dispatch */
+        @Min(1)
+        @Max(10000)
+        private int pageSize = 1000;
+        
+        /** Pages being dispatched while the cursor reads ahead; bounds memory */
+        @Min(1)
+        @Max(64)
+        private int maxInFlightPages = 4;
+        
+        /** User ids per $in query when the segment is a user-id list */
+        @Min(1)
+        @Max(10000)
+        private int userIdChunkSize = 1000;
+    }
 }
\ No newline at end of file
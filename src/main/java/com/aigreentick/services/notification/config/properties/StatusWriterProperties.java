@@ -0,0 +1,56 @@
+package com.aigreentick.services.notification.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Settings for the coalescing notification status writer
+ */
+@Configuration
+@ConfigurationProperties(prefix = "batch.status")
+@Data
+@Validated
+public class StatusWriterProperties {
+
+    /**
+     * When disabled, every create/transition is written through immediately
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long non-terminal writes for the same id are held to be merged
+     */
+    @Min(1)
+    @Max(10000)
+    private long coalesceWindowMs = 250;
+
+    @Min(1)
+    @Max(1000)
+    private long tickMs = 50;
+
+    /**
+     * Buffered ids per collection before a flush is forced
+     */
+    @Min(1)
+    private int maxPending = 50000;
+
+    @Min(1)
+    @Max(10000)
+    private int maxBatchSize = 1000;
+
+    @Min(1)
+    @Max(10)
+    private int maxAttempts = 3;
+
+    /**
+     * How long an explicit flush waits for a write of the same id the tick
+     * already took, before giving up on seeing it committed
+     */
+    @Min(1)
+    private long flushWaitMs = 5000;
+}
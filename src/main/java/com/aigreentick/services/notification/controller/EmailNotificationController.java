@@ -1,5 +1,7 @@
 package com.aigreentick.services.notification.controller;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
@@ -7,12 +9,15 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.aigreentick.services.notification.dto.request.email.EmailNotificationControllerRequest;
 import com.aigreentick.services.notification.dto.request.email.SendTemplatedEmailRequest;
 import com.aigreentick.services.notification.dto.response.AsyncEmailResponse;
 import com.aigreentick.services.notification.dto.response.EmailNotificationResponse;
+import com.aigreentick.services.notification.service.email.impl.EmailBulkSendService;
 import com.aigreentick.services.notification.service.email.impl.EmailOrchestratorServiceImpl;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +30,7 @@ import lombok.extern.slf4j.Slf4j;
 public class EmailNotificationController {
     
     private final EmailOrchestratorServiceImpl emailOrchestratorService;
+    private final EmailBulkSendService emailBulkSendService;
 
     /**
      * SYNCHRONOUS: Send email and wait for completion
@@ -110,13 +116,34 @@ public class EmailNotificationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * STREAMING BULK: one email per NDJSON line, without attachments
+     * Use case: campaigns of any size; items are accepted in chunks as they are read
+     * 
+     * Streams back one result line per item as its chunk is accepted, then a summary line.
+     * The Location header points at the job following the deliveries.
+     */
+    @PostMapping(value = "/send/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> sendBulkEmail(InputStream body) {
+        String jobId = emailBulkSendService.startJob();
+        log.info("Received streaming bulk email submission, job {}", jobId);
+
+        StreamingResponseBody results = out -> emailBulkSendService.sendBulk(jobId, body, out);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create(NotificationJobService.statusCheckUrl(jobId)))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(results);
+    }
+
       /**
      * Batch async send - accepts multiple emails with attachments
-     * Returns list of notification IDs for tracking
+     * Returns list of notification IDs; every item carries the batch's job ID for tracking
      * 
      * Note: For batch with attachments, use multipart form data
      */
-    // Currently not use ready
+    // Currently not use ready; use /send/bulk for large batches
     @PostMapping(value = "/send/batch/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<List<AsyncEmailResponse>> sendBatchEmailAsync(
             @RequestPart("requests") @Valid List<EmailNotificationControllerRequest> requests,
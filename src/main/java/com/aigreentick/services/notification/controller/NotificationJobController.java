@@ -0,0 +1,48 @@
+package com.aigreentick.services.notification.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.aigreentick.services.notification.dto.response.NotificationJobResponse;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
+import com.aigreentick.services.notification.service.job.NotificationJobStream;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Aggregated progress of batch and bulk sends, in place of polling the
+ * status of every notification they created
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/notification/jobs")
+public class NotificationJobController {
+
+    private final NotificationJobService jobService;
+    private final NotificationJobStream jobStream;
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<NotificationJobResponse> getJob(@PathVariable String jobId) {
+        log.info("Checking progress of notification job: {}", jobId);
+
+        return ResponseEntity.ok(jobService.getJob(jobId));
+    }
+
+    /**
+     * Server-sent {@code progress} events whenever the counters change; the
+     * stream ends after the event reporting the job COMPLETED
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJob(@PathVariable String jobId) {
+        log.info("Opening progress stream of notification job: {}", jobId);
+
+        return jobStream.open(jobId);
+    }
+}
@@ -1,8 +1,11 @@
 package com.aigreentick.services.notification.controller;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,14 +14,27 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.aigreentick.services.notification.dto.request.push.BulkDeactivateTokensRequest;
+import com.aigreentick.services.notification.dto.request.push.BulkDeviceTokenRequest;
 import com.aigreentick.services.notification.dto.request.push.DeviceTokenRequest;
 import com.aigreentick.services.notification.dto.request.push.SendPushRequest;
+import com.aigreentick.services.notification.dto.request.push.SendSegmentPushRequest;
+import com.aigreentick.services.notification.dto.request.push.SendTopicPushRequest;
+import com.aigreentick.services.notification.dto.request.push.TopicSubscriptionRequest;
+import com.aigreentick.services.notification.dto.response.NotificationJobResponse;
 import com.aigreentick.services.notification.dto.response.push.AsyncPushResponse;
+import com.aigreentick.services.notification.dto.response.push.BulkDeviceTokenResponse;
 import com.aigreentick.services.notification.dto.response.push.DeviceTokenResponse;
 import com.aigreentick.services.notification.dto.response.push.PushNotificationResponse;
+import com.aigreentick.services.notification.dto.response.push.TopicSubscriptionResponse;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
 import com.aigreentick.services.notification.service.push.impl.DeviceTokenService;
+import com.aigreentick.services.notification.service.push.impl.PushBulkSendService;
 import com.aigreentick.services.notification.service.push.impl.PushOrchestratorServiceImpl;
+import com.aigreentick.services.notification.service.push.impl.PushSegmentService;
+import com.aigreentick.services.notification.service.push.impl.PushTopicService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -32,6 +48,9 @@ public class PushNotificationController {
     
     private final PushOrchestratorServiceImpl pushOrchestratorService;
     private final DeviceTokenService deviceTokenService;
+    private final PushTopicService pushTopicService;
+    private final PushSegmentService pushSegmentService;
+    private final PushBulkSendService pushBulkSendService;
     
     // ==================== DEVICE TOKEN MANAGEMENT ====================
     
@@ -46,6 +65,28 @@ public class PushNotificationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    @PostMapping("/device/register/bulk")
+    public ResponseEntity<BulkDeviceTokenResponse> registerDevices(
+            @Valid @RequestBody BulkDeviceTokenRequest request) {
+        
+        log.info("Received request to bulk register {} device tokens", request.getTokens().size());
+        
+        BulkDeviceTokenResponse response = deviceTokenService.registerTokens(request);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/device/deactivate/bulk")
+    public ResponseEntity<BulkDeviceTokenResponse> deactivateDevices(
+            @Valid @RequestBody BulkDeactivateTokensRequest request) {
+        
+        log.info("Received request to bulk deactivate {} device tokens", request.getDeviceTokens().size());
+        
+        BulkDeviceTokenResponse response = deviceTokenService.deactivateTokens(request);
+        
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/device/user/{userId}")
     public ResponseEntity<List<DeviceTokenResponse>> getUserDevices(
             @PathVariable String userId) {
@@ -101,6 +142,82 @@ public class PushNotificationController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
     
+    /**
+     * One single-device push per NDJSON line; streams back one result line per
+     * item as its chunk is accepted, then a summary line. The Location header
+     * points at the job following the deliveries.
+     */
+    @PostMapping(value = "/send/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> sendBulkPush(InputStream body) {
+        String jobId = pushBulkSendService.startJob();
+        log.info("Received streaming bulk push submission, job {}", jobId);
+        
+        StreamingResponseBody results = out -> pushBulkSendService.sendBulk(jobId, body, out);
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create(NotificationJobService.statusCheckUrl(jobId)))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(results);
+    }
+    
+    @PostMapping("/send/segment")
+    public ResponseEntity<NotificationJobResponse> sendPushToSegment(
+            @Valid @RequestBody SendSegmentPushRequest request) {
+        
+        log.info("Received request to send push to a segment");
+        
+        NotificationJobResponse response = pushSegmentService.startSegmentSend(request);
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create(response.getStatusCheckUrl()))
+                .body(response);
+    }
+    
+    @GetMapping("/segment/{jobId}")
+    public ResponseEntity<NotificationJobResponse> getSegmentJob(@PathVariable String jobId) {
+        log.info("Checking progress of segment job: {}", jobId);
+        
+        NotificationJobResponse response = pushSegmentService.getJob(jobId);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    // ==================== TOPICS ====================
+    
+    @PostMapping("/topic/subscribe")
+    public ResponseEntity<TopicSubscriptionResponse> subscribeToTopic(
+            @Valid @RequestBody TopicSubscriptionRequest request) {
+        
+        log.info("Received request to subscribe devices to topic: {}", request.getTopic());
+        
+        TopicSubscriptionResponse response = pushTopicService.subscribe(request);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/topic/unsubscribe")
+    public ResponseEntity<TopicSubscriptionResponse> unsubscribeFromTopic(
+            @Valid @RequestBody TopicSubscriptionRequest request) {
+        
+        log.info("Received request to unsubscribe devices from topic: {}", request.getTopic());
+        
+        TopicSubscriptionResponse response = pushTopicService.unsubscribe(request);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/send/topic")
+    public ResponseEntity<PushNotificationResponse> sendPushToTopic(
+            @Valid @RequestBody SendTopicPushRequest request) {
+        
+        log.info("Received request to send push to topic/condition");
+        
+        PushNotificationResponse response = pushTopicService.sendToTopic(request);
+        
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
     // ==================== STATUS CHECKING ====================
     
     @GetMapping("/status/{notificationId}")
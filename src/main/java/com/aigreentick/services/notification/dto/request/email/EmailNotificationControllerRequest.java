@@ -1,5 +1,6 @@
 package com.aigreentick.services.notification.dto.request.email;
 
+import java.time.Instant;
 import java.util.List;
 
 import com.aigreentick.services.notification.enums.email.EmailPriority;
@@ -23,4 +24,7 @@ public class EmailNotificationControllerRequest {
     private EmailPriority priority;
 
     private List<String> inlineResourceIds;
+
+    /** Deliver at this time instead of now (async sends only) */
+    private Instant scheduledAt;
 }
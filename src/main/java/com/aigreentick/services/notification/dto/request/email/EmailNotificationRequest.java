@@ -36,4 +36,7 @@ public class EmailNotificationRequest {
 
     private List<InlineResource> inlineResources;
 
+    /** Batch or bulk job the send belongs to; travels with it through the queue */
+    private String jobId;
+
 }
@@ -1,5 +1,6 @@
 package com.aigreentick.services.notification.dto.request.email;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -30,4 +31,7 @@ public class SendTemplatedEmailRequest {
     private Map<String, Object> variables;
     
     private List<EmailAttachment> attachments;
+    
+    /** Deliver at this time instead of now (async sends only) */
+    private Instant scheduledAt;
 }
\ No newline at end of file
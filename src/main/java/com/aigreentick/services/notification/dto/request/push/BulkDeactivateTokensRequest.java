@@ -0,0 +1,19 @@
+package com.aigreentick.services.notification.dto.request.push;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeactivateTokensRequest {
+    
+    @NotEmpty(message = "At least one device token is required")
+    private List<String> deviceTokens;
+}
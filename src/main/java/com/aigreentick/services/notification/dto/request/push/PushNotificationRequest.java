@@ -32,4 +32,7 @@ public class PushNotificationRequest {
     private Integer priority;
     
     private Integer ttl;
+    
+    /** Batch or bulk job the send belongs to; travels with it through the queue */
+    private String jobId;
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.aigreentick.services.notification.dto.request.push;
+
+import com.aigreentick.services.notification.enums.push.DevicePlatform;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Delivery queue entry for one push notification: the request plus the
+ * device fields delivery needs, so the consumer does not look the token up again
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuedPushDelivery {
+
+    private PushNotificationRequest request;
+
+    private String deviceTokenId;
+
+    private String deviceToken;
+
+    private DevicePlatform platform;
+
+    private String userId;
+}
@@ -1,5 +1,7 @@
 package com.aigreentick.services.notification.dto.request.push;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 import lombok.AllArgsConstructor;
@@ -15,6 +17,9 @@ public class SendPushRequest {
     
     private String userId;
     
+    /** Segment send: every active device of each of these users */
+    private List<String> userIds;
+    
     private String deviceToken;
     
     private String title;
@@ -28,4 +33,7 @@ public class SendPushRequest {
     private String sound;
     
     private Integer badge;
+    
+    /** Deliver at this time instead of now (async single-device sends only) */
+    private Instant scheduledAt;
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.aigreentick.services.notification.dto.request.push;
+
+import java.util.List;
+import java.util.Map;
+
+import com.aigreentick.services.notification.enums.push.DevicePlatform;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Push to every active device matching the segment. With no userIds the
+ * filter alone selects the devices; with userIds the filter narrows them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SendSegmentPushRequest {
+    
+    private List<String> userIds;
+    
+    private DevicePlatform platform;
+    
+    private String appVersion;
+    
+    private String language;
+    
+    private String title;
+    
+    private String body;
+    
+    private Map<String, String> data;
+    
+    private String imageUrl;
+    
+    private String sound;
+    
+    private Integer badge;
+}
@@ -0,0 +1,35 @@
+package com.aigreentick.services.notification.dto.request.push;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Broadcast to an FCM topic, or to a condition such as
+ * {@code "'sports' in topics && 'news' in topics"}. Exactly one of the two is required.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SendTopicPushRequest {
+    
+    private String topic;
+    
+    private String condition;
+    
+    private String title;
+    
+    private String body;
+    
+    private Map<String, String> data;
+    
+    private String imageUrl;
+    
+    private String sound;
+    
+    private Integer badge;
+}
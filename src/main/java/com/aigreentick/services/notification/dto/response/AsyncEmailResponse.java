@@ -53,4 +53,19 @@ public class AsyncEmailResponse {
      * Queue position (optional - useful for visibility)
      */
     private Integer queuePosition;
+
+    /**
+     * Requested delivery time, for scheduled sends
+     */
+    private Instant scheduledAt;
+
+    /**
+     * Job of a batch send; its progress covers every item of the batch
+     */
+    private String jobId;
+
+    /**
+     * URL of the job's aggregated progress, for batch sends
+     */
+    private String jobStatusUrl;
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.aigreentick.services.notification.dto.response;
+
+import com.aigreentick.services.notification.enums.NotificationStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One result line of a bulk send, for the item at the same position in the input
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+
+    /**
+     * Zero-based position of the item in the submission
+     */
+    private int index;
+
+    private boolean accepted;
+
+    /**
+     * Set for accepted items
+     */
+    private String notificationId;
+
+    /**
+     * Status the notification was created with, for accepted items
+     */
+    private NotificationStatus status;
+
+    /**
+     * Why the item was rejected
+     */
+    private String error;
+
+    public static BulkItemResult accepted(int index, String notificationId, NotificationStatus status) {
+        return BulkItemResult.builder()
+                .index(index)
+                .accepted(true)
+                .notificationId(notificationId)
+                .status(status)
+                .build();
+    }
+
+    public static BulkItemResult rejected(int index, String error) {
+        return BulkItemResult.builder()
+                .index(index)
+                .accepted(false)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.aigreentick.services.notification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last line of a bulk send response
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSendSummary {
+
+    /**
+     * Job following the deliveries of the accepted items
+     */
+    private String jobId;
+
+    private int total;
+
+    private int accepted;
+
+    private int rejected;
+
+    private long durationMs;
+
+    /**
+     * Set when the submission could not be read to the end; items after the
+     * last result line were not processed
+     */
+    private String error;
+}
@@ -0,0 +1,33 @@
+package com.aigreentick.services.notification.dto.response;
+
+import java.time.Instant;
+
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.enums.NotificationJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationJobResponse {
+    private String jobId;
+    private NotificationChannel channel;
+    private String source;
+    private NotificationJobStatus status;
+    private long accepted;
+    private long rejected;
+    private long sent;
+    private long failed;
+    /** Accepted but not yet sent or failed */
+    private long pending;
+    private Instant createdAt;
+    private Instant closedAt;
+    private Instant completedAt;
+    private String statusCheckUrl;
+    private String eventsUrl;
+}
@@ -20,4 +20,5 @@ public class AsyncPushResponse {
     private Instant acceptedAt;
     private Integer estimatedProcessingTimeSeconds;
     private String statusCheckUrl;
+    private Instant scheduledAt;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.aigreentick.services.notification.dto.response.push;
+
+import java.util.List;
+
+import com.aigreentick.services.notification.enums.push.DeviceTokenOutcome;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeviceTokenResponse {
+    
+    private int total;
+    private int succeeded;
+    private int failed;
+    
+    /** One entry per submitted token, in request order */
+    private List<ItemResult> results;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private String deviceToken;
+        private DeviceTokenOutcome outcome;
+        private String error;
+    }
+}
@@ -25,6 +25,8 @@ public class PushNotificationResponse {
     private PushProviderType providerType;
     private String providerId;
     private Integer retryCount;
+    private String topic;
+    private String condition;
     private Instant createdAt;
     private Instant updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.aigreentick.services.notification.dto.response.push;
+
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one message in a provider batch send
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PushSendResult {
+    private String deviceToken;
+    private boolean success;
+    private String messageId;
+    private PushErrorCode errorCode;
+    /** The provider's own code: FCM error code, APNs rejection reason or HTTP status */
+    private String providerReason;
+    private String errorMessage;
+
+    /**
+     * Provider reported the token as unregistered, malformed or not ours
+     */
+    public boolean isInvalidToken() {
+        return errorCode != null && errorCode.isTokenDead();
+    }
+
+    public static PushSendResult success(String deviceToken, String messageId) {
+        return PushSendResult.builder()
+                .deviceToken(deviceToken)
+                .success(true)
+                .messageId(messageId)
+                .build();
+    }
+
+    public static PushSendResult failure(String deviceToken, PushErrorCode errorCode, String providerReason,
+            String errorMessage) {
+        return PushSendResult.builder()
+                .deviceToken(deviceToken)
+                .success(false)
+                .errorCode(errorCode)
+                .providerReason(providerReason)
+                .errorMessage(errorMessage)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.aigreentick.services.notification.dto.response.push;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopicSubscriptionResponse {
+    private String topic;
+    private int successCount;
+    private int failureCount;
+    /** Tokens FCM refused, with its reason */
+    private List<String> errors;
+}
@@ -0,0 +1,11 @@
+package com.aigreentick.services.notification.enums;
+
+/**
+ * How an async task executor runs delivery tasks
+ */
+public enum AsyncExecutionMode {
+    /** Bounded pool of platform threads with a task queue */
+    POOL,
+    /** One virtual thread per task; concurrency is capped per provider instead */
+    VIRTUAL
+}
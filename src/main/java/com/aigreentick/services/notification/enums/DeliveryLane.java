@@ -0,0 +1,46 @@
+package com.aigreentick.services.notification.enums;
+
+import com.aigreentick.services.notification.enums.email.EmailPriority;
+
+/**
+ * Delivery queue lane. Lanes are dequeued by weight, so bulk traffic
+ * cannot delay critical and transactional notifications.
+ */
+public enum DeliveryLane {
+    CRITICAL,
+
+    TRANSACTIONAL,
+
+    BULK;
+
+    public static DeliveryLane of(EmailPriority priority) {
+        if (priority == null) {
+            return TRANSACTIONAL;
+        }
+        return switch (priority) {
+            case HIGHEST, HIGH -> CRITICAL;
+            case NORMAL -> TRANSACTIONAL;
+            case LOW, LOWEST -> BULK;
+        };
+    }
+
+    /**
+     * Push priority as used by the providers: 10 is immediate (APNs), 5 is normal
+     */
+    public static DeliveryLane ofPushPriority(Integer priority) {
+        if (priority == null) {
+            return TRANSACTIONAL;
+        }
+        if (priority >= 10) {
+            return CRITICAL;
+        }
+        return priority >= 5 ? TRANSACTIONAL : BULK;
+    }
+
+    /**
+     * One lane lower, for items submitted as part of a batch
+     */
+    public DeliveryLane demoted() {
+        return this == CRITICAL ? TRANSACTIONAL : BULK;
+    }
+}
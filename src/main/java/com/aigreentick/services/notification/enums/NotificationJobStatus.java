@@ -0,0 +1,15 @@
+package com.aigreentick.services.notification.enums;
+
+/**
+ * State of a batch or bulk send tracked as one job
+ */
+public enum NotificationJobStatus {
+    /** Items are still being accepted */
+    ACCEPTING,
+
+    /** Every item has been accepted; deliveries are still outstanding */
+    RUNNING,
+
+    /** Every accepted item was sent or failed */
+    COMPLETED
+}
@@ -1,9 +1,16 @@
 package com.aigreentick.services.notification.enums;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Enum representing the lifecycle status of a notification
  */
 public enum NotificationStatus {
+    SCHEDULED,
+
     PENDING,
     
     PROCESSING,
@@ -22,5 +29,45 @@ public enum NotificationStatus {
     
     CANCELLED,
     
-    EXPIRED
-}
\ No newline at end of file
+    EXPIRED;
+
+    /**
+     * No further delivery work happens after a terminal status
+     */
+    public boolean isTerminal() {
+        return switch (this) {
+            case SENT, DELIVERED, FAILED, BOUNCED, SPAM_COMPLAINT, CANCELLED, EXPIRED -> true;
+            case SCHEDULED, PENDING, PROCESSING, RETRYING -> false;
+        };
+    }
+
+    /**
+     * Statuses a notification may be in when it moves to this one.
+     * SCHEDULED is only ever the initial status; PENDING is initial or follows SCHEDULED.
+     * FAILED is final: a failed attempt that will be retried is RETRYING instead.
+     */
+    public Set<NotificationStatus> allowedFrom() {
+        return ALLOWED_FROM.get(this);
+    }
+
+    public boolean canTransitionTo(NotificationStatus next) {
+        return next.allowedFrom().contains(this);
+    }
+
+    private static final Map<NotificationStatus, Set<NotificationStatus>> ALLOWED_FROM =
+            new EnumMap<>(NotificationStatus.class);
+
+    static {
+        ALLOWED_FROM.put(SCHEDULED, EnumSet.noneOf(NotificationStatus.class));
+        ALLOWED_FROM.put(PENDING, EnumSet.of(SCHEDULED));
+        ALLOWED_FROM.put(PROCESSING, EnumSet.of(PENDING, RETRYING));
+        ALLOWED_FROM.put(SENT, EnumSet.of(PENDING, PROCESSING, RETRYING));
+        ALLOWED_FROM.put(DELIVERED, EnumSet.of(SENT));
+        ALLOWED_FROM.put(FAILED, EnumSet.of(SCHEDULED, PENDING, PROCESSING, RETRYING, FAILED));
+        ALLOWED_FROM.put(RETRYING, EnumSet.of(PENDING, PROCESSING));
+        ALLOWED_FROM.put(BOUNCED, EnumSet.of(SENT, DELIVERED));
+        ALLOWED_FROM.put(SPAM_COMPLAINT, EnumSet.of(SENT, DELIVERED));
+        ALLOWED_FROM.put(CANCELLED, EnumSet.of(SCHEDULED, PENDING, RETRYING));
+        ALLOWED_FROM.put(EXPIRED, EnumSet.of(PENDING, PROCESSING, RETRYING));
+    }
+}
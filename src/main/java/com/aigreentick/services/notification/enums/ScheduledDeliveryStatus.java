@@ -0,0 +1,12 @@
+package com.aigreentick.services.notification.enums;
+
+/**
+ * State of a scheduled delivery until it is released to the delivery queue
+ */
+public enum ScheduledDeliveryStatus {
+    /** Waiting in MongoDB */
+    SCHEDULED,
+
+    /** Held in one instance's timing wheel until its lease runs out */
+    CLAIMED
+}
@@ -0,0 +1,13 @@
+package com.aigreentick.services.notification.enums.batch;
+
+/**
+ * What a batch lane does when its queue is full
+ */
+public enum BackpressurePolicy {
+    /** Wait up to the enqueue deadline for space, then reject */
+    BLOCK,
+    /** Append to the lane's local overflow log and re-drain it later */
+    SPILL,
+    /** Reject immediately so callers can back off (HTTP 503) */
+    SHED
+}
@@ -0,0 +1,10 @@
+package com.aigreentick.services.notification.enums.push;
+
+public enum DeviceTokenOutcome {
+    CREATED,
+    UPDATED,
+    DEACTIVATED,
+    NOT_FOUND,
+    REJECTED,
+    FAILED
+}
@@ -0,0 +1,35 @@
+package com.aigreentick.services.notification.enums.push;
+
+/**
+ * Provider-neutral reason a push was refused. Only the codes marked as
+ * dead-token ones lead to the token being deactivated.
+ */
+public enum PushErrorCode {
+    /** App uninstalled or token rotated (FCM UNREGISTERED, APNs Unregistered, Web Push 404/410) */
+    UNREGISTERED(true),
+    /** Token or subscription is malformed (APNs BadDeviceToken) */
+    INVALID_TOKEN(true),
+    /**
+     * Token belongs to another sender or bundle (FCM SENDER_ID_MISMATCH, APNs DeviceTokenNotForTopic).
+     * Usually our own credentials or bundle id are wrong, so the token is kept.
+     */
+    TOKEN_MISMATCH(false),
+    INVALID_PAYLOAD(false),
+    RATE_LIMITED(false),
+    AUTHENTICATION(false),
+    UNAVAILABLE(false),
+    UNKNOWN(false);
+
+    private final boolean tokenDead;
+
+    PushErrorCode(boolean tokenDead) {
+        this.tokenDead = tokenDead;
+    }
+
+    /**
+     * True if retrying this token can never succeed
+     */
+    public boolean isTokenDead() {
+        return tokenDead;
+    }
+}
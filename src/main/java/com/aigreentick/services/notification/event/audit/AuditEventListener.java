@@ -25,7 +25,7 @@ public class AuditEventListener {
      * 
      * @param event The audit event to process
      */
-    @Async("emailTaskExecutor")  // Reuse existing thread pool
+    @Async("auditTaskExecutor")
     @EventListener
     public void handleAuditEvent(AuditEvent event) {
         try {
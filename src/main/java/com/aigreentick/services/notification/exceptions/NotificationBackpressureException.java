@@ -0,0 +1,18 @@
+package com.aigreentick.services.notification.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a batch lane is saturated and rejects new work
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class NotificationBackpressureException extends RuntimeException {
+    public NotificationBackpressureException(String message) {
+        super(message);
+    }
+
+    public NotificationBackpressureException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,13 +1,27 @@
 package com.aigreentick.services.notification.exceptions;
 
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
+
 public class PushNotificationException extends RuntimeException {
+    
+    private final PushErrorCode errorCode;
+    
     public PushNotificationException(String message){
-        super(message);
-    }
-    public PushNotificationException(String message,Exception e){
-        super(message);
+        this(message, PushErrorCode.UNKNOWN);
     }
     public PushNotificationException(String message, Throwable cause) {
+        this(message, PushErrorCode.UNKNOWN, cause);
+    }
+    public PushNotificationException(String message, PushErrorCode errorCode) {
         super(message);
+        this.errorCode = errorCode;
+    }
+    public PushNotificationException(String message, PushErrorCode errorCode, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+    
+    public PushErrorCode getErrorCode() {
+        return errorCode;
     }
 }
@@ -4,6 +4,8 @@ import org.springframework.stereotype.Component;
 
 import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
 import com.aigreentick.services.notification.dto.request.push.SendPushRequest;
+import com.aigreentick.services.notification.dto.request.push.SendSegmentPushRequest;
+import com.aigreentick.services.notification.dto.request.push.SendTopicPushRequest;
 import com.aigreentick.services.notification.dto.response.push.PushNotificationResponse;
 import com.aigreentick.services.notification.model.entity.PushNotification;
 
@@ -25,6 +27,28 @@ public class PushNotificationMapper {
                 .build();
     }
     
+    public PushNotificationRequest toPushRequest(SendTopicPushRequest request) {
+        return PushNotificationRequest.builder()
+                .title(request.getTitle())
+                .body(request.getBody())
+                .data(request.getData())
+                .imageUrl(request.getImageUrl())
+                .sound(request.getSound())
+                .badge(request.getBadge())
+                .build();
+    }
+    
+    public PushNotificationRequest toPushRequest(SendSegmentPushRequest request) {
+        return PushNotificationRequest.builder()
+                .title(request.getTitle())
+                .body(request.getBody())
+                .data(request.getData())
+                .imageUrl(request.getImageUrl())
+                .sound(request.getSound())
+                .badge(request.getBadge())
+                .build();
+    }
+    
     public PushNotificationResponse toResponse(PushNotification notification) {
         return PushNotificationResponse.builder()
                 .id(notification.getId())
@@ -36,6 +60,8 @@ public class PushNotificationMapper {
                 .providerType(notification.getProviderType())
                 .providerId(notification.getProviderId())
                 .retryCount(notification.getRetryCount())
+                .topic(notification.getTopic())
+                .condition(notification.getCondition())
                 .createdAt(notification.getCreatedAt())
                 .updatedAt(notification.getUpdatedAt())
                 .build();
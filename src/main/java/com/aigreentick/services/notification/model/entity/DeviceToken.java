@@ -1,5 +1,6 @@
 package com.aigreentick.services.notification.model.entity;
 
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -15,6 +16,7 @@ import lombok.experimental.SuperBuilder;
 
 
 @Document(collection = "device_token")
+@CompoundIndex(name = "user_active_idx", def = "{'userId': 1, 'active': 1}")
 @SuperBuilder
 @Getter
 @Setter
@@ -1,7 +1,9 @@
 package com.aigreentick.services.notification.model.entity;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.aigreentick.services.common.model.base.MongoBaseEntity;
@@ -15,6 +17,7 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Document(collection = "email_notification")
+@CompoundIndex(name = "job_status_idx", def = "{'jobId': 1, 'status': 1}")
 @SuperBuilder
 @Getter
 @Setter
@@ -45,4 +48,10 @@ public class EmailNotification extends MongoBaseEntity {
 
     private String userId;
 
+    /** Requested delivery time of a scheduled send */
+    private Instant scheduledAt;
+
+    /** Batch or bulk job the notification was created by */
+    private String jobId;
+
 }
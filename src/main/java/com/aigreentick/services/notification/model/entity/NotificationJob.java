@@ -0,0 +1,50 @@
+package com.aigreentick.services.notification.model.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.aigreentick.services.common.model.base.MongoBaseEntity;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.enums.NotificationJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Aggregated progress of one batch or bulk send, so callers follow one
+ * document instead of polling every notification. Counters are advanced
+ * with {@code $inc}: accepted and rejected once per chunk, sent and failed
+ * in periodic batches as deliveries finish.
+ */
+@Document(collection = "notification_job")
+@SuperBuilder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationJob extends MongoBaseEntity {
+
+    private NotificationChannel channel;
+
+    /** Endpoint the items came in through, e.g. batch or bulk */
+    private String source;
+
+    private NotificationJobStatus status;
+
+    private long accepted;
+
+    private long rejected;
+
+    private long sent;
+
+    private long failed;
+
+    /** When the last item was accepted */
+    private Instant closedAt;
+
+    private Instant completedAt;
+}
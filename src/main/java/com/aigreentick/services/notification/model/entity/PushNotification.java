@@ -1,7 +1,9 @@
 package com.aigreentick.services.notification.model.entity;
 
+import java.time.Instant;
 import java.util.Map;
 
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.aigreentick.services.common.model.base.MongoBaseEntity;
@@ -16,6 +18,7 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Document(collection = "push_notification")
+@CompoundIndex(name = "job_status_idx", def = "{'jobId': 1, 'status': 1}")
 @SuperBuilder
 @Getter
 @Setter
@@ -46,4 +49,15 @@ public class PushNotification extends MongoBaseEntity{
     
     private Integer retryCount;
     
+    /** Set on topic and condition broadcasts, which have no single device */
+    private String topic;
+    
+    private String condition;
+    
+    /** Requested delivery time of a scheduled send */
+    private Instant scheduledAt;
+    
+    /** Batch or bulk job the notification was created by */
+    private String jobId;
+    
 }
@@ -0,0 +1,58 @@
+package com.aigreentick.services.notification.model.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.aigreentick.services.common.model.base.MongoBaseEntity;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.enums.ScheduledDeliveryStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A notification waiting for its scheduled time. Removed once it has been
+ * released to the delivery queue; the notification itself stays SCHEDULED
+ * until then.
+ */
+@Document(collection = "scheduled_delivery")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_due_idx", def = "{'status': 1, 'dueAt': 1}"),
+    @CompoundIndex(name = "status_lease_idx", def = "{'status': 1, 'leaseUntil': 1}")
+})
+@SuperBuilder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledDelivery extends MongoBaseEntity {
+
+    /** Delivery queue channel */
+    private String channel;
+
+    private DeliveryLane lane;
+
+    private String notificationId;
+
+    /** Queue payload, already serialized */
+    private String payload;
+
+    private Instant dueAt;
+
+    private ScheduledDeliveryStatus status;
+
+    /** Instance holding the entry in its timing wheel */
+    private String claimedBy;
+
+    /** Claim of one scan, to read back what that scan won */
+    private String claimToken;
+
+    /** After this the claim is void and any instance may take the entry */
+    private Instant leaseUntil;
+}
@@ -5,25 +5,31 @@ import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import com.aigreentick.services.notification.config.properties.PushProperties;
 import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.response.push.PushSendResult;
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
 import com.aigreentick.services.notification.enums.push.PushProviderType;
 import com.aigreentick.services.notification.exceptions.PushNotificationException;
 import com.eatthepath.pushy.apns.ApnsClient;
 import com.eatthepath.pushy.apns.ApnsClientBuilder;
 import com.eatthepath.pushy.apns.DeliveryPriority;
-import com.eatthepath.pushy.apns.PushNotificationResponse;
 import com.eatthepath.pushy.apns.PushType;
 import com.eatthepath.pushy.apns.auth.ApnsSigningKey;
 import com.eatthepath.pushy.apns.util.SimpleApnsPayloadBuilder;
 import com.eatthepath.pushy.apns.util.SimpleApnsPushNotification;
-import com.eatthepath.pushy.apns.util.concurrent.PushNotificationFuture;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -32,7 +38,12 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Apple Push Notification Service (APNs) Provider
- * Uses Pushy library for HTTP/2-based APNs communication
+ * Uses Pushy library for HTTP/2-based APNs communication.
+ *
+ * Sends are pipelined: each notification is a stream on a shared HTTP/2
+ * connection and completes through a future, so no thread waits for the
+ * round trip. {@code push.apns.max-concurrent-streams} caps how many are
+ * in flight at once.
  */
 @Slf4j
 @Service
@@ -42,6 +53,7 @@ public class ApnsPushProvider implements PushProviderStrategy {
 
     private final PushProperties pushProperties;
     private ApnsClient apnsClient;
+    private Semaphore streamPermits;
 
     @PostConstruct
     public void initialize() {
@@ -64,16 +76,30 @@ public class ApnsPushProvider implements PushProviderStrategy {
                     config.getKeyId());
 
 
-            ApnsClientBuilder builder = new ApnsClientBuilder()
-                    .setApnsServer(config.isProduction()
+            String host = config.getServerHost() != null
+                    ? config.getServerHost()
+                    : config.isProduction()
                             ? ApnsClientBuilder.PRODUCTION_APNS_HOST
-                            : ApnsClientBuilder.DEVELOPMENT_APNS_HOST)
-                    .setSigningKey(signingKey);
+                            : ApnsClientBuilder.DEVELOPMENT_APNS_HOST;
+            int port = config.getServerPort() != null
+                    ? config.getServerPort()
+                    : ApnsClientBuilder.DEFAULT_APNS_PORT;
+
+            ApnsClientBuilder builder = new ApnsClientBuilder()
+                    .setApnsServer(host, port)
+                    .setSigningKey(signingKey)
+                    .setConcurrentConnections(config.getConcurrentConnections());
+
+            if (config.getTrustedCertificatePath() != null) {
+                builder.setTrustedServerCertificateChain(new File(config.getTrustedCertificatePath()));
+            }
 
             apnsClient = builder.build();
+            streamPermits = new Semaphore(config.getMaxConcurrentStreams());
 
-            log.info("APNs client initialized successfully for {} environment",
-                    config.isProduction() ? "PRODUCTION" : "DEVELOPMENT");
+            log.info("APNs client initialized successfully for {} environment ({}:{}, connections={}, maxStreams={})",
+                    config.isProduction() ? "PRODUCTION" : "DEVELOPMENT", host, port,
+                    config.getConcurrentConnections(), config.getMaxConcurrentStreams());
 
         } catch (IOException | NoSuchAlgorithmException | InvalidKeyException e) {
             log.error("Failed to initialize APNs client", e);
@@ -92,55 +118,131 @@ public class ApnsPushProvider implements PushProviderStrategy {
 
     @Override
     public void send(PushNotificationRequest request) {
+        PushSendResult result = sendAsync(request).join();
+        if (!result.isSuccess()) {
+            throw new PushNotificationException(result.getErrorMessage(), result.getErrorCode());
+        }
+    }
+
+    /**
+     * Every notification goes out before any response is awaited
+     */
+    @Override
+    public List<PushSendResult> sendBatch(List<PushNotificationRequest> requests) {
+        List<CompletableFuture<PushSendResult>> futures = new ArrayList<>(requests.size());
+        for (PushNotificationRequest request : requests) {
+            futures.add(sendAsync(request));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Start the send and return at once. Blocks only while
+     * {@code max-concurrent-streams} notifications are already in flight, and
+     * fails as UNAVAILABLE if no stream frees up within {@code stream-wait-ms}.
+     */
+    @Override
+    public CompletableFuture<PushSendResult> sendAsync(PushNotificationRequest request) {
         if (apnsClient == null) {
             throw new PushNotificationException("APNs client not initialized");
         }
 
-        log.info("Sending APNs push notification to token: {}...",
-                request.getDeviceToken().substring(0, Math.min(10, request.getDeviceToken().length())));
+        String deviceToken = request.getDeviceToken();
+        log.debug("Sending APNs push notification to token: {}...",
+                deviceToken.substring(0, Math.min(10, deviceToken.length())));
 
+        SimpleApnsPushNotification pushNotification;
         try {
-            String payload = buildApnsPayload(request);
-
             PushProperties.ApnsConfig config = pushProperties.getApns();
-
-            SimpleApnsPushNotification pushNotification = new SimpleApnsPushNotification(
-                    request.getDeviceToken(),
+            pushNotification = new SimpleApnsPushNotification(
+                    deviceToken,
                     config.getBundleId(),
-                    payload,
+                    buildApnsPayload(request),
                     Instant.now().plusSeconds(config.getTimeout() / 1000),
                     determinePriority(request),
                     PushType.ALERT,
                     null,
                     null);
+        } catch (Exception e) {
+            log.error("Failed to build APNs notification", e);
+            return CompletableFuture.completedFuture(
+                    PushSendResult.failure(deviceToken, PushErrorCode.INVALID_PAYLOAD, null,
+                            "Failed to build APNs notification: " + e.getMessage()));
+        }
 
-            PushNotificationFuture<SimpleApnsPushNotification, PushNotificationResponse<SimpleApnsPushNotification>> sendNotificationFuture = apnsClient
-                    .sendNotification(pushNotification);
-
-            PushNotificationResponse<SimpleApnsPushNotification> response = sendNotificationFuture.get();
-
-            if (response.isAccepted()) {
-                log.info("APNs notification accepted. APNs ID: {}", response.getApnsId());
-            } else {
-                String rejection = response.getRejectionReason().orElse("Unknown reason");
-                log.error("APNs notification rejected: {}", rejection);
-
-                handleApnsRejection(rejection, response);
+        long streamWaitMs = pushProperties.getApns().getStreamWaitMs();
+        try {
+            if (!streamPermits.tryAcquire(streamWaitMs, TimeUnit.MILLISECONDS)) {
+                log.warn("No APNs stream free within {}ms", streamWaitMs);
+                return CompletableFuture.completedFuture(
+                        PushSendResult.failure(deviceToken, PushErrorCode.UNAVAILABLE, null,
+                                "No APNs stream free within " + streamWaitMs + "ms"));
             }
-
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            log.error("APNs send interrupted", e);
             throw new PushNotificationException("APNs send interrupted", e);
-        } catch (ExecutionException e) {
+        }
+
+        try {
+            return sendOnStream(pushNotification, deviceToken);
+        } catch (RuntimeException e) {
+            // Never reached the client's future, so its completion will not release the stream
+            streamPermits.release();
             log.error("Failed to send APNs notification", e);
-            throw new PushNotificationException("Failed to send APNs notification", e.getCause());
-        } catch (Exception e) {
-            log.error("Unexpected error sending APNs notification", e);
-            throw new PushNotificationException("Failed to send APNs notification", e);
+            return CompletableFuture.completedFuture(
+                    PushSendResult.failure(deviceToken, PushErrorCode.UNAVAILABLE, null,
+                            "Failed to send APNs notification: " + e.getMessage()));
         }
     }
 
+    /**
+     * A response that has not arrived within {@code timeout} ms fails the send
+     * as UNAVAILABLE and frees its stream permit
+     */
+    private CompletableFuture<PushSendResult> sendOnStream(SimpleApnsPushNotification pushNotification,
+            String deviceToken) {
+        int timeoutMs = pushProperties.getApns().getTimeout();
+        return apnsClient.sendNotification(pushNotification)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> streamPermits.release())
+                .handle((response, error) -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("No APNs response within {}ms", timeoutMs);
+                        return PushSendResult.failure(deviceToken, PushErrorCode.UNAVAILABLE, null,
+                                "No APNs response within " + timeoutMs + "ms");
+                    }
+                    if (error != null) {
+                        log.error("Failed to send APNs notification", error);
+                        return PushSendResult.failure(deviceToken, PushErrorCode.UNAVAILABLE, null,
+                                "Failed to send APNs notification: " + error.getMessage());
+                    }
+                    if (response.isAccepted()) {
+                        log.debug("APNs notification accepted. APNs ID: {}", response.getApnsId());
+                        return PushSendResult.success(deviceToken, String.valueOf(response.getApnsId()));
+                    }
+
+                    String rejection = response.getRejectionReason().orElse("Unknown reason");
+                    log.error("APNs notification rejected: {}", rejection);
+                    return PushSendResult.failure(deviceToken, toErrorCode(rejection), rejection,
+                            describeRejection(rejection));
+                });
+    }
+
+    @Override
+    public boolean isPipelined() {
+        return true;
+    }
+
+    /**
+     * Notifications currently awaiting an APNs response
+     */
+    public int getInFlightCount() {
+        return streamPermits == null ? 0
+                : pushProperties.getApns().getMaxConcurrentStreams() - streamPermits.availablePermits();
+    }
+
     private String buildApnsPayload(PushNotificationRequest request) {
         SimpleApnsPayloadBuilder payloadBuilder = new SimpleApnsPayloadBuilder();
 
@@ -188,44 +290,32 @@ public class ApnsPushProvider implements PushProviderStrategy {
         return DeliveryPriority.CONSERVE_POWER;
     }
 
-    private void handleApnsRejection(String rejectionReason,
-            PushNotificationResponse<SimpleApnsPushNotification> response) {
-
-        switch (rejectionReason) {
-            case "BadDeviceToken":
-            case "Unregistered":
-                throw new PushNotificationException(
-                        "Invalid or unregistered device token");
-
-            case "BadTopic":
-                throw new PushNotificationException(
-                        "Invalid topic (bundle ID mismatch)");
-
-            case "DeviceTokenNotForTopic":
-                throw new PushNotificationException(
-                        "Device token not valid for this bundle ID");
-
-            case "PayloadTooLarge":
-                throw new PushNotificationException(
-                        "Notification payload exceeds 4KB limit");
-
-            case "BadCertificate":
-            case "BadCertificateEnvironment":
-                throw new PushNotificationException(
-                        "Certificate issue: " + rejectionReason);
-
-            case "ExpiredProviderToken":
-                throw new PushNotificationException(
-                        "Provider token expired, needs refresh");
-
-            case "TooManyRequests":
-                throw new PushNotificationException(
-                        "Rate limit exceeded for this device token");
+    private static String describeRejection(String rejectionReason) {
+        return switch (rejectionReason) {
+            case "BadDeviceToken", "Unregistered" -> "Invalid or unregistered device token";
+            case "BadTopic" -> "Invalid topic (bundle ID mismatch)";
+            case "DeviceTokenNotForTopic" -> "Device token not valid for this bundle ID";
+            case "PayloadTooLarge" -> "Notification payload exceeds 4KB limit";
+            case "BadCertificate", "BadCertificateEnvironment" -> "Certificate issue: " + rejectionReason;
+            case "ExpiredProviderToken" -> "Provider token expired, needs refresh";
+            case "TooManyRequests" -> "Rate limit exceeded for this device token";
+            default -> "APNs rejection: " + rejectionReason;
+        };
+    }
 
-            default:
-                throw new PushNotificationException(
-                        "APNs rejection: " + rejectionReason);
-        }
+    private static PushErrorCode toErrorCode(String rejectionReason) {
+        return switch (rejectionReason) {
+            case "Unregistered", "ExpiredToken" -> PushErrorCode.UNREGISTERED;
+            case "BadDeviceToken" -> PushErrorCode.INVALID_TOKEN;
+            case "DeviceTokenNotForTopic" -> PushErrorCode.TOKEN_MISMATCH;
+            case "PayloadTooLarge", "PayloadEmpty", "BadTopic", "BadPriority", "BadExpirationDate"
+                    -> PushErrorCode.INVALID_PAYLOAD;
+            case "BadCertificate", "BadCertificateEnvironment", "ExpiredProviderToken",
+                    "InvalidProviderToken", "MissingProviderToken", "Forbidden" -> PushErrorCode.AUTHENTICATION;
+            case "TooManyRequests", "TooManyProviderTokenUpdates" -> PushErrorCode.RATE_LIMITED;
+            case "InternalServerError", "ServiceUnavailable", "Shutdown" -> PushErrorCode.UNAVAILABLE;
+            default -> PushErrorCode.UNKNOWN;
+        };
     }
 
     private void validateApnsConfiguration() {
@@ -0,0 +1,150 @@
+package com.aigreentick.services.notification.provider.push;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.google.firebase.messaging.AndroidConfig;
+import com.google.firebase.messaging.AndroidNotification;
+import com.google.firebase.messaging.ApnsConfig;
+import com.google.firebase.messaging.Aps;
+import com.google.firebase.messaging.ApsAlert;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.Notification;
+
+/**
+ * The token-independent part of an FCM message, built once per campaign.
+ *
+ * {@link Notification}, {@link AndroidConfig} and {@link ApnsConfig} are
+ * immutable, so one instance of each is shared by every message stamped out
+ * with {@link #forToken(String)}; only the thin {@link Message} wrapper is
+ * allocated per device.
+ */
+public final class FcmCampaignMessage {
+
+    private final Notification notification;
+    private final AndroidConfig androidConfig;
+    private final ApnsConfig apnsConfig;
+    private final Map<String, String> data;
+
+    private FcmCampaignMessage(PushNotificationRequest request) {
+        this.notification = buildNotification(request);
+        this.androidConfig = buildAndroidConfig(request);
+        this.apnsConfig = buildApnsConfig(request);
+        this.data = request.getData() != null && !request.getData().isEmpty()
+                ? Map.copyOf(request.getData())
+                : Map.of();
+    }
+
+    /**
+     * Build the shared parts from a request; its device token is ignored
+     */
+    public static FcmCampaignMessage of(PushNotificationRequest request) {
+        return new FcmCampaignMessage(request);
+    }
+
+    public Message forToken(String deviceToken) {
+        return build(Message.builder().setToken(deviceToken));
+    }
+
+    public Message forTopic(String topic) {
+        return build(Message.builder().setTopic(topic));
+    }
+
+    /**
+     * @param condition topic expression, e.g. {@code "'a' in topics && 'b' in topics"}
+     */
+    public Message forCondition(String condition) {
+        return build(Message.builder().setCondition(condition));
+    }
+
+    private Message build(Message.Builder messageBuilder) {
+        messageBuilder
+                .setNotification(notification)
+                .setAndroidConfig(androidConfig)
+                .setApnsConfig(apnsConfig);
+
+        if (!data.isEmpty()) {
+            messageBuilder.putAllData(data);
+        }
+
+        return messageBuilder.build();
+    }
+
+    private static Notification buildNotification(PushNotificationRequest request) {
+        Notification.Builder builder = Notification.builder()
+                .setTitle(request.getTitle())
+                .setBody(request.getBody());
+
+        if (request.getImageUrl() != null) {
+            builder.setImage(request.getImageUrl());
+        }
+
+        return builder.build();
+    }
+
+    private static AndroidConfig buildAndroidConfig(PushNotificationRequest request) {
+        AndroidNotification.Builder notificationBuilder = AndroidNotification.builder()
+                .setTitle(request.getTitle())
+                .setBody(request.getBody());
+
+        if (request.getSound() != null) {
+            notificationBuilder.setSound(request.getSound());
+        }
+
+        if (request.getImageUrl() != null) {
+            notificationBuilder.setImage(request.getImageUrl());
+        }
+
+        if (request.getClickAction() != null) {
+            notificationBuilder.setClickAction(request.getClickAction());
+        }
+
+        AndroidConfig.Builder configBuilder = AndroidConfig.builder()
+                .setNotification(notificationBuilder.build());
+
+        if (request.getPriority() != null) {
+            configBuilder.setPriority(request.getPriority() > 5
+                    ? AndroidConfig.Priority.HIGH
+                    : AndroidConfig.Priority.NORMAL);
+        }
+
+        if (request.getTtl() != null) {
+            configBuilder.setTtl(request.getTtl() * 1000L);
+        }
+
+        return configBuilder.build();
+    }
+
+    private static ApnsConfig buildApnsConfig(PushNotificationRequest request) {
+        Aps.Builder apsBuilder = Aps.builder()
+                .setAlert(ApsAlert.builder()
+                        .setTitle(request.getTitle())
+                        .setBody(request.getBody())
+                        .build());
+
+        if (request.getSound() != null) {
+            apsBuilder.setSound(request.getSound());
+        } else {
+            apsBuilder.setSound("default");
+        }
+
+        if (request.getBadge() != null) {
+            apsBuilder.setBadge(request.getBadge());
+        }
+
+        Map<String, String> apnsHeaders = new HashMap<>();
+        if (request.getPriority() != null) {
+            apnsHeaders.put("apns-priority", request.getPriority() > 5 ? "10" : "5");
+        }
+
+        ApnsConfig.Builder configBuilder = ApnsConfig.builder()
+                .setAps(apsBuilder.build());
+
+        if (!apnsHeaders.isEmpty()) {
+            configBuilder.putAllHeaders(apnsHeaders);
+        }
+
+        return configBuilder.build();
+    }
+}
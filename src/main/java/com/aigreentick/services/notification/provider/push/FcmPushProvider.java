@@ -1,26 +1,28 @@
 package com.aigreentick.services.notification.provider.push;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import com.aigreentick.services.notification.config.properties.PushProperties;
 import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.response.push.PushSendResult;
+import com.aigreentick.services.notification.dto.response.push.TopicSubscriptionResponse;
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
 import com.aigreentick.services.notification.enums.push.PushProviderType;
 import com.aigreentick.services.notification.exceptions.PushNotificationException;
 import com.google.firebase.FirebaseApp;
-import com.google.firebase.messaging.AndroidConfig;
-import com.google.firebase.messaging.AndroidNotification;
-import com.google.firebase.messaging.ApnsConfig;
-import com.google.firebase.messaging.Aps;
-import com.google.firebase.messaging.ApsAlert;
+import com.google.firebase.messaging.BatchResponse;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
 import com.google.firebase.messaging.MessagingErrorCode;
-import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import com.google.firebase.messaging.TopicManagementResponse;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +33,12 @@ import lombok.extern.slf4j.Slf4j;
 @ConditionalOnProperty(prefix = "firebase", name = "enabled", havingValue = "true")
 public class FcmPushProvider implements PushProviderStrategy {
 
+    /** FCM limit for one sendEach call */
+    private static final int MAX_BATCH_SIZE = 500;
+
+    /** FCM limit for one topic management call */
+    private static final int MAX_TOPIC_BATCH_SIZE = 1000;
+
     private final PushProperties pushProperties;
     private final FirebaseApp firebaseApp;
 
@@ -52,122 +60,196 @@ public class FcmPushProvider implements PushProviderStrategy {
             handleFcmException(e);
         } catch (Exception e) {
             log.error("Unexpected error sending FCM notification", e);
-            throw new PushNotificationException("Failed to send push notification", e);
+            throw new PushNotificationException("Failed to send push notification", PushErrorCode.UNKNOWN, e);
         }
     }
 
-    private Message buildFcmMessage(PushNotificationRequest request) {
-        Message.Builder messageBuilder = Message.builder()
-                .setToken(request.getDeviceToken())
-                .setNotification(buildNotification(request))
-                .setAndroidConfig(buildAndroidConfig(request))
-                .setApnsConfig(buildApnsConfig(request));
-
-        if (request.getData() != null && !request.getData().isEmpty()) {
-            messageBuilder.putAllData(request.getData());
-        }
-
-        return messageBuilder.build();
+    /**
+     * Send through {@code sendEach} in chunks of 500: one HTTP/2 connection
+     * carries the whole chunk instead of one blocking call per token
+     */
+    @Override
+    public List<PushSendResult> sendBatch(List<PushNotificationRequest> requests) {
+        return sendEach(requests.stream().map(PushNotificationRequest::getDeviceToken).toList(),
+                index -> buildFcmMessage(requests.get(index)));
     }
 
-    private Notification buildNotification(PushNotificationRequest request) {
-        Notification.Builder builder = Notification.builder()
-                .setTitle(request.getTitle())
-                .setBody(request.getBody());
-
-        if (request.getImageUrl() != null) {
-            builder.setImage(request.getImageUrl());
-        }
-
-        return builder.build();
+    /**
+     * Build the notification, Android and APNs parts once and stamp each token onto them
+     */
+    @Override
+    public List<PushSendResult> sendCampaign(PushNotificationRequest template, List<String> deviceTokens) {
+        FcmCampaignMessage campaign = FcmCampaignMessage.of(template);
+        return sendEach(deviceTokens, index -> campaign.forToken(deviceTokens.get(index)));
     }
 
-    private AndroidConfig buildAndroidConfig(PushNotificationRequest request) {
-        AndroidNotification.Builder notificationBuilder = AndroidNotification.builder()
-                .setTitle(request.getTitle())
-                .setBody(request.getBody());
-
-        if (request.getSound() != null) {
-            notificationBuilder.setSound(request.getSound());
+    /**
+     * One result per token, in order, whatever happens to the others: a message
+     * that cannot be built fails only its own token, and a chunk that fails
+     * fails only its own tokens
+     */
+    private List<PushSendResult> sendEach(List<String> deviceTokens, Function<Integer, Message> messageAt) {
+        PushSendResult[] results = new PushSendResult[deviceTokens.size()];
+        FirebaseMessaging messaging = FirebaseMessaging.getInstance(firebaseApp);
+
+        for (int from = 0; from < deviceTokens.size(); from += MAX_BATCH_SIZE) {
+            int to = Math.min(from + MAX_BATCH_SIZE, deviceTokens.size());
+            List<Message> messages = new ArrayList<>(to - from);
+            List<Integer> positions = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                try {
+                    messages.add(messageAt.apply(i));
+                    positions.add(i);
+                } catch (RuntimeException e) {
+                    log.warn("Could not build FCM message {} of the batch: {}", i, e.getMessage());
+                    results[i] = PushSendResult.failure(deviceTokens.get(i), PushErrorCode.INVALID_PAYLOAD, null,
+                            "Failed to build FCM message: " + e.getMessage());
+                }
+            }
+            if (messages.isEmpty()) {
+                continue;
+            }
+
+            try {
+                BatchResponse response = messaging.sendEach(messages, pushProperties.getFcm().isDryRun());
+                List<SendResponse> responses = response.getResponses();
+                for (int j = 0; j < positions.size(); j++) {
+                    int i = positions.get(j);
+                    results[i] = toResult(deviceTokens.get(i), responses.get(j));
+                }
+                log.info("FCM batch of {} sent: {} succeeded, {} failed",
+                        messages.size(), response.getSuccessCount(), response.getFailureCount());
+
+            } catch (FirebaseMessagingException e) {
+                log.error("FCM batch of {} failed: {}", messages.size(), e.getMessage(), e);
+                PushErrorCode errorCode = toErrorCode(e.getMessagingErrorCode());
+                String reason = e.getMessagingErrorCode() != null ? e.getMessagingErrorCode().name() : null;
+                for (int i : positions) {
+                    results[i] = PushSendResult.failure(deviceTokens.get(i), errorCode, reason, e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.error("FCM batch of {} failed", messages.size(), e);
+                for (int i : positions) {
+                    results[i] = PushSendResult.failure(deviceTokens.get(i), PushErrorCode.UNKNOWN, null,
+                            e.getMessage());
+                }
+            }
         }
+        return Arrays.asList(results);
+    }
 
-        if (request.getImageUrl() != null) {
-            notificationBuilder.setImage(request.getImageUrl());
-        }
+    // ==================== TOPICS ====================
 
-        if (request.getClickAction() != null) {
-            notificationBuilder.setClickAction(request.getClickAction());
-        }
+    /**
+     * One send to every device subscribed to the topic, or matching the condition.
+     * FCM fans out server-side, so no per-device results come back.
+     *
+     * @return the FCM message id
+     */
+    public String sendToTopic(PushNotificationRequest template, String topic, String condition) {
+        FcmCampaignMessage campaign = FcmCampaignMessage.of(template);
+        Message message = topic != null ? campaign.forTopic(topic) : campaign.forCondition(condition);
 
-        AndroidConfig.Builder configBuilder = AndroidConfig.builder()
-                .setNotification(notificationBuilder.build());
-
-        if (request.getPriority() != null) {
-            configBuilder.setPriority(request.getPriority() > 5
-                    ? AndroidConfig.Priority.HIGH
-                    : AndroidConfig.Priority.NORMAL);
+        try {
+            String messageId = FirebaseMessaging.getInstance(firebaseApp)
+                    .send(message, pushProperties.getFcm().isDryRun());
+            log.info("Sent FCM {} message. ID: {}", topic != null ? "topic '" + topic + "'" : "condition",
+                    messageId);
+            return messageId;
+        } catch (FirebaseMessagingException e) {
+            log.error("FCM topic send failed: {}", e.getMessage(), e);
+            handleFcmException(e);
+            return null;
         }
+    }
 
-        if (request.getTtl() != null) {
-            configBuilder.setTtl(request.getTtl() * 1000L);
-        }
+    public TopicSubscriptionResponse subscribeToTopic(String topic, List<String> deviceTokens) {
+        return manageTopic(topic, deviceTokens, true);
+    }
 
-        return configBuilder.build();
+    public TopicSubscriptionResponse unsubscribeFromTopic(String topic, List<String> deviceTokens) {
+        return manageTopic(topic, deviceTokens, false);
     }
 
-    private ApnsConfig buildApnsConfig(PushNotificationRequest request) {
-        Aps.Builder apsBuilder = Aps.builder()
-                .setAlert(ApsAlert.builder()
-                        .setTitle(request.getTitle())
-                        .setBody(request.getBody())
-                        .build());
-
-        if (request.getSound() != null) {
-            apsBuilder.setSound(request.getSound());
-        } else {
-            apsBuilder.setSound("default");
+    private TopicSubscriptionResponse manageTopic(String topic, List<String> deviceTokens, boolean subscribe) {
+        FirebaseMessaging messaging = FirebaseMessaging.getInstance(firebaseApp);
+        int successCount = 0;
+        int failureCount = 0;
+        List<String> errors = new ArrayList<>();
+
+        for (int from = 0; from < deviceTokens.size(); from += MAX_TOPIC_BATCH_SIZE) {
+            List<String> chunk = deviceTokens.subList(from, Math.min(from + MAX_TOPIC_BATCH_SIZE, deviceTokens.size()));
+            try {
+                TopicManagementResponse response = subscribe
+                        ? messaging.subscribeToTopic(chunk, topic)
+                        : messaging.unsubscribeFromTopic(chunk, topic);
+                successCount += response.getSuccessCount();
+                failureCount += response.getFailureCount();
+                for (TopicManagementResponse.Error error : response.getErrors()) {
+                    errors.add(chunk.get(error.getIndex()) + ": " + error.getReason());
+                }
+            } catch (FirebaseMessagingException e) {
+                log.error("FCM topic {} of {} tokens to '{}' failed: {}",
+                        subscribe ? "subscribe" : "unsubscribe", chunk.size(), topic, e.getMessage(), e);
+                failureCount += chunk.size();
+                errors.add(e.getMessage());
+            }
         }
 
-        if (request.getBadge() != null) {
-            apsBuilder.setBadge(request.getBadge());
-        }
+        return TopicSubscriptionResponse.builder()
+                .topic(topic)
+                .successCount(successCount)
+                .failureCount(failureCount)
+                .errors(errors)
+                .build();
+    }
 
-        Map<String, String> apnsHeaders = new HashMap<>();
-        if (request.getPriority() != null) {
-            apnsHeaders.put("apns-priority", request.getPriority() > 5 ? "10" : "5");
+    private PushSendResult toResult(String deviceToken, SendResponse response) {
+        if (response.isSuccessful()) {
+            return PushSendResult.success(deviceToken, response.getMessageId());
         }
+        FirebaseMessagingException e = response.getException();
+        MessagingErrorCode errorCode = e.getMessagingErrorCode();
+        return PushSendResult.failure(deviceToken,
+                toErrorCode(errorCode),
+                errorCode != null ? errorCode.name() : null,
+                e.getMessage());
+    }
 
-        ApnsConfig.Builder configBuilder = ApnsConfig.builder()
-                .setAps(apsBuilder.build());
-
-        if (!apnsHeaders.isEmpty()) {
-            configBuilder.putAllHeaders(apnsHeaders);
+    /**
+     * INVALID_ARGUMENT also covers payload errors, so it does not mark the token dead
+     */
+    private static PushErrorCode toErrorCode(MessagingErrorCode errorCode) {
+        if (errorCode == null) {
+            return PushErrorCode.UNKNOWN;
         }
+        return switch (errorCode) {
+            case UNREGISTERED -> PushErrorCode.UNREGISTERED;
+            case SENDER_ID_MISMATCH -> PushErrorCode.TOKEN_MISMATCH;
+            case INVALID_ARGUMENT -> PushErrorCode.INVALID_PAYLOAD;
+            case QUOTA_EXCEEDED -> PushErrorCode.RATE_LIMITED;
+            case THIRD_PARTY_AUTH_ERROR -> PushErrorCode.AUTHENTICATION;
+            case UNAVAILABLE, INTERNAL -> PushErrorCode.UNAVAILABLE;
+            default -> PushErrorCode.UNKNOWN;
+        };
+    }
 
-        return configBuilder.build();
+    private Message buildFcmMessage(PushNotificationRequest request) {
+        return FcmCampaignMessage.of(request).forToken(request.getDeviceToken());
     }
 
     private void handleFcmException(FirebaseMessagingException e) {
         MessagingErrorCode errorCode = e.getMessagingErrorCode();
-
-        switch (errorCode) {
-            case INVALID_ARGUMENT:
-            case UNREGISTERED:
-                throw new PushNotificationException("Invalid device token: " + e.getMessage(), e);
-
-            case SENDER_ID_MISMATCH:
-                throw new PushNotificationException("Token belongs to different sender", e);
-
-            case QUOTA_EXCEEDED:
-                throw new PushNotificationException("FCM quota exceeded", e);
-
-            case UNAVAILABLE:
-            case INTERNAL:
-                throw new PushNotificationException("FCM service temporarily unavailable", e);
-
-            default:
-                throw new PushNotificationException("FCM error: " + errorCode, e);
-        }
+        PushErrorCode pushErrorCode = toErrorCode(errorCode);
+
+        String message = switch (pushErrorCode) {
+            case UNREGISTERED -> "Invalid device token: " + e.getMessage();
+            case TOKEN_MISMATCH -> "Token belongs to different sender";
+            case RATE_LIMITED -> "FCM quota exceeded";
+            case UNAVAILABLE -> "FCM service temporarily unavailable";
+            default -> "FCM error: " + errorCode;
+        };
+        throw new PushNotificationException(message, pushErrorCode, e);
     }
 
     @Override
@@ -1,8 +1,15 @@
 package com.aigreentick.services.notification.provider.push;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.response.push.PushSendResult;
 import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
 import com.aigreentick.services.notification.enums.push.PushProviderType;
+import com.aigreentick.services.notification.exceptions.PushNotificationException;
 
 /**
  * Specific interface for Push notification providers (FCM, APNs)
@@ -11,6 +18,52 @@ import com.aigreentick.services.notification.enums.push.PushProviderType;
 public interface PushProviderStrategy  {
     
    void send(PushNotificationRequest request);
+
+    /**
+     * Send several messages, returning one result per request in the same order.
+     * Failures are reported per message, never thrown. The default sends one
+     * at a time; providers with a batch API override it.
+     */
+    default List<PushSendResult> sendBatch(List<PushNotificationRequest> requests) {
+        List<PushSendResult> results = new ArrayList<>(requests.size());
+        for (PushNotificationRequest request : requests) {
+            try {
+                send(request);
+                results.add(PushSendResult.success(request.getDeviceToken(), null));
+            } catch (Exception e) {
+                results.add(PushSendResult.failure(request.getDeviceToken(), errorCodeOf(e), null,
+                        e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Send the same content to many devices. Providers that can reuse the
+     * token-independent parts of a message override this.
+     */
+    default List<PushSendResult> sendCampaign(PushNotificationRequest template, List<String> deviceTokens) {
+        return sendBatch(deviceTokens.stream()
+                .map(deviceToken -> template.toBuilder().deviceToken(deviceToken).build())
+                .toList());
+    }
+
+    /**
+     * Send one message without waiting for the provider's answer. The default
+     * runs {@link #sendBatch} on the calling thread; pipelined providers
+     * return as soon as the request is written.
+     */
+    default CompletableFuture<PushSendResult> sendAsync(PushNotificationRequest request) {
+        return CompletableFuture.completedFuture(sendBatch(List.of(request)).get(0));
+    }
+
+    /**
+     * True if {@link #sendAsync} completes on the provider's I/O threads,
+     * so callers should use it instead of blocking on {@link #sendBatch}
+     */
+    default boolean isPipelined() {
+        return false;
+    }
     
     PushProviderType getProviderType();
     
@@ -21,6 +74,17 @@ public interface PushProviderStrategy  {
     default NotificationChannel getChannel() {
         return NotificationChannel.PUSH;
     }
+
+    /**
+     * Error code carried by a {@link PushNotificationException} anywhere in the cause chain
+     */
+    static PushErrorCode errorCodeOf(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof PushNotificationException pushException) {
+                return pushException.getErrorCode();
+            }
+        }
+        return PushErrorCode.UNKNOWN;
+    }
     
 }
-
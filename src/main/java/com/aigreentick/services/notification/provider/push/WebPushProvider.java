@@ -1,18 +1,40 @@
 package com.aigreentick.services.notification.provider.push;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.security.PublicKey;
 import java.security.Security;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.apache.http.Header;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.util.EntityUtils;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.jose4j.lang.JoseException;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import com.aigreentick.services.notification.config.properties.PushProperties;
 import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.response.push.PushSendResult;
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
 import com.aigreentick.services.notification.enums.push.PushProviderType;
 import com.aigreentick.services.notification.exceptions.PushNotificationException;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -21,16 +43,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nl.martijndwars.webpush.Encoding;
 import nl.martijndwars.webpush.Notification;
 import nl.martijndwars.webpush.PushService;
-import nl.martijndwars.webpush.Subscription;
 import nl.martijndwars.webpush.Urgency;
-import org.apache.http.HttpResponse;
+import nl.martijndwars.webpush.Utils;
 
 /**
  * Web Push Provider
  * Handles browser-based push notifications using Web Push Protocol
  * Uses VAPID authentication (Voluntary Application Server Identification)
+ *
+ * The web-push library only encrypts and signs; requests go out on one shared
+ * JDK HttpClient, which keeps an HTTP/2 connection per push service origin
+ * (FCM, Mozilla, Apple...) and completes sends without blocking a thread.
  */
 @Slf4j
 @Service
@@ -40,7 +66,13 @@ public class WebPushProvider implements PushProviderStrategy {
 
     private final PushProperties pushProperties;
     private final ObjectMapper objectMapper;
+    /** Headers the JDK client sets itself and refuses to copy */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("content-length", "host", "connection");
+
     private PushService pushService;
+    private HttpClient httpClient;
+    private Semaphore requestPermits;
+    private Map<String, WebPushTarget> targetCache;
 
 
     @PostConstruct
@@ -60,7 +92,15 @@ public class WebPushProvider implements PushProviderStrategy {
                 config.getSubject()
             );
             
-            log.info("Web Push service initialized successfully");
+            httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofMillis(config.getTimeout()))
+                    .build();
+            requestPermits = new Semaphore(config.getMaxConcurrentRequests());
+            targetCache = Collections.synchronizedMap(lruCache(config.getSubscriptionCacheSize()));
+            
+            log.info("Web Push service initialized successfully (maxConcurrentRequests={}, subscriptionCache={})",
+                    config.getMaxConcurrentRequests(), config.getSubscriptionCacheSize());
             
         } catch (GeneralSecurityException e) {
             log.error("Failed to initialize Web Push service - Security error", e);
@@ -73,53 +113,146 @@ public class WebPushProvider implements PushProviderStrategy {
 
     @Override
     public void send(PushNotificationRequest request) {
+        PushSendResult result = sendAsync(request).join();
+        if (!result.isSuccess()) {
+            throw new PushNotificationException(result.getErrorMessage(), result.getErrorCode());
+        }
+    }
+
+    /**
+     * Every request goes out before any response is awaited
+     */
+    @Override
+    public List<PushSendResult> sendBatch(List<PushNotificationRequest> requests) {
+        List<CompletableFuture<PushSendResult>> futures = new ArrayList<>(requests.size());
+        for (PushNotificationRequest request : requests) {
+            futures.add(sendAsync(request));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Encrypt and sign on the calling thread, then hand the request to the
+     * shared client. Blocks only while {@code max-concurrent-requests} are in flight,
+     * and fails as UNAVAILABLE if no slot frees up within {@code request-wait-ms}.
+     */
+    @Override
+    public CompletableFuture<PushSendResult> sendAsync(PushNotificationRequest request) {
         if (pushService == null) {
             throw new PushNotificationException("Web Push service not initialized");
         }
 
-        log.info("Sending Web Push notification to subscription: {}...",
-                request.getDeviceToken().substring(0, Math.min(10, request.getDeviceToken().length())));
+        String deviceToken = request.getDeviceToken();
+        log.debug("Sending Web Push notification to subscription: {}...",
+                deviceToken.substring(0, Math.min(10, deviceToken.length())));
 
+        HttpRequest httpRequest;
         try {
-            Subscription subscription = parseSubscription(request.getDeviceToken());
-            String payload = buildWebPushPayload(request);
-            
-            Notification notification = new Notification(subscription, payload, determineUrgency(request));
-            
-            HttpResponse response = pushService.send(notification);
-            
-            int statusCode = response.getStatusLine().getStatusCode();
-            
-            if (statusCode >= 200 && statusCode < 300) {
-                log.info("Web Push notification sent successfully. Status: {}", statusCode);
-            } else {
-                log.error("Web Push notification failed. Status: {}", statusCode);
-                handleWebPushError(statusCode);
+            WebPushTarget target = resolveTarget(deviceToken);
+            Notification notification = new Notification(
+                    target.endpoint(),
+                    target.publicKey(),
+                    target.auth(),
+                    buildWebPushPayload(request).getBytes(StandardCharsets.UTF_8),
+                    request.getTtl() != null ? request.getTtl() : pushProperties.getWeb().getDefaultTtl(),
+                    determineUrgency(request),
+                    null);
+            httpRequest = toHttpRequest(pushService.preparePost(notification, Encoding.AES128GCM));
+
+        } catch (PushNotificationException e) {
+            // Unparseable subscription: retrying will not help
+            return CompletableFuture.completedFuture(
+                    PushSendResult.failure(deviceToken, PushErrorCode.INVALID_TOKEN, null, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to prepare Web Push notification", e);
+            return CompletableFuture.completedFuture(
+                    PushSendResult.failure(deviceToken, PushErrorCode.INVALID_PAYLOAD, null,
+                            "Failed to prepare Web Push notification: " + e.getMessage()));
+        }
+
+        long requestWaitMs = pushProperties.getWeb().getRequestWaitMs();
+        try {
+            if (!requestPermits.tryAcquire(requestWaitMs, TimeUnit.MILLISECONDS)) {
+                log.warn("No Web Push request slot free within {}ms", requestWaitMs);
+                return CompletableFuture.completedFuture(
+                        PushSendResult.failure(deviceToken, PushErrorCode.UNAVAILABLE, null,
+                                "No Web Push request slot free within " + requestWaitMs + "ms"));
             }
-            
-        } catch (GeneralSecurityException e) {
-            log.error("Security error sending Web Push notification", e);
-            throw new PushNotificationException("Failed to send Web Push notification", e);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize Web Push payload", e);
-            throw new PushNotificationException("Invalid Web Push payload", e);
-        } catch (JoseException e) {
-            log.error("JOSE error sending Web Push notification", e);
-            throw new PushNotificationException("Failed to send Web Push notification", e);
-        } catch (ExecutionException e) {
-            log.error("Execution error sending Web Push notification", e);
-            throw new PushNotificationException("Failed to send Web Push notification", e.getCause());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            log.error("Web Push send interrupted", e);
             throw new PushNotificationException("Web Push send interrupted", e);
-        } catch (Exception e) {
-            log.error("Unexpected error sending Web Push notification", e);
-            throw new PushNotificationException("Failed to send Web Push notification", e);
         }
+
+        try {
+            return sendRequest(httpRequest, deviceToken);
+        } catch (RuntimeException e) {
+            // Never reached the client's future, so its completion will not release the slot
+            requestPermits.release();
+            log.error("Failed to send Web Push notification", e);
+            return CompletableFuture.completedFuture(
+                    PushSendResult.failure(deviceToken, PushErrorCode.UNAVAILABLE, null,
+                            "Failed to send Web Push notification: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * The request's own timeout only covers waiting for the response headers,
+     * so the whole exchange is also bounded by {@code timeout} ms. Either one
+     * fails the send as UNAVAILABLE and frees its request slot.
+     */
+    private CompletableFuture<PushSendResult> sendRequest(HttpRequest httpRequest, String deviceToken) {
+        int timeoutMs = pushProperties.getWeb().getTimeout();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> requestPermits.release())
+                .handle((response, error) -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+                        log.warn("No Web Push response within {}ms", timeoutMs);
+                        return PushSendResult.failure(deviceToken, PushErrorCode.UNAVAILABLE, null,
+                                "No Web Push response within " + timeoutMs + "ms");
+                    }
+                    if (error != null) {
+                        log.error("Failed to send Web Push notification", error);
+                        return PushSendResult.failure(deviceToken, PushErrorCode.UNAVAILABLE, null,
+                                "Failed to send Web Push notification: " + error.getMessage());
+                    }
+
+                    int statusCode = response.statusCode();
+                    if (statusCode >= 200 && statusCode < 300) {
+                        log.debug("Web Push notification sent successfully. Status: {}", statusCode);
+                        return PushSendResult.success(deviceToken,
+                                response.headers().firstValue("Location").orElse(null));
+                    }
+
+                    log.error("Web Push notification failed. Status: {}", statusCode);
+                    if (statusCode == 404 || statusCode == 410) {
+                        targetCache.remove(deviceToken);
+                    }
+                    return PushSendResult.failure(deviceToken, toErrorCode(statusCode),
+                            String.valueOf(statusCode), describeWebPushError(statusCode));
+                });
+    }
+
+    @Override
+    public boolean isPipelined() {
+        return true;
+    }
+
+    /**
+     * Parsed subscription, cached so the JSON and the P-256 key are decoded once per subscriber
+     */
+    private WebPushTarget resolveTarget(String deviceToken) {
+        WebPushTarget target = targetCache.get(deviceToken);
+        if (target == null) {
+            target = parseSubscription(deviceToken);
+            targetCache.put(deviceToken, target);
+        }
+        return target;
     }
 
-    private Subscription parseSubscription(String deviceToken) throws JsonProcessingException {
+    private WebPushTarget parseSubscription(String deviceToken) {
         
         try {
             @SuppressWarnings("unchecked")
@@ -141,18 +274,46 @@ public class WebPushProvider implements PushProviderStrategy {
                 throw new PushNotificationException("Missing subscription keys");
             }
             
-            Subscription subscription = new Subscription();
-            subscription.endpoint = endpoint;
-            subscription.keys = new Subscription.Keys();
-            subscription.keys.p256dh = p256dh;
-            subscription.keys.auth = auth;
-            
-            return subscription;
+            return new WebPushTarget(endpoint, Utils.loadPublicKey(p256dh), decodeBase64(auth));
             
         } catch (JsonProcessingException e) {
             log.error("Failed to parse subscription from device token", e);
             throw new PushNotificationException("Invalid device token format", e);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            log.error("Invalid subscription keys in device token", e);
+            throw new PushNotificationException("Invalid subscription keys", e);
+        }
+    }
+
+    /**
+     * Browsers send URL-safe base64, sometimes with padding
+     */
+    private static byte[] decodeBase64(String value) {
+        String normalized = value.replace('+', '-').replace('/', '_').replace("=", "");
+        return Base64.getUrlDecoder().decode(normalized);
+    }
+
+    private HttpRequest toHttpRequest(HttpPost post) throws java.io.IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(post.getURI().toString()))
+                .timeout(Duration.ofMillis(pushProperties.getWeb().getTimeout()));
+
+        for (Header header : post.getAllHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase())) {
+                builder.header(header.getName(), header.getValue());
+            }
         }
+
+        byte[] body = post.getEntity() != null ? EntityUtils.toByteArray(post.getEntity()) : new byte[0];
+        return builder.POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+    }
+
+    private static <K, V> Map<K, V> lruCache(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
     }
 
     private String buildWebPushPayload(PushNotificationRequest request) 
@@ -215,35 +376,27 @@ public class WebPushProvider implements PushProviderStrategy {
         return Urgency.NORMAL;
     }
 
-    private void handleWebPushError(int statusCode) {
-        switch (statusCode) {
-            case 400:
-                throw new PushNotificationException("Bad request");
-            
-            case 401:
-            case 403:
-                throw new PushNotificationException("Authentication failed");
-            
-            case 404:
-            case 410:
-                // Subscription expired or not found
-                throw new PushNotificationException("Invalid or expired subscription");
-            
-            case 413:
-                throw new PushNotificationException("Payload too large");
-            
-            case 429:
-                throw new PushNotificationException("Rate limit exceeded");
-            
-            case 500:
-            case 502:
-            case 503:
-                throw new PushNotificationException("Push service unavailable");
-            
-            default:
-                throw new PushNotificationException(
-                    "Web Push failed with status: " + statusCode);
-        }
+    private static String describeWebPushError(int statusCode) {
+        return switch (statusCode) {
+            case 400 -> "Bad request";
+            case 401, 403 -> "Authentication failed";
+            // Subscription expired or not found
+            case 404, 410 -> "Invalid or expired subscription";
+            case 413 -> "Payload too large";
+            case 429 -> "Rate limit exceeded";
+            case 500, 502, 503 -> "Push service unavailable";
+            default -> "Web Push failed with status: " + statusCode;
+        };
+    }
+
+    private static PushErrorCode toErrorCode(int statusCode) {
+        return switch (statusCode) {
+            case 404, 410 -> PushErrorCode.UNREGISTERED;
+            case 400, 413 -> PushErrorCode.INVALID_PAYLOAD;
+            case 401, 403 -> PushErrorCode.AUTHENTICATION;
+            case 429 -> PushErrorCode.RATE_LIMITED;
+            default -> statusCode >= 500 ? PushErrorCode.UNAVAILABLE : PushErrorCode.UNKNOWN;
+        };
     }
 
     private void validateWebPushConfiguration() {
@@ -299,4 +452,10 @@ public class WebPushProvider implements PushProviderStrategy {
     public int getPriority() {
         return pushProperties.getWeb().getPriority();
     }
-}
\ No newline at end of file
+
+    /**
+     * Decoded subscription: where to send and the keys to encrypt for
+     */
+    private record WebPushTarget(String endpoint, PublicKey publicKey, byte[] auth) {
+    }
+}
@@ -1,9 +1,11 @@
 package com.aigreentick.services.notification.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.aigreentick.services.notification.enums.push.DevicePlatform;
@@ -20,6 +22,20 @@ public interface DeviceTokenRepository extends MongoRepository<DeviceToken, Stri
     
     List<DeviceToken> findByUserIdAndPlatformAndActive(String userId, DevicePlatform platform, boolean active);
     
+    /**
+     * Active tokens of many users in one query, loading only what delivery needs
+     */
+    @Query(value = "{ 'userId': { $in: ?0 }, 'active': true }",
+            fields = "{ 'userId': 1, 'deviceToken': 1, 'platform': 1 }")
+    List<DeviceToken> findActiveDeliveryTargets(Collection<String> userIds);
+    
+    /**
+     * Active tokens among these token values in one query, loading only what delivery needs
+     */
+    @Query(value = "{ 'deviceToken': { $in: ?0 }, 'active': true }",
+            fields = "{ 'userId': 1, 'deviceToken': 1, 'platform': 1 }")
+    List<DeviceToken> findActiveDeliveryTargetsByToken(Collection<String> deviceTokens);
+    
     boolean existsByDeviceToken(String deviceToken);
     
     void deleteByDeviceToken(String deviceToken);
@@ -0,0 +1,10 @@
+package com.aigreentick.services.notification.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.aigreentick.services.notification.model.entity.NotificationJob;
+
+@Repository
+public interface NotificationJobRepository extends MongoRepository<NotificationJob, String> {
+}
@@ -1,169 +1,73 @@
 
 package com.aigreentick.services.notification.service.batch;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
-
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
+import com.aigreentick.services.notification.config.properties.BatchWriterProperties;
+import com.aigreentick.services.notification.exceptions.NotificationBackpressureException;
 import com.aigreentick.services.notification.model.entity.EmailNotification;
-import com.aigreentick.services.notification.repository.EmailNotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
 /**
  * Batch writer for high-volume email notification persistence
  * Reduces MongoDB write load by batching inserts
  */
-@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BatchEmailNotificationWriter {
-    
-    private final EmailNotificationRepository notificationRepository;
-    
-    private static final int BATCH_SIZE = 50;
-    private static final int QUEUE_CAPACITY = 1000;
-    private static final long FLUSH_INTERVAL_MS = 1000; // 1 second
-    
-    private final BlockingQueue<EmailNotification> writeQueue = 
-            new LinkedBlockingQueue<>(QUEUE_CAPACITY);
-    
-    private volatile boolean running = true;
-    private Thread writerThread;
-    
+
+    private static final String LANE_NAME = "email";
+
+    private final NotificationBatchEngine batchEngine;
+    private final MongoTemplate mongoTemplate;
+    private final BatchWriterProperties batchProperties;
+    private final ObjectMapper objectMapper;
+
+    private BatchWriteLane<BatchWriteEntry<EmailNotification>> lane;
+
     @PostConstruct
     public void init() {
-        startBatchWriter();
-    }
-    
-    @PreDestroy
-    public void shutdown() {
-        running = false;
-        if (writerThread != null) {
-            writerThread.interrupt();
-        }
-        flushAll(); // Flush remaining items
-    }
-    
-    /**
-     * Add notification to batch queue (non-blocking)
-     */
-    public boolean enqueue(EmailNotification notification) {
-        try {
-            boolean added = writeQueue.offer(notification, 100, TimeUnit.MILLISECONDS);
-            if (!added) {
-                log.warn("Batch write queue is full. Writing synchronously.");
-                notificationRepository.save(notification);
-            }
-            return added;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Interrupted while enqueueing notification", e);
-            return false;
-        }
+        lane = batchEngine.registerLane(LANE_NAME,
+                new MongoBulkFlushHandler<>(LANE_NAME, mongoTemplate, EmailNotification.class,
+                        batchProperties.getBulkMaxAttempts(), batchProperties.getBulkRetryWaitMs(),
+                        batchProperties.getBulkRetryMaxWaitMs()),
+                new JsonBatchEntryCodec<>(objectMapper, EmailNotification.class));
     }
-    
+
     /**
-     * Start background batch writer thread
+     * Add notification to batch queue, applying the configured backpressure policy.
+     * New notifications get their id assigned here, before the flush.
+     *
+     * @throws NotificationBackpressureException if the queue is saturated
      */
-    private void startBatchWriter() {
-        writerThread = new Thread(() -> {
-            log.info("Batch notification writer started");
-            
-            List<EmailNotification> batch = new ArrayList<>(BATCH_SIZE);
-            long lastFlushTime = System.currentTimeMillis();
-            
-            while (running) {
-                try {
-                    EmailNotification notification = writeQueue.poll(100, TimeUnit.MILLISECONDS);
-                    
-                    if (notification != null) {
-                        batch.add(notification);
-                    }
-                    
-                    long now = System.currentTimeMillis();
-                    boolean timeToFlush = (now - lastFlushTime) >= FLUSH_INTERVAL_MS;
-                    
-                    // Flush if batch is full or enough time has passed
-                    if (batch.size() >= BATCH_SIZE || (timeToFlush && !batch.isEmpty())) {
-                        flushBatch(batch);
-                        batch.clear();
-                        lastFlushTime = now;
-                    }
-                    
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.info("Batch writer interrupted");
-                    break;
-                } catch (Exception e) {
-                    log.error("Error in batch writer", e);
-                }
-            }
-            
-            // Final flush on shutdown
-            if (!batch.isEmpty()) {
-                flushBatch(batch);
-            }
-            
-            log.info("Batch notification writer stopped");
-        }, "batch-notification-writer");
-        
-        writerThread.setDaemon(false); // Ensure it completes on shutdown
-        writerThread.start();
+    public void enqueue(EmailNotification notification) {
+        lane.enqueue(BatchWriteEntry.of(notification));
     }
-    
+
     /**
-     * Flush batch to MongoDB
+     * Fail fast before doing work whose result this writer will have to persist
+     *
+     * @throws NotificationBackpressureException if the queue is saturated
      */
-    private void flushBatch(List<EmailNotification> batch) {
-        try {
-            long startTime = System.currentTimeMillis();
-            notificationRepository.saveAll(batch);
-            long duration = System.currentTimeMillis() - startTime;
-            
-            log.info("Flushed {} notifications to MongoDB in {}ms", batch.size(), duration);
-            
-        } catch (Exception e) {
-            log.error("Error flushing batch of {} notifications", batch.size(), e);
-            // Fallback: try individual saves
-            for (EmailNotification notification : batch) {
-                try {
-                    notificationRepository.save(notification);
-                } catch (Exception ex) {
-                    log.error("Error saving individual notification: {}", 
-                            notification.getId(), ex);
-                }
-            }
-        }
+    public void ensureCapacity() {
+        lane.ensureCapacity();
     }
-    
+
     /**
-     * Flush all remaining items (called on shutdown)
+     * Get current queue size (for monitoring)
      */
-    private void flushAll() {
-        List<EmailNotification> remaining = new ArrayList<>();
-        writeQueue.drainTo(remaining);
-        
-        if (!remaining.isEmpty()) {
-            log.info("Flushing {} remaining notifications on shutdown", remaining.size());
-            flushBatch(remaining);
-        }
+    public int getQueueSize() {
+        return lane.getQueueSize();
     }
-    
+
     /**
-     * Scheduled health check
+     * Get queue capacity (for monitoring)
      */
-    @Scheduled(fixedDelay = 30000)
-    public void logQueueStatus() {
-        log.debug("Batch writer queue size: {}/{}", writeQueue.size(), QUEUE_CAPACITY);
+    public int getQueueCapacity() {
+        return lane.getQueueCapacity();
     }
-
-}
\ No newline at end of file
+}
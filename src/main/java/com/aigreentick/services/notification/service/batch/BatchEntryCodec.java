@@ -0,0 +1,13 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.io.IOException;
+
+/**
+ * Turns lane entries into single-line text and back, for the overflow log
+ */
+public interface BatchEntryCodec<T> {
+
+    String encode(T entry) throws IOException;
+
+    T decode(String line) throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.util.List;
+
+/**
+ * Persists one batch drained from a {@link BatchWriteLane}
+ */
+@FunctionalInterface
+public interface BatchFlushHandler<T> {
+
+    BatchFlushResult flush(List<T> batch);
+}
@@ -0,0 +1,36 @@
+package com.aigreentick.services.notification.service.batch;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Per-flush counts reported by a {@link BatchFlushHandler}
+ */
+@Getter
+@Builder
+@ToString
+public class BatchFlushResult {
+
+    private final int requested;
+    private final int inserted;
+    private final int upserted;
+    /** Inserts whose id was already stored, i.e. written by an earlier attempt or replay */
+    private final int duplicates;
+    private final int failed;
+    private final int attempts;
+    private final long durationMs;
+
+    public int getSucceeded() {
+        return inserted + upserted + duplicates;
+    }
+
+    public static BatchFlushResult failedAll(int requested, long durationMs) {
+        return BatchFlushResult.builder()
+                .requested(requested)
+                .failed(requested)
+                .attempts(1)
+                .durationMs(durationMs)
+                .build();
+    }
+}
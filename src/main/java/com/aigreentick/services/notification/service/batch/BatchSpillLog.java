@@ -0,0 +1,131 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local append-only overflow log used by the SPILL backpressure policy.
+ * One encoded entry per line; lines are handed back to the lane by {@link #drain}.
+ */
+@Slf4j
+public class BatchSpillLog<T> {
+
+    private final String laneName;
+    private final Path file;
+    private final BatchEntryCodec<T> codec;
+
+    private BufferedWriter writer;
+    private long spilledEntries;
+
+    public BatchSpillLog(String laneName, Path directory, BatchEntryCodec<T> codec) {
+        this.laneName = laneName;
+        this.file = directory.resolve(laneName + ".overflow.jsonl");
+        this.codec = codec;
+        this.spilledEntries = countExisting();
+    }
+
+    /**
+     * Append one entry and flush it to the OS before returning
+     */
+    public synchronized void append(T entry) throws IOException {
+        if (writer == null) {
+            Files.createDirectories(file.getParent());
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(codec.encode(entry));
+        writer.newLine();
+        writer.flush();
+        spilledEntries++;
+    }
+
+    /**
+     * Hand spilled entries to the consumer until it refuses one; whatever is
+     * left is written back for the next drain.
+     *
+     * @return number of entries drained
+     */
+    public synchronized int drain(Predicate<T> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        closeWriter();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        int drained = 0;
+        for (String line : lines) {
+            if (line.isBlank()) {
+                drained++;
+                continue;
+            }
+            T entry;
+            try {
+                entry = codec.decode(line);
+            } catch (IOException e) {
+                log.error("Skipping unreadable {} overflow entry: {}", laneName, e.getMessage());
+                drained++;
+                continue;
+            }
+            if (!consumer.test(entry)) {
+                break;
+            }
+            drained++;
+        }
+
+        if (drained == lines.size()) {
+            Files.delete(file);
+        } else {
+            Files.write(file, lines.subList(drained, lines.size()), StandardCharsets.UTF_8,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        spilledEntries = lines.size() - drained;
+        return drained;
+    }
+
+    /**
+     * Entries currently waiting in the overflow log
+     */
+    public synchronized long size() {
+        return spilledEntries;
+    }
+
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    private long countExisting() {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            long count = lines.count();
+            log.info("Found {} spilled {} entries from a previous run", count, laneName);
+            return count;
+        } catch (IOException e) {
+            log.warn("Failed to read {} overflow log", laneName, e);
+            return 0;
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close {} overflow log", laneName, e);
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,404 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only, memory-mapped write-ahead log for one batch lane.
+ *
+ * Entries are appended before they are queued and released once their batch
+ * has been flushed to MongoDB; a segment is deleted when it is full and all of
+ * its entries are released. A background thread forces dirty pages to disk
+ * (group commit), so one fsync covers every append since the previous one.
+ *
+ * Record layout: {@code int length | long sequence | int crc32c | payload}.
+ * A zero length marks the end of a segment; a bad CRC marks a torn write.
+ */
+@Slf4j
+public class BatchWriteAheadLog<T> {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final String laneName;
+    private final Path directory;
+    private final BatchEntryCodec<T> codec;
+    private final int segmentSizeBytes;
+    private final long groupCommitIntervalMs;
+    private final long awaitDurableTimeoutMs;
+
+    private final Map<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition durableCondition = lock.newCondition();
+
+    private Segment current;
+    private long nextSegmentId;
+    private long appendedSequence;
+    private volatile long durableSequence;
+
+    private volatile boolean running;
+    private Thread syncThread;
+
+    public BatchWriteAheadLog(String laneName, Path directory, BatchEntryCodec<T> codec,
+            int segmentSizeBytes, long groupCommitIntervalMs, long awaitDurableTimeoutMs) {
+        this.laneName = laneName;
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.groupCommitIntervalMs = groupCommitIntervalMs;
+        this.awaitDurableTimeoutMs = awaitDurableTimeoutMs;
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    /**
+     * Read every intact record left by a previous run, oldest first.
+     * Must be called before {@link #open()}; the old segments are removed by
+     * {@link #discardRecovered()} once the caller has persisted the entries.
+     */
+    public List<T> recover() throws IOException {
+        List<T> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+
+        for (Path file : listSegmentFiles()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int recovered = readRecords(buffer, entries);
+                log.info("Recovered {} {} entries from {}", recovered, laneName, file.getFileName());
+            }
+            nextSegmentId = Math.max(nextSegmentId, parseSegmentId(file) + 1);
+        }
+        return entries;
+    }
+
+    /**
+     * Delete segments left by a previous run
+     */
+    public void discardRecovered() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        for (Path file : listSegmentFiles()) {
+            if (!segments.containsKey(parseSegmentId(file))) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Create the first segment and start the group-commit thread
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        lock.lock();
+        try {
+            current = newSegment();
+        } finally {
+            lock.unlock();
+        }
+
+        running = true;
+        syncThread = new Thread(this::runGroupCommit, "batch-" + laneName + "-wal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+
+        log.info("Write-ahead log for lane '{}' opened at {} (segment={}B, groupCommit={}ms)",
+                laneName, directory, segmentSizeBytes, groupCommitIntervalMs);
+    }
+
+    /**
+     * Force everything to disk and stop the group-commit thread.
+     * Segments with unreleased entries are kept for replay.
+     */
+    public void close() {
+        running = false;
+        if (syncThread != null) {
+            syncThread.interrupt();
+            try {
+                syncThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        forceDirty();
+        segments.values().forEach(this::deleteIfDrained);
+    }
+
+    // ==================== APPEND / RELEASE ====================
+
+    /**
+     * Append one entry and wait (up to the configured timeout) until it is durable.
+     *
+     * @return id of the segment holding the entry, to pass to {@link #release}
+     */
+    public long append(T entry) throws IOException {
+        byte[] payload = codec.encode(entry).getBytes(StandardCharsets.UTF_8);
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes + Integer.BYTES > segmentSizeBytes) {
+            throw new IOException("Entry of " + payload.length + " bytes exceeds WAL segment size");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        long sequence;
+        Segment segment;
+        lock.lock();
+        try {
+            if (current.remaining() < recordBytes + Integer.BYTES) {
+                current.sealed = true;
+                current = newSegment();
+            }
+            segment = current;
+            sequence = ++appendedSequence;
+            segment.write(sequence, (int) crc.getValue(), payload);
+            segment.outstanding.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+
+        if (!awaitDurable(sequence)) {
+            // Still in the mapped segment; the next group commit will force it
+            log.warn("{} WAL record {} not yet durable after {}ms", laneName, sequence, awaitDurableTimeoutMs);
+        }
+        return segment.id;
+    }
+
+    /**
+     * Release entries once their batch is persisted.
+     *
+     * @param persisted false keeps the segment on disk for replay on the next start
+     */
+    public void release(long segmentId, int count, boolean persisted) {
+        Segment segment = segments.get(segmentId);
+        if (segment == null) {
+            return;
+        }
+        if (!persisted) {
+            segment.retained = true;
+        }
+        if (segment.outstanding.addAndGet(-count) <= 0) {
+            deleteIfDrained(segment);
+        }
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    // ==================== GROUP COMMIT ====================
+
+    /**
+     * @return false if the group commit did not cover the sequence in time
+     */
+    private boolean awaitDurable(long sequence) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(awaitDurableTimeoutMs);
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                durableCondition.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runGroupCommit() {
+        while (running) {
+            try {
+                Thread.sleep(groupCommitIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            forceDirty();
+        }
+    }
+
+    /**
+     * One fsync for every append since the previous one
+     */
+    private void forceDirty() {
+        long target;
+        lock.lock();
+        try {
+            target = appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+        if (target == durableSequence) {
+            return;
+        }
+
+        for (Segment segment : segments.values()) {
+            try {
+                segment.force();
+            } catch (Exception e) {
+                log.error("Failed to force {} WAL segment {}", laneName, segment.id, e);
+                return;
+            }
+            if (segment.sealed && segment.outstanding.get() <= 0) {
+                deleteIfDrained(segment);
+            }
+        }
+
+        lock.lock();
+        try {
+            durableSequence = target;
+            durableCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================== SEGMENTS ====================
+
+    private Segment newSegment() throws IOException {
+        long id = nextSegmentId++;
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSizeBytes);
+            Segment segment = new Segment(id, file, buffer);
+            segments.put(id, segment);
+            return segment;
+        }
+    }
+
+    private void deleteIfDrained(Segment segment) {
+        if (!segment.sealed && running) {
+            return;
+        }
+        if (segment.retained || segment.outstanding.get() > 0 || segment.dirty()) {
+            return;
+        }
+        if (segments.remove(segment.id, segment)) {
+            try {
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                log.warn("Failed to delete {} WAL segment {}", laneName, segment.file, e);
+            }
+        }
+    }
+
+    private int readRecords(ByteBuffer buffer, List<T> entries) {
+        int recovered = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() - Long.BYTES - Integer.BYTES) {
+                break;
+            }
+            buffer.getLong(); // sequence
+            int expectedCrc = buffer.getInt();
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != expectedCrc) {
+                log.warn("Torn {} WAL record after {} entries, ignoring the rest of the segment",
+                        laneName, recovered);
+                break;
+            }
+
+            try {
+                entries.add(codec.decode(new String(payload, StandardCharsets.UTF_8)));
+                recovered++;
+            } catch (IOException e) {
+                log.error("Skipping unreadable {} WAL record: {}", laneName, e.getMessage());
+            }
+        }
+        return recovered;
+    }
+
+    private List<Path> listSegmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long parseSegmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private volatile int writePosition;
+        private volatile int forcedPosition;
+        private volatile boolean sealed;
+        private volatile boolean retained;
+
+        private Segment(long id, Path file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        private int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        /** Called under the log lock */
+        private void write(long sequence, int crc, byte[] payload) {
+            int position = writePosition;
+            buffer.putLong(position + Integer.BYTES, sequence);
+            buffer.putInt(position + Integer.BYTES + Long.BYTES, crc);
+            buffer.put(position + HEADER_BYTES, payload);
+            // Length last, so a reader never sees a complete header over a partial payload
+            buffer.putInt(position, payload.length);
+            writePosition = position + HEADER_BYTES + payload.length;
+        }
+
+        private boolean dirty() {
+            return forcedPosition < writePosition;
+        }
+
+        private synchronized void force() {
+            int upTo = writePosition;
+            if (upTo > forcedPosition) {
+                buffer.force(forcedPosition, upTo - forcedPosition);
+                forcedPosition = upTo;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.aigreentick.services.notification.service.batch;
+
+import org.bson.types.ObjectId;
+
+import com.aigreentick.services.common.model.base.MongoBaseEntity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A document queued for bulk persistence together with the write it needs
+ */
+@Getter
+@RequiredArgsConstructor
+public class BatchWriteEntry<T extends MongoBaseEntity> {
+
+    public enum WriteMode {
+        /** Document has never been persisted */
+        INSERT,
+        /** Document already has an id and replaces the stored version */
+        UPSERT
+    }
+
+    private final T document;
+    private final WriteMode mode;
+
+    /**
+     * Wrap a document, assigning an id up-front to new documents so callers
+     * can reference it before the batch is flushed and replays stay idempotent
+     */
+    public static <T extends MongoBaseEntity> BatchWriteEntry<T> of(T document) {
+        if (document.getId() == null) {
+            document.setId(new ObjectId().toHexString());
+            return new BatchWriteEntry<>(document, WriteMode.INSERT);
+        }
+        return new BatchWriteEntry<>(document, WriteMode.UPSERT);
+    }
+}
@@ -0,0 +1,502 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.StringUtils;
+
+import com.aigreentick.services.notification.config.properties.BatchWriterProperties;
+import com.aigreentick.services.notification.enums.batch.BackpressurePolicy;
+import com.aigreentick.services.notification.exceptions.NotificationBackpressureException;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One batching lane of the {@link NotificationBatchEngine}.
+ *
+ * A bounded queue is drained by N writer threads. Each writer keeps its own
+ * batch and flushes it when it reaches {@code batchSize} or when the oldest
+ * entry in it has waited {@code flushIntervalMs}. When the queue is full the
+ * configured {@link BackpressurePolicy} decides what happens to new entries.
+ * With a {@link BatchWriteAheadLog}, entries are logged before they are
+ * queued and replayed on the next start if the JVM dies before the flush.
+ */
+@Slf4j
+public class BatchWriteLane<T> {
+
+    private final String name;
+    private final BatchFlushHandler<T> flushHandler;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final long flushIntervalMs;
+    private final long pollTimeoutMs;
+    private final int writerThreads;
+    private final BackpressurePolicy backpressure;
+    private final long enqueueTimeoutMs;
+
+    private final BlockingQueue<QueuedEntry<T>> queue;
+    private final BatchSpillLog<T> spillLog;
+    private final BatchWriteAheadLog<T> wal;
+    private final Timer queueTimer;
+    private final List<Thread> writers = new ArrayList<>();
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong succeededDocuments = new AtomicLong();
+    private final AtomicLong failedDocuments = new AtomicLong();
+    private final AtomicLong rejectedDocuments = new AtomicLong();
+    private final AtomicLong spilledDocuments = new AtomicLong();
+    private final AtomicLong replayedDocuments = new AtomicLong();
+    private final AtomicLong walFailures = new AtomicLong();
+
+    private volatile boolean running = false;
+    private volatile BatchFlushResult lastFlushResult;
+
+    /**
+     * @param codec used by the SPILL policy; may be null when the lane cannot spill
+     * @param wal write-ahead log; may be null
+     */
+    public BatchWriteLane(String name, BatchFlushHandler<T> flushHandler, BatchWriterProperties properties,
+            BatchEntryCodec<T> codec, BatchWriteAheadLog<T> wal, Timer queueTimer) {
+        this.name = name;
+        this.flushHandler = flushHandler;
+        this.enabled = properties.isEnabled();
+        this.batchSize = properties.getBatchSize();
+        this.queueCapacity = properties.getQueueCapacity();
+        this.flushIntervalMs = properties.getFlushIntervalMs();
+        this.pollTimeoutMs = properties.getPollTimeoutMs();
+        this.writerThreads = properties.getWriterThreads();
+        this.enqueueTimeoutMs = properties.getEnqueueTimeoutMs();
+        this.queueTimer = queueTimer;
+        this.wal = enabled ? wal : null;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        if (properties.getBackpressure() == BackpressurePolicy.SPILL
+                && (codec == null || !StringUtils.hasText(properties.getSpillDirectory()))) {
+            log.warn("Batch lane '{}' has no codec or spill directory and cannot spill; falling back to BLOCK", name);
+            this.backpressure = BackpressurePolicy.BLOCK;
+        } else {
+            this.backpressure = properties.getBackpressure();
+        }
+        // Without a directory there is nothing to spill to, nor spill files of a previous run to drain
+        this.spillLog = codec != null && StringUtils.hasText(properties.getSpillDirectory())
+                ? new BatchSpillLog<>(name, Path.of(properties.getSpillDirectory()), codec)
+                : null;
+    }
+
+    /**
+     * Start writer threads (no-op when batching is disabled)
+     */
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+
+        if (wal != null) {
+            replayWriteAheadLog();
+        }
+
+        for (int i = 0; i < writerThreads; i++) {
+            Thread writer = new Thread(this::runWriter, "batch-" + name + "-writer-" + i);
+            writer.setDaemon(false); // Ensure it completes on shutdown
+            writer.start();
+            writers.add(writer);
+        }
+
+        log.info("Batch lane '{}' started with {} writer(s), batchSize={}, queueCapacity={}, flushIntervalMs={}, backpressure={}",
+                name, writerThreads, batchSize, queueCapacity, flushIntervalMs, backpressure);
+    }
+
+    /**
+     * Queue an entry, applying the backpressure policy when the queue is full.
+     * When batching is disabled the entry is flushed inline.
+     *
+     * @throws NotificationBackpressureException if the entry was rejected,
+     *         including when it could not be written to the write-ahead log
+     */
+    public void enqueue(T entry) {
+        if (!enabled) {
+            flushSafely(List.of(entry));
+            return;
+        }
+
+        long walSegment;
+        try {
+            walSegment = appendToWal(entry);
+        } catch (IOException e) {
+            // Acknowledging it without the log would lose it on a crash
+            reject("write-ahead log unavailable");
+            return;
+        }
+
+        QueuedEntry<T> queued = new QueuedEntry<>(entry, System.nanoTime(), walSegment);
+        if (queue.offer(queued)) {
+            return;
+        }
+
+        switch (backpressure) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(queued, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                releaseWal(queued.walSegment, 1, true);
+                reject("queue still full after " + enqueueTimeoutMs + "ms");
+            }
+            case SPILL -> {
+                try {
+                    spillLog.append(entry);
+                    spilledDocuments.incrementAndGet();
+                    releaseWal(queued.walSegment, 1, true);
+                } catch (IOException e) {
+                    log.error("Batch lane '{}' failed to spill entry", name, e);
+                    releaseWal(queued.walSegment, 1, true);
+                    reject("overflow log unavailable");
+                }
+            }
+            case SHED -> {
+                releaseWal(queued.walSegment, 1, true);
+                reject("queue full");
+            }
+        }
+    }
+
+    /**
+     * Admission check for callers that are about to do work whose result must
+     * be persisted: fails fast (SHED) or after the deadline (BLOCK) instead of
+     * after the work is done. SPILL always admits.
+     *
+     * @throws NotificationBackpressureException if the lane is saturated
+     */
+    public void ensureCapacity() {
+        if (!enabled || backpressure == BackpressurePolicy.SPILL || queue.remainingCapacity() > 0) {
+            return;
+        }
+        if (backpressure == BackpressurePolicy.BLOCK) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMs);
+            while (queue.remainingCapacity() == 0 && System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(Math.max(1, Math.min(5, enqueueTimeoutMs)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (queue.remainingCapacity() > 0) {
+                return;
+            }
+        }
+        reject("queue full");
+    }
+
+    /**
+     * Move spilled entries back into the queue while there is room
+     */
+    public void drainSpill() {
+        if (spillLog == null || spillLog.size() == 0) {
+            return;
+        }
+        try {
+            int drained = spillLog.drain(entry -> {
+                if (!enabled) {
+                    flushSafely(List.of(entry));
+                    return true;
+                }
+                if (queue.remainingCapacity() == 0) {
+                    return false;
+                }
+                long walSegment;
+                try {
+                    walSegment = appendToWal(entry);
+                } catch (IOException e) {
+                    // Still in the overflow log; try again on the next drain
+                    return false;
+                }
+                QueuedEntry<T> queued = new QueuedEntry<>(entry, System.nanoTime(), walSegment);
+                if (!queue.offer(queued)) {
+                    releaseWal(queued.walSegment, 1, true);
+                    return false;
+                }
+                return true;
+            });
+            if (drained > 0) {
+                log.info("Batch lane '{}' re-queued {} spilled entries", name, drained);
+            }
+        } catch (IOException e) {
+            log.error("Batch lane '{}' failed to drain overflow log", name, e);
+        }
+    }
+
+    /**
+     * Stop accepting work, let writers drain the queue and flush whatever is left
+     */
+    public synchronized void shutdown(long timeoutMs) {
+        if (spillLog != null) {
+            spillLog.close();
+        }
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Thread writer : writers) {
+            try {
+                writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Thread writer : writers) {
+            if (writer.isAlive()) {
+                writer.interrupt();
+            }
+        }
+        writers.clear();
+
+        List<QueuedEntry<T>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("Flushing {} remaining {} documents on shutdown", remaining.size(), name);
+            flushQueued(remaining);
+        }
+
+        if (wal != null) {
+            wal.close();
+        }
+
+        log.info("Batch lane '{}' stopped", name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getSpillSize() {
+        return spillLog != null ? spillLog.size() : 0;
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getSucceededDocuments() {
+        return succeededDocuments.get();
+    }
+
+    public long getFailedDocuments() {
+        return failedDocuments.get();
+    }
+
+    public long getRejectedDocuments() {
+        return rejectedDocuments.get();
+    }
+
+    public long getSpilledDocuments() {
+        return spilledDocuments.get();
+    }
+
+    public long getReplayedDocuments() {
+        return replayedDocuments.get();
+    }
+
+    public long getWalFailures() {
+        return walFailures.get();
+    }
+
+    /**
+     * Counts of the most recent flush, or null before the first flush
+     */
+    public BatchFlushResult getLastFlushResult() {
+        return lastFlushResult;
+    }
+
+    private void runWriter() {
+        List<QueuedEntry<T>> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0L;
+
+        while (running || !queue.isEmpty()) {
+            try {
+                long waitMs = pollTimeoutMs;
+                if (!batch.isEmpty()) {
+                    long remaining = flushIntervalMs - (System.currentTimeMillis() - batchStartedAt);
+                    waitMs = Math.max(1, Math.min(pollTimeoutMs, remaining));
+                }
+
+                QueuedEntry<T> first = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    if (batch.isEmpty()) {
+                        batchStartedAt = System.currentTimeMillis();
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                boolean full = batch.size() >= batchSize;
+                boolean due = !batch.isEmpty()
+                        && System.currentTimeMillis() - batchStartedAt >= flushIntervalMs;
+
+                // Flush if batch is full or its oldest entry has waited long enough
+                if (full || due) {
+                    flushQueued(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Batch lane '{}' writer interrupted", name);
+                break;
+            } catch (Exception e) {
+                log.error("Error in batch lane '{}' writer", name, e);
+            }
+        }
+
+        // Final flush on shutdown
+        if (!batch.isEmpty()) {
+            flushQueued(batch);
+        }
+    }
+
+    /**
+     * Flush a drained batch, then release its write-ahead log records
+     */
+    private void flushQueued(List<QueuedEntry<T>> batch) {
+        BatchFlushResult result = flushSafely(unwrap(batch));
+        if (wal == null) {
+            return;
+        }
+
+        // Failed documents keep their segment on disk for the next replay
+        boolean persisted = result.getFailed() == 0;
+        Map<Long, Integer> perSegment = new HashMap<>();
+        for (QueuedEntry<T> queued : batch) {
+            if (queued.walSegment >= 0) {
+                perSegment.merge(queued.walSegment, 1, Integer::sum);
+            }
+        }
+        perSegment.forEach((segment, count) -> wal.release(segment, count, persisted));
+    }
+
+    /**
+     * Flush whatever a previous run left in the write-ahead log, then start a fresh log
+     */
+    private void replayWriteAheadLog() {
+        try {
+            List<T> recovered = wal.recover();
+            boolean persisted = true;
+
+            for (int from = 0; from < recovered.size(); from += batchSize) {
+                List<T> batch = recovered.subList(from, Math.min(from + batchSize, recovered.size()));
+                BatchFlushResult result = flushSafely(new ArrayList<>(batch));
+                replayedDocuments.addAndGet(result.getSucceeded());
+                persisted &= result.getFailed() == 0;
+            }
+            if (!recovered.isEmpty()) {
+                log.info("Batch lane '{}' replayed {} entries from the write-ahead log", name, recovered.size());
+            }
+
+            if (persisted) {
+                wal.discardRecovered();
+            } else {
+                log.warn("Batch lane '{}' kept old WAL segments: some replayed entries failed", name);
+            }
+            wal.open();
+
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open write-ahead log for batch lane " + name, e);
+        }
+    }
+
+    /**
+     * @return segment id, or -1 when the lane has no log
+     * @throws IOException if the entry could not be logged; it must not be queued then
+     */
+    private long appendToWal(T entry) throws IOException {
+        if (wal == null) {
+            return -1;
+        }
+        try {
+            return wal.append(entry);
+        } catch (IOException e) {
+            walFailures.incrementAndGet();
+            log.error("Batch lane '{}' failed to write-ahead log entry: {}", name, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void releaseWal(long segment, int count, boolean persisted) {
+        if (wal != null && segment >= 0) {
+            wal.release(segment, count, persisted);
+        }
+    }
+
+    /**
+     * Strip queue bookkeeping and record each entry's time in queue
+     */
+    private List<T> unwrap(List<QueuedEntry<T>> batch) {
+        long now = System.nanoTime();
+        List<T> entries = new ArrayList<>(batch.size());
+        for (QueuedEntry<T> queued : batch) {
+            queueTimer.record(now - queued.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+            entries.add(queued.entry);
+        }
+        return entries;
+    }
+
+    private void reject(String reason) {
+        rejectedDocuments.incrementAndGet();
+        throw new NotificationBackpressureException(
+                "Batch lane '" + name + "' is saturated: " + reason);
+    }
+
+    private BatchFlushResult flushSafely(List<T> batch) {
+        long startTime = System.currentTimeMillis();
+        BatchFlushResult result;
+        try {
+            result = flushHandler.flush(batch);
+        } catch (Exception e) {
+            log.error("Batch lane '{}' failed to flush {} documents", name, batch.size(), e);
+            result = BatchFlushResult.failedAll(batch.size(), System.currentTimeMillis() - startTime);
+        }
+
+        flushCount.incrementAndGet();
+        succeededDocuments.addAndGet(result.getSucceeded());
+        failedDocuments.addAndGet(result.getFailed());
+        lastFlushResult = result;
+        return result;
+    }
+
+    private static final class QueuedEntry<T> {
+        private final T entry;
+        private final long enqueuedAtNanos;
+        private final long walSegment;
+
+        private QueuedEntry(T entry, long enqueuedAtNanos, long walSegment) {
+            this.entry = entry;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+            this.walSegment = walSegment;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.io.IOException;
+
+import com.aigreentick.services.common.model.base.MongoBaseEntity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JSON codec for {@link BatchWriteEntry}: {@code {"mode":"INSERT","document":{...}}}
+ */
+@RequiredArgsConstructor
+public class JsonBatchEntryCodec<D extends MongoBaseEntity> implements BatchEntryCodec<BatchWriteEntry<D>> {
+
+    private final ObjectMapper objectMapper;
+    private final Class<D> documentClass;
+
+    @Override
+    public String encode(BatchWriteEntry<D> entry) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("mode", entry.getMode().name());
+        node.set("document", objectMapper.valueToTree(entry.getDocument()));
+        return objectMapper.writeValueAsString(node);
+    }
+
+    @Override
+    public BatchWriteEntry<D> decode(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        BatchWriteEntry.WriteMode mode = BatchWriteEntry.WriteMode.valueOf(node.get("mode").asText());
+        D document = objectMapper.treeToValue(node.get("document"), documentClass);
+        return new BatchWriteEntry<>(document, mode);
+    }
+}
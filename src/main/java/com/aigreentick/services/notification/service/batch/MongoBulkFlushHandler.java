@@ -0,0 +1,238 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.aigreentick.services.common.model.base.MongoBaseEntity;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Flushes a batch as a single unordered bulk write.
+ *
+ * A failing document does not stop the rest of the batch: only the failed
+ * indexes are retried, after an exponential backoff capped at
+ * {@code retryMaxWaitMs} so a primary election or a network blip does not
+ * use up every attempt at once. A duplicate-key insert whose id is already stored is
+ * counted as persisted, since the id was assigned at enqueue and the stored
+ * document is this one, possibly updated since; it is never overwritten.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MongoBulkFlushHandler<T extends MongoBaseEntity> implements BatchFlushHandler<BatchWriteEntry<T>> {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    /** Write errors that will fail again no matter how often they are retried */
+    private static final Set<Integer> PERMANENT_ERRORS = Set.of(
+            2,      // BadValue
+            14,     // TypeMismatch
+            121,    // DocumentValidationFailure
+            10334,  // BSONObjectTooLarge
+            17419); // DocumentTooLarge
+
+    private final String laneName;
+    private final MongoTemplate mongoTemplate;
+    private final Class<T> entityClass;
+    private final int maxAttempts;
+    private final long retryWaitMs;
+    private final long retryMaxWaitMs;
+
+    @Override
+    public BatchFlushResult flush(List<BatchWriteEntry<T>> batch) {
+        long startTime = System.currentTimeMillis();
+
+        List<BatchWriteEntry<T>> pending = batch;
+        int inserted = 0;
+        int upserted = 0;
+        int duplicates = 0;
+        int failed = 0;
+        int attempt = 0;
+
+        while (!pending.isEmpty() && attempt < maxAttempts) {
+            if (attempt > 0 && !backOff(attempt)) {
+                break;
+            }
+            attempt++;
+            List<BatchWriteEntry<T>> retry = new ArrayList<>();
+            List<BatchWriteEntry<T>> duplicateInserts = new ArrayList<>();
+
+            try {
+                BulkWriteResult result = buildBulk(pending).execute();
+                inserted += result.getInsertedCount();
+                upserted += result.getMatchedCount() + result.getUpserts().size();
+
+            } catch (Exception e) {
+                List<BulkWriteError> errors = extractWriteErrors(e);
+
+                if (errors == null) {
+                    // Whole request failed (network, timeout, ...): retry everything
+                    log.warn("Bulk flush of {} {} notifications failed on attempt {}: {}",
+                            pending.size(), laneName, attempt, e.getMessage());
+                    retry.addAll(pending);
+
+                } else {
+                    BulkWriteResult partial = extractPartialResult(e);
+                    if (partial != null) {
+                        inserted += partial.getInsertedCount();
+                        upserted += partial.getMatchedCount() + partial.getUpserts().size();
+                    }
+
+                    for (BulkWriteError error : errors) {
+                        BatchWriteEntry<T> entry = pending.get(error.getIndex());
+
+                        if (error.getCode() == DUPLICATE_KEY
+                                && entry.getMode() == BatchWriteEntry.WriteMode.INSERT) {
+                            duplicateInserts.add(entry);
+                        } else if (error.getCode() == DUPLICATE_KEY
+                                || PERMANENT_ERRORS.contains(error.getCode())) {
+                            failed++;
+                            log.error("Dropping {} notification {}: [{}] {}", laneName,
+                                    entry.getDocument().getId(), error.getCode(), error.getMessage());
+                        } else {
+                            retry.add(entry);
+                        }
+                    }
+                }
+            }
+
+            if (!duplicateInserts.isEmpty()) {
+                try {
+                    Set<String> stored = findStoredIds(duplicateInserts);
+                    for (BatchWriteEntry<T> entry : duplicateInserts) {
+                        if (stored.contains(entry.getDocument().getId())) {
+                            duplicates++;
+                        } else {
+                            // Duplicate on some other unique key: inserting again hits the same error
+                            failed++;
+                            log.error("Dropping {} notification {}: duplicate key on another field",
+                                    laneName, entry.getDocument().getId());
+                        }
+                    }
+                } catch (Exception e) {
+                    log.warn("Could not look up {} duplicate {} inserts on attempt {}: {}",
+                            duplicateInserts.size(), laneName, attempt, e.getMessage());
+                    retry.addAll(duplicateInserts);
+                }
+            }
+
+            pending = retry;
+        }
+
+        if (!pending.isEmpty()) {
+            failed += pending.size();
+            log.error("Giving up on {} {} notifications after {} attempts", pending.size(), laneName, attempt);
+        }
+
+        BatchFlushResult result = BatchFlushResult.builder()
+                .requested(batch.size())
+                .inserted(inserted)
+                .upserted(upserted)
+                .duplicates(duplicates)
+                .failed(failed)
+                .attempts(attempt)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .build();
+
+        log.info("Flushed {} {} notifications to MongoDB in {}ms "
+                        + "(inserted={}, upserted={}, duplicates={}, failed={}, attempts={})",
+                batch.size(), laneName, result.getDurationMs(), inserted, upserted, duplicates, failed, attempt);
+
+        return result;
+    }
+
+    private BulkOperations buildBulk(List<BatchWriteEntry<T>> entries) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, entityClass);
+
+        for (BatchWriteEntry<T> entry : entries) {
+            T document = entry.getDocument();
+            if (entry.getMode() == BatchWriteEntry.WriteMode.INSERT) {
+                bulk.insert(document);
+            } else {
+                bulk.replaceOne(
+                        Query.query(Criteria.where("_id").is(document.getId())),
+                        document,
+                        FindAndReplaceOptions.options().upsert());
+            }
+        }
+        return bulk;
+    }
+
+    /**
+     * Wait before the next attempt: retryWaitMs, doubling per attempt up to retryMaxWaitMs
+     *
+     * @return false if interrupted; whatever is still pending then counts as failed
+     */
+    private boolean backOff(int attemptsMade) {
+        long waitMs = Math.min(retryMaxWaitMs, retryWaitMs << Math.min(attemptsMade - 1, 20));
+        try {
+            Thread.sleep(waitMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Ids of the given entries that are already stored
+     */
+    private Set<String> findStoredIds(List<BatchWriteEntry<T>> entries) {
+        List<String> ids = entries.stream().map(entry -> entry.getDocument().getId()).toList();
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+
+        Set<String> stored = new HashSet<>();
+        for (T document : mongoTemplate.find(query, entityClass)) {
+            stored.add(document.getId());
+        }
+        return stored;
+    }
+
+    /**
+     * Per-index write errors, or null when the failure was not a bulk write error
+     */
+    private static List<BulkWriteError> extractWriteErrors(Exception e) {
+        if (e instanceof BulkOperationException bulkException) {
+            return bulkException.getErrors();
+        }
+        MongoBulkWriteException cause = findBulkWriteCause(e);
+        return cause != null ? cause.getWriteErrors() : null;
+    }
+
+    private static BulkWriteResult extractPartialResult(Exception e) {
+        if (e instanceof BulkOperationException bulkException) {
+            return bulkException.getResult();
+        }
+        MongoBulkWriteException cause = findBulkWriteCause(e);
+        return cause != null ? cause.getWriteResult() : null;
+    }
+
+    private static MongoBulkWriteException findBulkWriteCause(Throwable e) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Throwable current = e;
+        while (current != null && seen.add(current)) {
+            if (current instanceof MongoBulkWriteException bulkWriteException) {
+                return bulkWriteException;
+            }
+            current = current.getCause();
+        }
+        return null;
+    }
+}
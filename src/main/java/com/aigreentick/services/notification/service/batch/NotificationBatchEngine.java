@@ -0,0 +1,135 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.config.properties.BatchWriterProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generic batching engine for high-volume notification persistence.
+ * Each channel registers its own lane; all lanes share the
+ * {@code batch.notification.*} settings.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationBatchEngine {
+
+    private final BatchWriterProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, BatchWriteLane<?>> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * Create and start a lane. Lane names must be unique.
+     *
+     * @param codec serializes entries for the SPILL overflow log and the
+     *              write-ahead log; may be null (no spill, no WAL)
+     */
+    public <T> BatchWriteLane<T> registerLane(String name, BatchFlushHandler<T> flushHandler,
+            BatchEntryCodec<T> codec) {
+        Timer queueTimer = Timer.builder("notification.batch.queue.time")
+                .description("Time an entry spends in the batch queue before its flush")
+                .tag("lane", name)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        BatchWriterProperties.WalConfig walConfig = properties.getWal();
+        BatchWriteAheadLog<T> wal = walConfig.isEnabled() && codec != null
+                ? new BatchWriteAheadLog<>(name, Path.of(walConfig.getDirectory(), name), codec,
+                        walConfig.getSegmentSizeBytes(), walConfig.getGroupCommitIntervalMs(),
+                        walConfig.getAwaitDurableTimeoutMs())
+                : null;
+
+        BatchWriteLane<T> lane = new BatchWriteLane<>(name, flushHandler, properties, codec, wal, queueTimer);
+
+        if (lanes.putIfAbsent(name, lane) != null) {
+            throw new IllegalStateException("Batch lane already registered: " + name);
+        }
+
+        registerMetrics(lane);
+        lane.start();
+        return lane;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.shutdown(properties.getShutdownTimeoutMs()));
+    }
+
+    /**
+     * Re-queue entries spilled under backpressure (also picks up spill files from a previous run)
+     */
+    @Scheduled(fixedDelayString = "${batch.notification.spill-drain-interval-ms:5000}")
+    public void drainSpilledEntries() {
+        lanes.values().forEach(BatchWriteLane::drainSpill);
+    }
+
+    /**
+     * Scheduled health check
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void logQueueStatus() {
+        lanes.values().forEach(lane -> log.debug("Batch lane '{}' queue size: {}/{}, spilled: {}",
+                lane.getName(), lane.getQueueSize(), lane.getQueueCapacity(), lane.getSpillSize()));
+    }
+
+    public BatchWriteLane<?> getLane(String name) {
+        return lanes.get(name);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    private void registerMetrics(BatchWriteLane<?> lane) {
+        Gauge.builder("notification.batch.queue.depth", lane, BatchWriteLane::getQueueSize)
+                .tag("lane", lane.getName())
+                .register(meterRegistry);
+        Gauge.builder("notification.batch.queue.capacity", lane, BatchWriteLane::getQueueCapacity)
+                .tag("lane", lane.getName())
+                .register(meterRegistry);
+        Gauge.builder("notification.batch.spill.depth", lane, BatchWriteLane::getSpillSize)
+                .tag("lane", lane.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.batch.flushes", lane, BatchWriteLane::getFlushCount)
+                .tag("lane", lane.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.batch.documents", lane, BatchWriteLane::getSucceededDocuments)
+                .tag("lane", lane.getName())
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.batch.documents", lane, BatchWriteLane::getFailedDocuments)
+                .tag("lane", lane.getName())
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.batch.documents", lane, BatchWriteLane::getRejectedDocuments)
+                .tag("lane", lane.getName())
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.batch.documents", lane, BatchWriteLane::getSpilledDocuments)
+                .tag("lane", lane.getName())
+                .tag("outcome", "spilled")
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.batch.documents", lane, BatchWriteLane::getReplayedDocuments)
+                .tag("lane", lane.getName())
+                .tag("outcome", "replayed")
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.batch.wal.failures", lane, BatchWriteLane::getWalFailures)
+                .description("Entries rejected because they could not be written to the write-ahead log")
+                .tag("lane", lane.getName())
+                .register(meterRegistry);
+    }
+}
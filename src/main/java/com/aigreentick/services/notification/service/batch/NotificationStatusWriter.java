@@ -0,0 +1,556 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.common.model.base.MongoBaseEntity;
+import com.aigreentick.services.notification.config.properties.StatusWriterProperties;
+import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalescing writer for notification creates and status transitions.
+ *
+ * Writes for the same id are merged in memory for up to
+ * {@code batch.status.coalesce-window-ms}: a PENDING create followed by
+ * PROCESSING and SENT becomes a single insert, and transitions on an existing
+ * document become a single {@code $set}/{@code $inc} update. Terminal statuses
+ * are flushed on the next tick. Flushes run on one thread, in order, as
+ * unordered bulk writes per collection.
+ *
+ * Updates are guarded by the status state machine: the filter only matches
+ * documents whose current status may move to the new one (see
+ * {@link NotificationStatus#allowedFrom()}), so a late PROCESSING can never
+ * overwrite SENT and concurrent retries never lose a {@code $inc}.
+ *
+ * An id is marked in flight before its write leaves the buffer and until
+ * the write is committed or requeued, so {@link #flush} waits for a write
+ * the tick already took instead of returning before it reached MongoDB.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationStatusWriter {
+
+    private static final int MAX_FLUSH_ROUNDS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final StatusWriterProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, ConcurrentHashMap<String, PendingWrite>> pending = new ConcurrentHashMap<>();
+
+    /** Writes taken off the buffer and not yet committed or requeued; ObjectIds are unique across collections */
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+    private Counter recordedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        recordedCounter = Counter.builder("notification.status.transitions")
+                .description("Creates and status transitions recorded")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("notification.status.writes")
+                .description("Mongo write operations issued after coalescing")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("notification.status.write.failures")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("notification.status.transitions.rejected")
+                .description("Transitions not allowed from the notification's current status")
+                .register(meterRegistry);
+        Gauge.builder("notification.status.pending", this, NotificationStatusWriter::getPendingCount)
+                .register(meterRegistry);
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-status-writer");
+            thread.setDaemon(false);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushDue, properties.getTickMs(), properties.getTickMs(),
+                TimeUnit.MILLISECONDS);
+
+        log.info("Notification status writer started (window={}ms, tick={}ms)",
+                properties.getCoalesceWindowMs(), properties.getTickMs());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(properties.getTickMs() * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    // ==================== RECORDING ====================
+
+    /**
+     * Record a new notification. An id is assigned immediately so the caller
+     * can hand it out before the document reaches MongoDB.
+     *
+     * @param status the status the document is created with
+     */
+    public <T extends MongoBaseEntity> T create(Class<T> type, T document, NotificationStatus status) {
+        if (document.getId() == null) {
+            document.setId(new ObjectId().toHexString());
+        }
+        PendingWrite write = PendingWrite.insert(document, status, System.currentTimeMillis());
+        record(type, document.getId(), write);
+        return document;
+    }
+
+    /**
+     * Record many new notifications at once. With coalescing disabled they go
+     * to MongoDB as a single insert instead of one round trip each.
+     */
+    public <T extends MongoBaseEntity> List<T> createAll(Class<T> type, List<T> documents, NotificationStatus status) {
+        if (properties.isEnabled()) {
+            documents.forEach(document -> create(type, document, status));
+            return documents;
+        }
+        if (documents.isEmpty()) {
+            return documents;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Document> inserts = new ArrayList<>(documents.size());
+        for (T document : documents) {
+            if (document.getId() == null) {
+                document.setId(new ObjectId().toHexString());
+            }
+            inserts.add(toDocument(PendingWrite.insert(document, status, now)));
+        }
+        recordedCounter.increment(documents.size());
+        mongoTemplate.insert(inserts, mongoTemplate.getCollectionName(type));
+        writtenCounter.increment(documents.size());
+        return documents;
+    }
+
+    /**
+     * Record a status transition for an existing or pending notification.
+     * Transitions not allowed from the current status are dropped.
+     */
+    public void transition(Class<? extends MongoBaseEntity> type, String id, StatusTransition transition) {
+        PendingWrite write = PendingWrite.update(transition, System.currentTimeMillis());
+        record(type, id, write);
+    }
+
+    /**
+     * Write whatever is buffered for this id now, e.g. before handing the
+     * notification to another instance that will transition it. Returns once
+     * the id's writes are committed, including one the tick is writing.
+     */
+    public void flush(Class<?> type, String id) {
+        flush(type, List.of(id));
+    }
+
+    /**
+     * Same as {@link #flush(Class, String)} for many ids, in as few bulk writes as possible
+     */
+    public void flush(Class<?> type, Collection<String> ids) {
+        ConcurrentHashMap<String, PendingWrite> writes = pending.get(type);
+        if (writes == null) {
+            return;
+        }
+
+        Set<String> remaining = new LinkedHashSet<>(ids);
+        for (int round = 0; !remaining.isEmpty() && round < MAX_FLUSH_ROUNDS; round++) {
+            awaitInFlight(remaining);
+
+            CompletableFuture<Void> marker = new CompletableFuture<>();
+            List<String> flushed = new ArrayList<>(remaining.size());
+            List<PendingWrite> batch = new ArrayList<>(remaining.size());
+            for (Iterator<String> it = remaining.iterator(); it.hasNext(); ) {
+                String id = it.next();
+                PendingWrite write = take(writes, id, null, marker);
+                if (write != null) {
+                    flushed.add(id);
+                    batch.add(write);
+                    it.remove();
+                } else if (!inFlight.containsKey(id)) {
+                    // Nothing buffered and nothing on its way
+                    it.remove();
+                }
+            }
+
+            try {
+                for (int from = 0; from < batch.size(); from += properties.getMaxBatchSize()) {
+                    int to = Math.min(from + properties.getMaxBatchSize(), batch.size());
+                    writeBatch(type, writes, flushed.subList(from, to), batch.subList(from, to));
+                }
+            } finally {
+                release(flushed, marker);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            log.warn("{} {} writes still in flight after flush", remaining.size(), type.getSimpleName());
+        }
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Apply writes still buffered for this id on top of what MongoDB returned,
+     * so status reads never go backwards while a write is pending.
+     *
+     * @param stored document read from MongoDB, or null if not found
+     * @return the current view, or null if neither MongoDB nor the buffer know the id
+     */
+    public <T extends MongoBaseEntity> T overlay(Class<T> type, String id, T stored) {
+        ConcurrentHashMap<String, PendingWrite> writes = pending.get(type);
+        PendingWrite write = writes != null ? writes.get(id) : null;
+        if (write == null) {
+            return stored;
+        }
+
+        Document document;
+        synchronized (write) {
+            if (write.insertDocument != null) {
+                document = toDocument(write);
+            } else if (stored != null) {
+                document = new Document();
+                converter().write(stored, document);
+                applyFields(document, write);
+            } else {
+                return null;
+            }
+        }
+        return converter().read(type, document);
+    }
+
+    public int getPendingCount() {
+        return pending.values().stream().mapToInt(Map::size).sum();
+    }
+
+    // ==================== FLUSHING ====================
+
+    private void record(Class<?> type, String id, PendingWrite write) {
+        recordedCounter.increment();
+
+        if (!properties.isEnabled()) {
+            writeThrough(type, id, write);
+            return;
+        }
+
+        ConcurrentHashMap<String, PendingWrite> writes =
+                pending.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+        writes.compute(id, (key, existing) -> existing == null ? write : existing.mergeIfAllowed(write));
+
+        if (write.rejected) {
+            rejectedCounter.increment();
+            log.debug("Ignoring {} transition to {} for {}", type.getSimpleName(), write.lastStatus, id);
+        } else if (writes.size() >= properties.getMaxPending()) {
+            flusher.execute(this::flushDue);
+        }
+    }
+
+    /**
+     * Single targeted write when coalescing is disabled
+     */
+    private void writeThrough(Class<?> type, String id, PendingWrite write) {
+        if (write.insertDocument != null) {
+            mongoTemplate.insert(toDocument(write), mongoTemplate.getCollectionName(type));
+            writtenCounter.increment();
+            return;
+        }
+
+        UpdateResult result = mongoTemplate.updateFirst(guardedQuery(id, write), toUpdate(write), type);
+        writtenCounter.increment();
+        if (result.getMatchedCount() == 0) {
+            rejectedCounter.increment();
+            log.debug("{} {} not updated: missing or not in {}", type.getSimpleName(), id, write.guard);
+        }
+    }
+
+    private void flushDue() {
+        try {
+            pending.forEach((type, writes) -> flushType(type, writes, false));
+        } catch (Exception e) {
+            log.error("Error flushing notification status writes", e);
+        }
+    }
+
+    private void flushAll() {
+        pending.forEach((type, writes) -> flushType(type, writes, true));
+    }
+
+    private synchronized void flushType(Class<?> type, ConcurrentHashMap<String, PendingWrite> writes, boolean force) {
+        long now = System.currentTimeMillis();
+        boolean overCapacity = writes.size() >= properties.getMaxPending();
+
+        CompletableFuture<Void> marker = new CompletableFuture<>();
+        List<String> ids = new ArrayList<>();
+        List<PendingWrite> due = new ArrayList<>();
+        writes.forEach((id, write) -> {
+            boolean ready = force || overCapacity || write.terminal
+                    || now - write.firstRecordedAt >= properties.getCoalesceWindowMs();
+            if (ready && take(writes, id, write, marker) != null) {
+                ids.add(id);
+                due.add(write);
+            }
+        });
+
+        try {
+            for (int from = 0; from < due.size(); from += properties.getMaxBatchSize()) {
+                int to = Math.min(from + properties.getMaxBatchSize(), due.size());
+                writeBatch(type, writes, ids.subList(from, to), due.subList(from, to));
+            }
+        } finally {
+            release(ids, marker);
+        }
+    }
+
+    /**
+     * Take the buffered write of an id for writing. The id is marked in flight
+     * before it leaves the buffer, so a concurrent flush always finds one or
+     * the other. An id already in flight is left for the next pass.
+     *
+     * @param expected the write to take, or null for whatever is buffered
+     * @return the write taken, or null
+     */
+    private PendingWrite take(ConcurrentHashMap<String, PendingWrite> writes, String id, PendingWrite expected,
+            CompletableFuture<Void> marker) {
+        if (inFlight.putIfAbsent(id, marker) != null) {
+            return null;
+        }
+        PendingWrite write = expected != null
+                ? (writes.remove(id, expected) ? expected : null)
+                : writes.remove(id);
+        if (write == null) {
+            inFlight.remove(id, marker);
+        }
+        return write;
+    }
+
+    /**
+     * Writes are committed or requeued by now; wake anyone waiting on them
+     */
+    private void release(List<String> ids, CompletableFuture<Void> marker) {
+        ids.forEach(id -> inFlight.remove(id, marker));
+        marker.complete(null);
+    }
+
+    private void awaitInFlight(Collection<String> ids) {
+        long deadline = System.currentTimeMillis() + properties.getFlushWaitMs();
+        for (String id : ids) {
+            CompletableFuture<Void> marker = inFlight.get(id);
+            if (marker == null) {
+                continue;
+            }
+            try {
+                marker.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Gave up waiting for the in-flight status write of {}", id);
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(Class<?> type, ConcurrentHashMap<String, PendingWrite> writes,
+            List<String> ids, List<PendingWrite> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, type);
+        int updates = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            synchronized (write) {
+                if (write.insertDocument != null) {
+                    bulk.insert(toDocument(write));
+                } else {
+                    bulk.updateOne(guardedQuery(ids.get(i), write), toUpdate(write));
+                    updates++;
+                }
+            }
+        }
+
+        try {
+            BulkWriteResult result = bulk.execute();
+            writtenCounter.increment(batch.size());
+            int unmatched = updates - result.getMatchedCount();
+            if (unmatched > 0) {
+                // Guard did not match: the stored status already moved past this transition
+                rejectedCounter.increment(unmatched);
+            }
+            log.debug("Flushed {} coalesced {} writes", batch.size(), type.getSimpleName());
+
+        } catch (BulkOperationException e) {
+            writtenCounter.increment(batch.size() - e.getErrors().size());
+            for (BulkWriteError error : e.getErrors()) {
+                requeue(writes, ids.get(error.getIndex()), batch.get(error.getIndex()), error.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("Bulk status write of {} {} documents failed", batch.size(), type.getSimpleName(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                requeue(writes, ids.get(i), batch.get(i), e.getMessage());
+            }
+        }
+    }
+
+    private void requeue(ConcurrentHashMap<String, PendingWrite> writes, String id, PendingWrite write, String reason) {
+        if (++write.attempts >= properties.getMaxAttempts()) {
+            failedCounter.increment();
+            log.error("Dropping status write for {} after {} attempts: {}", id, write.attempts, reason);
+            return;
+        }
+        // Older write goes first, anything recorded since then is merged on top
+        writes.merge(id, write, (newer, older) -> older.mergeNewer(newer));
+    }
+
+    // ==================== CONVERSION ====================
+
+    private Document toDocument(PendingWrite write) {
+        Document document = new Document();
+        converter().write(write.insertDocument, document);
+        applyFields(document, write);
+        return document;
+    }
+
+    private void applyFields(Document document, PendingWrite write) {
+        write.sets.forEach((field, value) -> document.put(field, converter().convertToMongoType(value)));
+        write.increments.forEach((field, amount) -> {
+            Object current = document.get(field);
+            int base = current instanceof Number number ? number.intValue() : 0;
+            document.put(field, base + amount);
+        });
+    }
+
+    /**
+     * Match the id only while the stored status still allows the first buffered transition
+     */
+    private static Query guardedQuery(String id, PendingWrite write) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (write.guard != null) {
+            criteria = criteria.and("status").in(write.guard);
+        }
+        return Query.query(criteria);
+    }
+
+    private static Update toUpdate(PendingWrite write) {
+        Update update = new Update();
+        write.sets.forEach(update::set);
+        write.increments.forEach(update::inc);
+        return update;
+    }
+
+    private MongoConverter converter() {
+        return mongoTemplate.getConverter();
+    }
+
+    /**
+     * Everything recorded for one id since its last flush
+     */
+    private static final class PendingWrite {
+        private Object insertDocument;
+        private final Map<String, Object> sets = new LinkedHashMap<>();
+        private final Map<String, Integer> increments = new LinkedHashMap<>();
+        private final long firstRecordedAt;
+        /** Statuses the stored document must have for the update to apply; null for inserts */
+        private Set<NotificationStatus> guard;
+        private NotificationStatus lastStatus;
+        private boolean terminal;
+        private boolean rejected;
+        private int attempts;
+
+        private PendingWrite(long firstRecordedAt) {
+            this.firstRecordedAt = firstRecordedAt;
+        }
+
+        static PendingWrite insert(Object document, NotificationStatus status, long now) {
+            PendingWrite write = new PendingWrite(now);
+            write.insertDocument = document;
+            write.lastStatus = status;
+            return write;
+        }
+
+        static PendingWrite update(StatusTransition transition, long now) {
+            PendingWrite write = new PendingWrite(now);
+            write.sets.putAll(transition.getSets());
+            write.increments.putAll(transition.getIncrements());
+            write.guard = transition.getAllowedFrom();
+            write.lastStatus = transition.getStatus();
+            write.terminal = transition.getStatus() != null && transition.getStatus().isTerminal();
+            return write;
+        }
+
+        /**
+         * Merge a newly recorded transition unless the buffered status does not allow it,
+         * in which case the newer write is flagged as rejected
+         */
+        synchronized PendingWrite mergeIfAllowed(PendingWrite newer) {
+            if (lastStatus != null && newer.lastStatus != null && !lastStatus.canTransitionTo(newer.lastStatus)) {
+                newer.rejected = true;
+                return this;
+            }
+            return mergeNewer(newer);
+        }
+
+        /**
+         * Fold a newer write into this one (later $set values win, $inc amounts add up)
+         */
+        synchronized PendingWrite mergeNewer(PendingWrite newer) {
+            if (insertDocument == null) {
+                insertDocument = newer.insertDocument;
+            }
+            if (insertDocument == null && guard == null) {
+                guard = newer.guard;
+            }
+            if (newer.lastStatus != null) {
+                lastStatus = newer.lastStatus;
+            }
+            sets.putAll(newer.sets);
+            newer.increments.forEach((field, amount) -> increments.merge(field, amount, Integer::sum));
+            terminal |= newer.terminal;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.aigreentick.services.notification.service.batch;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.aigreentick.services.notification.enums.NotificationStatus;
+
+import lombok.Getter;
+
+/**
+ * A status change expressed as partial {@code $set}/{@code $inc} fields,
+ * recorded through {@link NotificationStatusWriter}. Only applied while the
+ * stored status is one of {@link #getAllowedFrom()}.
+ */
+@Getter
+public class StatusTransition {
+
+    private final NotificationStatus status;
+    private final Map<String, Object> sets = new LinkedHashMap<>();
+    private final Map<String, Integer> increments = new LinkedHashMap<>();
+
+    private StatusTransition(NotificationStatus status) {
+        this.status = status;
+        sets.put("status", status);
+        sets.put("updatedAt", Instant.now());
+    }
+
+    public static StatusTransition to(NotificationStatus status) {
+        return new StatusTransition(status);
+    }
+
+    /**
+     * @return statuses this transition may be applied to, or null for no guard
+     */
+    public Set<NotificationStatus> getAllowedFrom() {
+        return status != null ? status.allowedFrom() : null;
+    }
+
+    public StatusTransition set(String field, Object value) {
+        sets.put(field, value);
+        return this;
+    }
+
+    public StatusTransition inc(String field, int amount) {
+        increments.merge(field, amount, Integer::sum);
+        return this;
+    }
+}
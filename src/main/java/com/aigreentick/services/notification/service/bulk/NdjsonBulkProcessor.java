@@ -0,0 +1,184 @@
+package com.aigreentick.services.notification.service.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.config.properties.BulkSendProperties;
+import com.aigreentick.services.notification.dto.response.BulkItemResult;
+import com.aigreentick.services.notification.dto.response.BulkSendSummary;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads a bulk submission of newline-delimited JSON items with one streaming
+ * parser and writes one result line per item back as each chunk completes,
+ * followed by a {@link BulkSendSummary} line.
+ *
+ * Only one chunk of items is held at a time, so memory does not grow with
+ * the size of the submission. An item that is valid JSON but does not map
+ * to the item type is rejected on its own; malformed JSON ends the
+ * submission, since the parser cannot find the next item after it.
+ *
+ * The counts of each chunk are added to the submission's job, which stops
+ * accepting once the input ends, however it ends.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NdjsonBulkProcessor {
+
+    private static final byte NEWLINE = '\n';
+
+    private final ObjectMapper objectMapper;
+    private final BulkSendProperties properties;
+    private final NotificationJobService jobService;
+
+    /**
+     * Accepts one chunk of parsed items
+     */
+    @FunctionalInterface
+    public interface ChunkHandler<T> {
+
+        /**
+         * @return one result per item, accepted or rejected
+         */
+        List<BulkItemResult> accept(List<BulkItem<T>> chunk);
+    }
+
+    /**
+     * @param index zero-based position in the submission
+     */
+    public record BulkItem<T>(int index, T item) {
+    }
+
+    /**
+     * @param jobId job started for the submission, or null to track none
+     */
+    public <T> BulkSendSummary process(String jobId, InputStream in, OutputStream out, Class<T> itemType,
+            ChunkHandler<T> handler) throws IOException {
+        try {
+            return read(jobId, in, out, itemType, handler);
+        } finally {
+            if (jobId != null) {
+                jobService.close(jobId);
+            }
+        }
+    }
+
+    private <T> BulkSendSummary read(String jobId, InputStream in, OutputStream out, Class<T> itemType,
+            ChunkHandler<T> handler) throws IOException {
+        long startTime = System.currentTimeMillis();
+        ObjectReader reader = objectMapper.readerFor(itemType);
+        ObjectWriter writer = objectMapper.writer();
+
+        BulkSendSummary summary = new BulkSendSummary();
+        summary.setJobId(jobId);
+        List<BulkItem<T>> chunk = new ArrayList<>(properties.getChunkSize());
+        List<BulkItemResult> rejected = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            for (int index = 0; ; index++) {
+                JsonToken token;
+                JsonNode node;
+                try {
+                    token = parser.nextToken();
+                    if (token == null) {
+                        break;
+                    }
+                    node = parser.readValueAsTree();
+                } catch (JsonProcessingException e) {
+                    summary.setError("Malformed JSON at item " + index + ": " + e.getOriginalMessage());
+                    break;
+                }
+                if (index >= properties.getMaxItems()) {
+                    summary.setError("Item limit of " + properties.getMaxItems() + " reached; remaining input ignored");
+                    break;
+                }
+
+                if (token != JsonToken.START_OBJECT) {
+                    rejected.add(BulkItemResult.rejected(index, "Item must be a JSON object"));
+                } else {
+                    try {
+                        chunk.add(new BulkItem<>(index, reader.treeToValue(node, itemType)));
+                    } catch (JsonProcessingException e) {
+                        rejected.add(BulkItemResult.rejected(index, "Unreadable item: " + e.getOriginalMessage()));
+                    } catch (IllegalArgumentException e) {
+                        rejected.add(BulkItemResult.rejected(index, "Unreadable item: " + e.getMessage()));
+                    }
+                }
+
+                if (chunk.size() + rejected.size() >= properties.getChunkSize()) {
+                    writeChunk(out, writer, handler, chunk, rejected, summary);
+                }
+            }
+        }
+        writeChunk(out, writer, handler, chunk, rejected, summary);
+
+        summary.setDurationMs(System.currentTimeMillis() - startTime);
+        writeLine(out, writer, summary);
+        out.flush();
+
+        log.info("Bulk submission of {} {} items: {} accepted, {} rejected in {}ms", summary.getTotal(),
+                itemType.getSimpleName(), summary.getAccepted(), summary.getRejected(), summary.getDurationMs());
+        return summary;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private <T> void writeChunk(OutputStream out, ObjectWriter writer, ChunkHandler<T> handler,
+            List<BulkItem<T>> chunk, List<BulkItemResult> rejected, BulkSendSummary summary) throws IOException {
+        List<BulkItemResult> results = new ArrayList<>(rejected);
+        if (!chunk.isEmpty()) {
+            try {
+                results.addAll(handler.accept(chunk));
+            } catch (RuntimeException e) {
+                log.error("Bulk chunk of {} items starting at {} failed", chunk.size(), chunk.get(0).index(), e);
+                chunk.forEach(item -> results.add(
+                        BulkItemResult.rejected(item.index(), "Could not be accepted: " + e.getMessage())));
+            }
+        }
+        results.sort(Comparator.comparingInt(BulkItemResult::getIndex));
+
+        int accepted = 0;
+        for (BulkItemResult result : results) {
+            if (result.isAccepted()) {
+                accepted++;
+            }
+        }
+        summary.setTotal(summary.getTotal() + results.size());
+        summary.setAccepted(summary.getAccepted() + accepted);
+        summary.setRejected(summary.getRejected() + results.size() - accepted);
+        // Before the results go out, so the job never shows fewer items than the caller has seen
+        if (summary.getJobId() != null) {
+            jobService.recordAccepted(summary.getJobId(), accepted, results.size() - accepted);
+        }
+
+        for (BulkItemResult result : results) {
+            writeLine(out, writer, result);
+        }
+        out.flush();
+
+        chunk.clear();
+        rejected.clear();
+    }
+
+    private static void writeLine(OutputStream out, ObjectWriter writer, Object value) throws IOException {
+        out.write(writer.writeValueAsBytes(value));
+        out.write(NEWLINE);
+    }
+}
@@ -0,0 +1,204 @@
+package com.aigreentick.services.notification.service.concurrency;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.config.properties.AsyncProperties;
+import com.aigreentick.services.notification.enums.AsyncExecutionMode;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.exceptions.NotificationSendException;
+import com.aigreentick.services.notification.exceptions.ProviderNotAvailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Semaphore bulkhead per provider type, so one slow provider cannot take
+ * every delivery thread (or, in VIRTUAL mode, every connection) with it.
+ *
+ * Each provider has its own limit on in-flight sends, on callers waiting for
+ * a slot and on how long they wait ({@code async.bulkheads.<PROVIDER>}).
+ * Waiting parks a virtual thread without holding a carrier.
+ *
+ * In POOL mode a limit at or above the pool size would let one provider take
+ * every thread, so limits are lowered to {@code max-provider-pool-percent} of
+ * {@code max-pool-size}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProviderBulkheads {
+
+    private final AsyncProperties asyncProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Fail startup when a POOL-mode executor is too small to keep a thread free
+     * of any single provider
+     */
+    @PostConstruct
+    public void validate() {
+        for (NotificationChannel channel : List.of(NotificationChannel.EMAIL, NotificationChannel.PUSH)) {
+            int poolCap = poolCap(channel);
+            if (poolCap < 1) {
+                throw new IllegalStateException("async." + channel.name().toLowerCase()
+                        + ".max-pool-size is too small to cap each provider below it; raise it or "
+                        + "max-provider-pool-percent");
+            }
+            if (poolCap < Integer.MAX_VALUE) {
+                log.info("{} runs in POOL mode: each provider holds at most {} threads", channel, poolCap);
+            }
+        }
+    }
+
+    /**
+     * Run one provider call while holding a slot in that provider's bulkhead
+     *
+     * @throws ProviderNotAvailableException if the bulkhead is full
+     * @throws NotificationSendException if interrupted while waiting for a slot
+     */
+    public void run(NotificationChannel channel, Enum<?> providerType, Runnable send) {
+        call(channel, providerType, () -> {
+            send.run();
+            return null;
+        });
+    }
+
+    /**
+     * Same as {@link #run} for provider calls that return a result
+     */
+    public <T> T call(NotificationChannel channel, Enum<?> providerType, Supplier<T> send) {
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(channel + ":" + providerType.name(),
+                key -> newBulkhead(channel, providerType));
+        bulkhead.acquire();
+        try {
+            return send.get();
+        } finally {
+            bulkhead.permits.release();
+        }
+    }
+
+    private Bulkhead newBulkhead(NotificationChannel channel, Enum<?> providerType) {
+        AsyncProperties.ProviderBulkheadConfig config = asyncProperties.getBulkheads().entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(providerType.name()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseGet(AsyncProperties.ProviderBulkheadConfig::new);
+        int configured = config.getMaxConcurrentCalls() != null
+                ? config.getMaxConcurrentCalls()
+                : channelDefault(channel);
+        int maxConcurrentCalls = Math.min(configured, poolCap(channel));
+        if (maxConcurrentCalls < configured) {
+            log.warn("Bulkhead for {} provider {} lowered from {} to {} to stay below the {} pool",
+                    channel, providerType, configured, maxConcurrentCalls, channel);
+        }
+
+        Counter rejected = Counter.builder("notification.bulkhead.rejected")
+                .description("Provider sends rejected because the bulkhead was full")
+                .tag("channel", channel.name())
+                .tag("provider", providerType.name())
+                .register(meterRegistry);
+        Bulkhead bulkhead = new Bulkhead(providerType.name(), maxConcurrentCalls,
+                config.getMaxWaitingCalls(), config.getMaxWaitMs(), rejected);
+
+        Gauge.builder("notification.provider.inflight", bulkhead, Bulkhead::inFlight)
+                .description("Provider sends currently in flight")
+                .tag("channel", channel.name())
+                .tag("provider", providerType.name())
+                .register(meterRegistry);
+        Gauge.builder("notification.bulkhead.waiting", bulkhead.waiting, AtomicInteger::get)
+                .tag("channel", channel.name())
+                .tag("provider", providerType.name())
+                .register(meterRegistry);
+
+        log.info("Bulkhead for {} provider {}: maxConcurrentCalls={}, maxWaitingCalls={}, maxWaitMs={}",
+                channel, providerType, maxConcurrentCalls, config.getMaxWaitingCalls(), config.getMaxWaitMs());
+        return bulkhead;
+    }
+
+    private int channelDefault(NotificationChannel channel) {
+        return switch (channel) {
+            case EMAIL -> asyncProperties.getEmail().getMaxConcurrentSendsPerProvider();
+            case PUSH -> asyncProperties.getPush().getMaxConcurrentSendsPerProvider();
+            default -> Integer.MAX_VALUE;
+        };
+    }
+
+    /**
+     * Threads one provider may hold in POOL mode; unlimited in VIRTUAL mode
+     */
+    private int poolCap(NotificationChannel channel) {
+        AsyncProperties.EmailAsyncConfig email = asyncProperties.getEmail();
+        AsyncProperties.PushAsyncConfig push = asyncProperties.getPush();
+        return switch (channel) {
+            case EMAIL -> poolCap(email.getMode(), email.getMaxPoolSize(), email.getMaxProviderPoolPercent());
+            case PUSH -> poolCap(push.getMode(), push.getMaxPoolSize(), push.getMaxProviderPoolPercent());
+            default -> Integer.MAX_VALUE;
+        };
+    }
+
+    private static int poolCap(AsyncExecutionMode mode, int maxPoolSize, int maxProviderPoolPercent) {
+        return mode == AsyncExecutionMode.POOL ? maxPoolSize * maxProviderPoolPercent / 100 : Integer.MAX_VALUE;
+    }
+
+    private static final class Bulkhead {
+        private final String name;
+        private final int maxConcurrentCalls;
+        private final int maxWaitingCalls;
+        private final long maxWaitMs;
+        private final Counter rejected;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        private Bulkhead(String name, int maxConcurrentCalls, int maxWaitingCalls, long maxWaitMs, Counter rejected) {
+            this.name = name;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.maxWaitingCalls = maxWaitingCalls;
+            this.maxWaitMs = maxWaitMs;
+            this.rejected = rejected;
+            this.permits = new Semaphore(maxConcurrentCalls, true);
+        }
+
+        private void acquire() {
+            if (permits.tryAcquire()) {
+                return;
+            }
+            if (waiting.incrementAndGet() > maxWaitingCalls) {
+                waiting.decrementAndGet();
+                throw reject("too many callers waiting");
+            }
+            try {
+                if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                    throw reject("no slot within " + maxWaitMs + "ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NotificationSendException("Interrupted waiting for a " + name + " send slot", e);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        private ProviderNotAvailableException reject(String reason) {
+            rejected.increment();
+            return new ProviderNotAvailableException("Bulkhead for " + name + " is full: " + reason);
+        }
+
+        private int inFlight() {
+            return maxConcurrentCalls - permits.availablePermits();
+        }
+    }
+}
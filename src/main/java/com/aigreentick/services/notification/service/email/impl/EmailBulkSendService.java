@@ -0,0 +1,187 @@
+package com.aigreentick.services.notification.service.email.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.notification.dto.request.email.EmailNotificationControllerRequest;
+import com.aigreentick.services.notification.dto.request.email.EmailNotificationRequest;
+import com.aigreentick.services.notification.dto.response.BulkItemResult;
+import com.aigreentick.services.notification.dto.response.BulkSendSummary;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.aigreentick.services.notification.mapper.EmailNotificationMapper;
+import com.aigreentick.services.notification.model.entity.EmailNotification;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.batch.StatusTransition;
+import com.aigreentick.services.notification.service.bulk.NdjsonBulkProcessor;
+import com.aigreentick.services.notification.service.bulk.NdjsonBulkProcessor.BulkItem;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
+import com.aigreentick.services.notification.service.scheduling.ScheduledDeliveryService;
+import com.aigreentick.services.notification.validator.EmailValidationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accepts a streamed bulk email submission one chunk at a time: every valid
+ * item of a chunk is recorded as PENDING in one bulk insert and queued with
+ * one pipelined call per lane. Items go one lane below their priority, like
+ * batch items.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailBulkSendService {
+
+    private final NdjsonBulkProcessor bulkProcessor;
+    private final EmailNotificationMapper emailNotificationMapper;
+    private final EmailValidationService validationService;
+    private final EmailDeliveryServiceImpl emailDeliveryService;
+    private final EmailDeliveryQueueHandler deliveryQueueHandler;
+    private final NotificationStatusWriter statusWriter;
+    private final ScheduledDeliveryService scheduledDeliveryService;
+    private final NotificationJobService jobService;
+
+    /**
+     * Job for one submission, started before its input is read so the caller
+     * can follow it from the first item
+     */
+    public String startJob() {
+        return jobService.start(NotificationChannel.EMAIL, "bulk").getId();
+    }
+
+    /**
+     * @param jobId from {@link #startJob()}
+     * @param in    NDJSON, one {@link EmailNotificationControllerRequest} per line
+     * @param out   receives one {@link BulkItemResult} line per item, then the summary
+     */
+    public BulkSendSummary sendBulk(String jobId, InputStream in, OutputStream out) throws IOException {
+        return bulkProcessor.process(jobId, in, out, EmailNotificationControllerRequest.class,
+                chunk -> acceptChunk(jobId, chunk));
+    }
+
+    /**
+     * Never throws for work already done: items scheduled or recorded before a
+     * failure keep their accepted result, and only those not yet handed over are
+     * rejected (and their records failed)
+     */
+    private List<BulkItemResult> acceptChunk(String jobId, List<BulkItem<EmailNotificationControllerRequest>> chunk) {
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<Integer> indexes = new ArrayList<>(chunk.size());
+        List<EmailNotificationRequest> requests = new ArrayList<>(chunk.size());
+        List<DeliveryLane> lanes = new ArrayList<>(chunk.size());
+        List<EmailNotification> notifications = new ArrayList<>(chunk.size());
+
+        for (BulkItem<EmailNotificationControllerRequest> item : chunk) {
+            try {
+                EmailNotificationRequest request = emailNotificationMapper.toEmailRequest(item.item(), null, null);
+                validationService.validateEmailRequest(request);
+                request.setJobId(jobId);
+
+                Instant scheduledAt = item.item().getScheduledAt();
+                scheduledDeliveryService.validateScheduledAt(scheduledAt);
+                DeliveryLane lane = DeliveryLane.of(request.getPriority()).demoted();
+
+                if (scheduledDeliveryService.isScheduled(scheduledAt)) {
+                    results.add(acceptScheduled(item.index(), request, lane, scheduledAt));
+                    continue;
+                }
+
+                indexes.add(item.index());
+                requests.add(request);
+                lanes.add(lane);
+                notifications.add(emailDeliveryService.buildPendingNotification(request));
+            } catch (IllegalArgumentException e) {
+                results.add(BulkItemResult.rejected(item.index(), e.getMessage()));
+            } catch (RuntimeException e) {
+                log.error("Bulk email item {} could not be accepted", item.index(), e);
+                results.add(BulkItemResult.rejected(item.index(), "Could not be accepted: " + e.getMessage()));
+            }
+        }
+
+        if (notifications.isEmpty()) {
+            return results;
+        }
+        try {
+            statusWriter.createAll(EmailNotification.class, notifications, NotificationStatus.PENDING);
+        } catch (RuntimeException e) {
+            log.error("Recording {} bulk email items failed", notifications.size(), e);
+            for (int i = 0; i < notifications.size(); i++) {
+                results.add(fail(indexes.get(i), notifications.get(i).getId(),
+                        "Could not be recorded: " + e.getMessage()));
+            }
+            return results;
+        }
+
+        Map<DeliveryLane, Map<String, EmailNotificationRequest>> byLane = new EnumMap<>(DeliveryLane.class);
+        Map<String, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            String notificationId = notifications.get(i).getId();
+            byLane.computeIfAbsent(lanes.get(i), lane -> new LinkedHashMap<>()).put(notificationId, requests.get(i));
+            indexById.put(notificationId, indexes.get(i));
+        }
+
+        int accepted = 0;
+        for (Map.Entry<DeliveryLane, Map<String, EmailNotificationRequest>> lane : byLane.entrySet()) {
+            Collection<String> notSubmitted;
+            String reason;
+            try {
+                notSubmitted = deliveryQueueHandler.submitAll(lane.getKey(), lane.getValue());
+                reason = "Could not be queued: delivery executor saturated";
+            } catch (RuntimeException e) {
+                log.error("Submitting {} bulk email items on lane {} failed", lane.getValue().size(), lane.getKey(), e);
+                notSubmitted = lane.getValue().keySet();
+                reason = "Could not be queued: " + e.getMessage();
+            }
+
+            for (String notificationId : lane.getValue().keySet()) {
+                if (notSubmitted.contains(notificationId)) {
+                    results.add(fail(indexById.get(notificationId), notificationId, reason));
+                } else {
+                    results.add(BulkItemResult.accepted(indexById.get(notificationId), notificationId,
+                            NotificationStatus.PENDING));
+                    accepted++;
+                }
+            }
+        }
+
+        log.debug("Accepted {} of {} bulk email items", accepted, chunk.size());
+        return results;
+    }
+
+    private BulkItemResult acceptScheduled(int index, EmailNotificationRequest request, DeliveryLane lane,
+            Instant scheduledAt) {
+        String notificationId = null;
+        try {
+            notificationId = emailDeliveryService.createScheduledNotification(request, scheduledAt).getId();
+            deliveryQueueHandler.schedule(request, notificationId, lane, scheduledAt);
+            return BulkItemResult.accepted(index, notificationId, NotificationStatus.SCHEDULED);
+        } catch (RuntimeException e) {
+            log.error("Scheduling bulk email item {} failed", index, e);
+            return fail(index, notificationId, "Could not be scheduled: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reject an item and fail its record, if one was made, so it is never delivered
+     */
+    private BulkItemResult fail(int index, String notificationId, String reason) {
+        if (notificationId != null) {
+            statusWriter.transition(EmailNotification.class, notificationId,
+                    StatusTransition.to(NotificationStatus.FAILED));
+        }
+        return BulkItemResult.rejected(index, reason);
+    }
+}
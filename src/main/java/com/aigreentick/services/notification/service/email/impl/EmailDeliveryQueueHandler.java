@@ -0,0 +1,122 @@
+package com.aigreentick.services.notification.service.email.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.dto.request.email.EmailNotificationRequest;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.model.entity.EmailNotification;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.queue.DeliveryQueue;
+import com.aigreentick.services.notification.service.queue.DeliveryQueueHandler;
+import com.aigreentick.services.notification.service.scheduling.ScheduledDeliveryService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands accepted emails to the delivery queue and delivers them as they come off it
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailDeliveryQueueHandler implements DeliveryQueueHandler<EmailNotificationRequest> {
+
+    public static final String CHANNEL = "email";
+
+    private final DeliveryQueue deliveryQueue;
+    private final EmailDeliveryServiceImpl emailDeliveryService;
+    private final EmailNotificationServiceImpl notificationService;
+    private final NotificationStatusWriter statusWriter;
+    private final ScheduledDeliveryService scheduledDeliveryService;
+
+    @PostConstruct
+    public void init() {
+        deliveryQueue.registerChannel(this);
+    }
+
+    /**
+     * Queue a notification created in PENDING status on the given lane. Falls back
+     * to the async executor when the queue is disabled or Redis is unavailable.
+     */
+    public void submit(EmailNotificationRequest request, String notificationId, DeliveryLane lane) {
+        if (deliveryQueue.isEnabled()) {
+            // The consumer may run on another instance; it must find the record in MongoDB
+            statusWriter.flush(EmailNotification.class, notificationId);
+            if (deliveryQueue.publish(CHANNEL, lane, notificationId, request)) {
+                return;
+            }
+        }
+        emailDeliveryService.deliverAsync(request, notificationId, lane);
+    }
+
+    /**
+     * Same as {@link #submit} for many notifications on one lane: their records
+     * are written in one bulk write and their entries in one pipelined call
+     *
+     * @param requests by notification id
+     * @return ids the executor would not take; nothing was started for them
+     */
+    public List<String> submitAll(DeliveryLane lane, Map<String, EmailNotificationRequest> requests) {
+        if (deliveryQueue.isEnabled()) {
+            statusWriter.flush(EmailNotification.class, requests.keySet());
+            if (deliveryQueue.publishAll(CHANNEL, lane, requests)) {
+                return List.of();
+            }
+        }
+        List<String> notSubmitted = new ArrayList<>();
+        requests.forEach((notificationId, request) -> {
+            try {
+                emailDeliveryService.deliverAsync(request, notificationId, lane);
+            } catch (RuntimeException e) {
+                log.warn("Could not submit notification {}: {}", notificationId, e.getMessage());
+                notSubmitted.add(notificationId);
+            }
+        });
+        return notSubmitted;
+    }
+
+    /**
+     * Hold a notification created in SCHEDULED status until {@code scheduledAt}
+     */
+    public void schedule(EmailNotificationRequest request, String notificationId, DeliveryLane lane,
+            Instant scheduledAt) {
+        scheduledDeliveryService.schedule(CHANNEL, lane, notificationId, request, scheduledAt);
+    }
+
+    @Override
+    public String getChannel() {
+        return CHANNEL;
+    }
+
+    @Override
+    public Class<EmailNotificationRequest> getPayloadType() {
+        return EmailNotificationRequest.class;
+    }
+
+    @Override
+    public Class<EmailNotification> getNotificationType() {
+        return EmailNotification.class;
+    }
+
+    @Override
+    public void handle(String notificationId, EmailNotificationRequest request, DeliveryLane lane) {
+        EmailNotification notification = statusWriter.overlay(EmailNotification.class, notificationId,
+                notificationService.findOptionalById(notificationId).orElse(null));
+        if (notification != null && notification.getStatus().isTerminal()) {
+            log.info("Skipping redelivered email {}, already {}", notificationId, notification.getStatus());
+            return;
+        }
+        emailDeliveryService.deliverQueued(request, notificationId, lane);
+    }
+
+    @Override
+    public void deadLetter(String notificationId, String reason) {
+        emailDeliveryService.markFailed(notificationId, reason);
+    }
+}
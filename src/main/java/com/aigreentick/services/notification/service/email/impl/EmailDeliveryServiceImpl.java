@@ -1,6 +1,8 @@
 package com.aigreentick.services.notification.service.email.impl;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.scheduling.annotation.Async;
@@ -10,15 +12,22 @@ import org.springframework.transaction.annotation.Transactional;
 import com.aigreentick.services.notification.config.properties.EmailProperties;
 import com.aigreentick.services.notification.dto.request.email.EmailNotificationRequest;
 import com.aigreentick.services.notification.enums.AuditEventType;
+import com.aigreentick.services.notification.enums.DeliveryLane;
 import com.aigreentick.services.notification.enums.NotificationStatus;
 import com.aigreentick.services.notification.enums.email.EmailProviderType;
 import com.aigreentick.services.notification.event.audit.AuditEvent;
 import com.aigreentick.services.notification.event.audit.AuditEventPublisher;
+import com.aigreentick.services.notification.exceptions.NotificationBackpressureException;
 import com.aigreentick.services.notification.exceptions.NotificationSendException;
 import com.aigreentick.services.notification.model.entity.EmailNotification;
 import com.aigreentick.services.notification.provider.email.EmailProviderStrategy;
 import com.aigreentick.services.notification.provider.selector.EmailProviderSelector;
 import com.aigreentick.services.notification.service.batch.BatchEmailNotificationWriter;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.batch.StatusTransition;
+import com.aigreentick.services.notification.service.concurrency.ProviderBulkheads;
+import com.aigreentick.services.notification.service.job.JobProgressTracker;
+import com.aigreentick.services.notification.service.pacing.SendPacer;
 
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +42,10 @@ public class EmailDeliveryServiceImpl {
     private final EmailNotificationServiceImpl emailNotificationService;
     private final EmailProperties emailProperties;
     private final BatchEmailNotificationWriter batchWriter;
+    private final NotificationStatusWriter statusWriter;
+    private final ProviderBulkheads providerBulkheads;
+    private final SendPacer sendPacer;
+    private final JobProgressTracker jobProgress;
     private final AuditEventPublisher auditPublisher;
 
     // ==================== SYNCHRONOUS DELIVERY ====================
@@ -59,32 +72,22 @@ public class EmailDeliveryServiceImpl {
      * 
      * @param request Email request
      * @param notificationId Pre-created notification ID
+     * @param lane Queue lane the send belongs to; decides whether it is paced
      */
     @Async("emailTaskExecutor")
     @Retry(name = "emailRetry", fallbackMethod = "deliverAsyncFallback")
-    public void deliverAsync(EmailNotificationRequest request, String notificationId) {
-        log.info("Starting async delivery for notification: {}", notificationId);
-        
-        long startTime = System.currentTimeMillis();
-
-        try {
-            updateNotificationStatus(notificationId, NotificationStatus.PROCESSING);
-
-            EmailProviderStrategy provider = providerSelector.selectProvider();
-            provider.send(request);
-
-            long processingTime = System.currentTimeMillis() - startTime;
-            updateNotificationSuccess(notificationId, provider.getProviderType(), processingTime);
-
-            log.info("Async email delivered successfully in {}ms for notification: {}", 
-                    processingTime, notificationId);
-             publishSuccessAudit(notificationId, request, processingTime);
+    public void deliverAsync(EmailNotificationRequest request, String notificationId, DeliveryLane lane) {
+        executeAsyncDelivery(request, notificationId, lane);
+    }
 
-        } catch (Exception e) {
-            log.error("Async email delivery failed for notification: {}", notificationId, e);
-            updateNotificationFailure(notificationId, e.getMessage());
-            throw new NotificationSendException("Async email delivery failed", e);
-        }
+    /**
+     * Same as {@link #deliverAsync} on the calling thread, for entries taken
+     * off the delivery queue. Returns normally once the notification reached
+     * a terminal status, including after the retry fallback marked it FAILED.
+     */
+    @Retry(name = "emailRetry", fallbackMethod = "deliverAsyncFallback")
+    public void deliverQueued(EmailNotificationRequest request, String notificationId, DeliveryLane lane) {
+        executeAsyncDelivery(request, notificationId, lane);
     }
 
     /**
@@ -92,48 +95,85 @@ public class EmailDeliveryServiceImpl {
      */
     @SuppressWarnings("unused")
     private void deliverAsyncFallback(EmailNotificationRequest request, String notificationId, 
-            Exception ex) {
+            DeliveryLane lane, Exception ex) {
         log.error("Async delivery fallback triggered for notification: {}. Error: {}", 
                 notificationId, ex.getMessage());
         
         updateNotificationFailure(notificationId, 
                 "All retry attempts failed: " + ex.getMessage());
+        jobProgress.recordFailed(request.getJobId());
+    }
+
+    /**
+     * Fail a notification that will not be delivered, e.g. a dead-lettered queue entry
+     */
+    public void markFailed(String notificationId, String reason) {
+        log.error("Failing notification {}: {}", notificationId, reason);
+        // The queue payload may be unreadable here, so the job id comes from the record
+        EmailNotification notification = statusWriter.overlay(EmailNotification.class, notificationId,
+                emailNotificationService.findOptionalById(notificationId).orElse(null));
+        updateNotificationFailure(notificationId, reason);
+        if (notification != null && !notification.getStatus().isTerminal()) {
+            jobProgress.recordFailed(notification.getJobId());
+        }
     }
 
     // ==================== NOTIFICATION MANAGEMENT ====================
  
     /**
      * Create notification record in PENDING status
-     * Called before async processing
+     * Called before async processing; the insert is coalesced with the
+     * transitions that follow it
      */
     public EmailNotification createPendingNotification(EmailNotificationRequest request) {
-        EmailNotification notification = EmailNotification.builder()
+        EmailNotification notification = buildNotification(request, NotificationStatus.PENDING);
+
+        notification = statusWriter.create(EmailNotification.class, notification, NotificationStatus.PENDING);
+        log.info("Created PENDING notification: {}", notification.getId());
+        
+        return notification;
+    }
+
+    /**
+     * Create notification record in SCHEDULED status, held until {@code scheduledAt}
+     */
+    public EmailNotification createScheduledNotification(EmailNotificationRequest request, Instant scheduledAt) {
+        EmailNotification notification = buildNotification(request, NotificationStatus.SCHEDULED);
+        notification.setScheduledAt(scheduledAt);
+
+        notification = statusWriter.create(EmailNotification.class, notification, NotificationStatus.SCHEDULED);
+        log.info("Created SCHEDULED notification {} due at {}", notification.getId(), scheduledAt);
+        
+        return notification;
+    }
+
+    /**
+     * Unsaved PENDING record, for callers that create many at once
+     */
+    public EmailNotification buildPendingNotification(EmailNotificationRequest request) {
+        return buildNotification(request, NotificationStatus.PENDING);
+    }
+
+    private EmailNotification buildNotification(EmailNotificationRequest request, NotificationStatus status) {
+        return EmailNotification.builder()
                 .to(request.getTo())
                 .from(emailProperties.getFromEmail())
                 .cc(request.getCc())
                 .bcc(request.getBcc())
                 .subject(request.getSubject())
                 .body(request.getBody())
-                .status(NotificationStatus.PENDING)
+                .status(status)
                 .retryCount(0)
+                .jobId(request.getJobId())
                 .createdAt(Instant.now())
                 .build();
-
-        notification = emailNotificationService.save(notification);
-        log.info("Created PENDING notification: {}", notification.getId());
-        
-        return notification;
     }
 
     /**
      * Update notification status
      */
     private void updateNotificationStatus(String notificationId, NotificationStatus status) {
-        emailNotificationService.findOptionalById(notificationId).ifPresent(notification -> {
-            notification.setStatus(status);
-            notification.setUpdatedAt(Instant.now());
-            emailNotificationService.save(notification);
-        });
+        statusWriter.transition(EmailNotification.class, notificationId, StatusTransition.to(status));
     }
 
     /**
@@ -142,31 +182,63 @@ public class EmailDeliveryServiceImpl {
     private void updateNotificationSuccess(String notificationId, 
             EmailProviderType providerType, long processingTimeMs) {
         
-        emailNotificationService.findOptionalById(notificationId).ifPresent(notification -> {
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setProviderType(providerType);
-            notification.setUpdatedAt(Instant.now());
-            emailNotificationService.save(notification);
-        });
+        statusWriter.transition(EmailNotification.class, notificationId,
+                StatusTransition.to(NotificationStatus.SENT)
+                        .set("providerType", providerType));
     }
 
     /**
      * Update notification on failure
      */
     private void updateNotificationFailure(String notificationId, String errorMessage) {
-        emailNotificationService.findOptionalById(notificationId).ifPresent(notification -> {
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setUpdatedAt(Instant.now());
-            
-            Integer retryCount = notification.getRetryCount();
-            notification.setRetryCount(retryCount != null ? retryCount + 1 : 1);
-            
-            emailNotificationService.save(notification);
-        });
+        statusWriter.transition(EmailNotification.class, notificationId,
+                StatusTransition.to(NotificationStatus.FAILED)
+                        .inc("retryCount", 1));
+    }
+
+    /**
+     * Update notification after a failed attempt that may still be retried
+     */
+    private void updateNotificationRetrying(String notificationId) {
+        statusWriter.transition(EmailNotification.class, notificationId,
+                StatusTransition.to(NotificationStatus.RETRYING)
+                        .inc("retryCount", 1));
     }
 
     // ==================== PRIVATE HELPERS ====================
 
+    private void executeAsyncDelivery(EmailNotificationRequest request, String notificationId,
+            DeliveryLane lane) {
+        log.info("Starting async delivery for notification: {}", notificationId);
+        
+        long startTime = System.currentTimeMillis();
+
+        try {
+            EmailProviderStrategy provider = providerSelector.selectProvider();
+            if (sendPacer.isPaced(lane)) {
+                // Stays PENDING while waiting for its turn
+                sendPacer.pace(provider.getChannel(), provider.getProviderType(), recipientsOf(request), 1);
+            }
+
+            updateNotificationStatus(notificationId, NotificationStatus.PROCESSING);
+            providerBulkheads.run(provider.getChannel(), provider.getProviderType(), () -> provider.send(request));
+
+            long processingTime = System.currentTimeMillis() - startTime;
+            updateNotificationSuccess(notificationId, provider.getProviderType(), processingTime);
+            jobProgress.recordSent(request.getJobId());
+
+            log.info("Async email delivered successfully in {}ms for notification: {}", 
+                    processingTime, notificationId);
+             publishSuccessAudit(notificationId, request, processingTime);
+
+        } catch (Exception e) {
+            log.error("Async email delivery failed for notification: {}", notificationId, e);
+            // FAILED is left to the retry fallback, once no attempt is left
+            updateNotificationRetrying(notificationId);
+            throw new NotificationSendException("Async email delivery failed", e);
+        }
+    }
+
     /**
      * Execute delivery (used by synchronous flow)
      */
@@ -187,8 +259,11 @@ public class EmailDeliveryServiceImpl {
             notification = createNotificationRecord(request, provider.getProviderType());
         }
 
+        // Refuse before sending if the record could not be persisted afterwards
+        batchWriter.ensureCapacity();
+
         try {
-            provider.send(request);
+            providerBulkheads.run(provider.getChannel(), provider.getProviderType(), () -> provider.send(request));
 
             notification.setStatus(NotificationStatus.SENT);
             notification.setUpdatedAt(Instant.now());
@@ -234,18 +309,22 @@ public class EmailDeliveryServiceImpl {
      */
     private EmailNotification persistNotificationAsync(EmailNotification notification) {
         try {
-            boolean enqueued = batchWriter.enqueue(notification);
-            
-            if (!enqueued) {
-                return emailNotificationService.save(notification);
-            }
-            
-            return notification;
-
-        } catch (Exception e) {
-            log.error("Error enqueueing notification, saving synchronously", e);
-            return emailNotificationService.save(notification);
+            batchWriter.enqueue(notification);
+        } catch (NotificationBackpressureException e) {
+            // Capacity was checked before sending; only a burst in between gets here
+            log.error("Batch writer rejected notification {} after delivery: {}",
+                    notification.getId(), e.getMessage());
         }
+        return notification;
+    }
+
+    /**
+     * Backpressure is not a delivery failure: surface it to the caller as-is
+     */
+    @SuppressWarnings("unused")
+    private EmailNotification deliverFallback(EmailNotificationRequest request,
+            NotificationBackpressureException ex) {
+        throw ex;
     }
 
     /**
@@ -291,4 +370,18 @@ public class EmailDeliveryServiceImpl {
             log.error("Failed to publish success audit event", e);
         }
     }
-}
\ No newline at end of file
+
+    private static List<String> recipientsOf(EmailNotificationRequest request) {
+        List<String> recipients = new ArrayList<>();
+        addAll(recipients, request.getTo());
+        addAll(recipients, request.getCc());
+        addAll(recipients, request.getBcc());
+        return recipients;
+    }
+
+    private static void addAll(List<String> recipients, List<String> addresses) {
+        if (addresses != null) {
+            recipients.addAll(addresses);
+        }
+    }
+}
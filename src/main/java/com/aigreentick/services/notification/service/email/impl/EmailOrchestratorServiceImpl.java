@@ -1,8 +1,9 @@
 package com.aigreentick.services.notification.service.email.impl;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,10 +13,15 @@ import com.aigreentick.services.notification.dto.request.email.EmailNotification
 import com.aigreentick.services.notification.dto.request.email.SendTemplatedEmailRequest;
 import com.aigreentick.services.notification.dto.response.AsyncEmailResponse;
 import com.aigreentick.services.notification.dto.response.EmailNotificationResponse;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.enums.NotificationChannel;
 import com.aigreentick.services.notification.enums.NotificationStatus;
 import com.aigreentick.services.notification.exceptions.EmailTemplateNotFoundException;
 import com.aigreentick.services.notification.mapper.EmailNotificationMapper;
 import com.aigreentick.services.notification.model.entity.EmailNotification;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
+import com.aigreentick.services.notification.service.scheduling.ScheduledDeliveryService;
 import com.aigreentick.services.notification.validator.EmailValidationService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,10 +33,14 @@ import lombok.extern.slf4j.Slf4j;
 public class EmailOrchestratorServiceImpl {
 
         private final EmailDeliveryServiceImpl emailDeliveryService;
+        private final EmailDeliveryQueueHandler deliveryQueueHandler;
         private final EmailTemplateProcessorService templateProcessor;
         private final EmailValidationService validationService;
         private final EmailNotificationMapper emailNotificationMapper;
         private final EmailNotificationServiceImpl notificationService;
+        private final NotificationStatusWriter statusWriter;
+        private final ScheduledDeliveryService scheduledDeliveryService;
+        private final NotificationJobService jobService;
 
         // ==================== SYNCHRONOUS Email Sending ====================
 
@@ -61,14 +71,28 @@ public class EmailOrchestratorServiceImpl {
          * 
          * Flow:
          * 1. Validate request
-         * 2. Create notification record in PENDING status
-         * 3. Submit to async processor
+         * 2. Create notification record in PENDING status, or SCHEDULED when
+         *    scheduledAt is in the future
+         * 3. Submit to the delivery queue, or hand to the scheduler
          * 4. Return notification ID immediately
          */
         public AsyncEmailResponse sendEmailAsync(
                         EmailNotificationControllerRequest request,
                         List<MultipartFile> attachmentFiles,
                         List<MultipartFile> inlineResources) {
+                return acceptEmail(request, attachmentFiles, inlineResources, null);
+        }
+
+        /**
+         * @param jobId job of the batch the item belongs to, or null for a single
+         *              send. Items of a batch go one lane below their priority, so a
+         *              campaign never competes with single transactional sends
+         */
+        private AsyncEmailResponse acceptEmail(
+                        EmailNotificationControllerRequest request,
+                        List<MultipartFile> attachmentFiles,
+                        List<MultipartFile> inlineResources,
+                        String jobId) {
 
                 log.info("Orchestrating ASYNC email send to: {}", request.getTo());
 
@@ -77,14 +101,51 @@ public class EmailOrchestratorServiceImpl {
 
                 validationService.validateEmailRequest(emailRequest);
 
-                EmailNotification notification = emailDeliveryService.createPendingNotification(emailRequest);
+                if (jobId == null) {
+                        return accept(emailRequest, DeliveryLane.of(emailRequest.getPriority()),
+                                        request.getScheduledAt(), "Email accepted for processing");
+                }
+
+                emailRequest.setJobId(jobId);
+                AsyncEmailResponse response = accept(emailRequest,
+                                DeliveryLane.of(emailRequest.getPriority()).demoted(),
+                                request.getScheduledAt(), "Email accepted for processing");
+                response.setJobId(jobId);
+                response.setJobStatusUrl(NotificationJobService.statusCheckUrl(jobId));
+                return response;
+        }
 
-                emailDeliveryService.deliverAsync(emailRequest, notification.getId());
+        /**
+         * Create the notification record and either queue it now or hold it
+         * with the scheduler until {@code scheduledAt}
+         */
+        private AsyncEmailResponse accept(EmailNotificationRequest emailRequest, DeliveryLane lane,
+                        Instant scheduledAt, String acceptedMessage) {
+
+                scheduledDeliveryService.validateScheduledAt(scheduledAt);
+
+                if (scheduledDeliveryService.isScheduled(scheduledAt)) {
+                        EmailNotification notification = emailDeliveryService
+                                        .createScheduledNotification(emailRequest, scheduledAt);
+                        deliveryQueueHandler.schedule(emailRequest, notification.getId(), lane, scheduledAt);
+
+                        return AsyncEmailResponse.builder()
+                                        .notificationId(notification.getId())
+                                        .status(NotificationStatus.SCHEDULED)
+                                        .message("Email scheduled for delivery")
+                                        .acceptedAt(Instant.now())
+                                        .scheduledAt(scheduledAt)
+                                        .statusCheckUrl("/api/v1/notification/email/status/" + notification.getId())
+                                        .build();
+                }
+
+                EmailNotification notification = emailDeliveryService.createPendingNotification(emailRequest);
+                deliveryQueueHandler.submit(emailRequest, notification.getId(), lane);
 
                 return AsyncEmailResponse.builder()
                                 .notificationId(notification.getId())
                                 .status(NotificationStatus.PENDING)
-                                .message("Email accepted for processing")
+                                .message(acceptedMessage)
                                 .acceptedAt(Instant.now())
                                 .estimatedProcessingTimeSeconds(5)
                                 .statusCheckUrl("/api/v1/notification/email/status/" + notification.getId())
@@ -117,26 +178,15 @@ public class EmailOrchestratorServiceImpl {
                 EmailNotificationRequest processedRequest = processTemplate(request);
                 validationService.validateEmailRequest(processedRequest);
 
-                // Create notification record in PENDING status
-                EmailNotification notification = emailDeliveryService.createPendingNotification(processedRequest);
-
-                // Submit for async processing
-                emailDeliveryService.deliverAsync(processedRequest, notification.getId());
-
-                return AsyncEmailResponse.builder()
-                                .notificationId(notification.getId())
-                                .status(NotificationStatus.PENDING)
-                                .message("Templated email accepted for processing")
-                                .acceptedAt(Instant.now())
-                                .estimatedProcessingTimeSeconds(5)
-                                .statusCheckUrl("/api/v1/notification/email/status/" + notification.getId())
-                                .build();
+                return accept(processedRequest, DeliveryLane.of(processedRequest.getPriority()),
+                                request.getScheduledAt(), "Templated email accepted for processing");
         }
 
         // ==================== BATCH Email Sending ====================
 
         /**
-         * Send batch of emails asynchronously
+         * Send batch of emails asynchronously. The batch is tracked as one job,
+         * so its progress is read from the job rather than from every item.
          * 
          * @param inlineResources
          * @param attachmentFiles
@@ -148,9 +198,18 @@ public class EmailOrchestratorServiceImpl {
 
                 log.info("Orchestrating ASYNC batch email send for {} emails", requests.size());
 
-                return requests.stream()
-                                .map(request -> sendEmailAsync(request, attachmentFiles, inlineResources))
-                                .collect(Collectors.toList());
+                String jobId = jobService.start(NotificationChannel.EMAIL, "batch").getId();
+                List<AsyncEmailResponse> responses = new ArrayList<>(requests.size());
+                try {
+                        for (EmailNotificationControllerRequest request : requests) {
+                                responses.add(acceptEmail(request, attachmentFiles, inlineResources, jobId));
+                        }
+                } finally {
+                        // An invalid item fails the call; the job still covers the items accepted before it
+                        jobService.recordAccepted(jobId, responses.size(), 0);
+                        jobService.close(jobId);
+                }
+                return responses;
         }
 
         // ==================== STATUS CHECKING ====================
@@ -161,7 +220,10 @@ public class EmailOrchestratorServiceImpl {
         public EmailNotificationResponse getEmailStatus(String notificationId) {
                 log.debug("Fetching status for notification: {}", notificationId);
 
-                EmailNotification notification = notificationService.findOptionalById(notificationId)
+                // Include writes still buffered by the status writer
+                EmailNotification notification = Optional.ofNullable(statusWriter.overlay(
+                                EmailNotification.class, notificationId,
+                                notificationService.findOptionalById(notificationId).orElse(null)))
                                 .orElseThrow(() -> new EmailTemplateNotFoundException(
                                                 "Notification not found: " + notificationId));
 
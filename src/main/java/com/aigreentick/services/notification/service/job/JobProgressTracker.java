@@ -0,0 +1,125 @@
+package com.aigreentick.services.notification.service.job;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.model.entity.NotificationJob;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts delivery outcomes per job in memory and adds them to the jobs in
+ * one bulk {@code $inc} per flush, so a campaign of millions of sends costs
+ * a few writes a second rather than one per notification. Outcomes counted
+ * since the last flush are lost if the instance dies; the notifications keep
+ * their true status, and {@link NotificationJobService#reconcileStaleJobs()}
+ * recounts jobs from them once they stop moving.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobProgressTracker {
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationJobService jobService;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Delta> pending = new ConcurrentHashMap<>();
+
+    private record Delta(long sent, long failed) {
+
+        static final Delta SENT = new Delta(1, 0);
+        static final Delta FAILED = new Delta(0, 1);
+
+        Delta plus(Delta other) {
+            return new Delta(sent + other.sent, failed + other.failed);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("notification.jobs.progress.pending", pending, Map::size)
+                .description("Jobs with delivery outcomes not yet written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param jobId job of the notification, or null when it belongs to none
+     */
+    public void recordSent(String jobId) {
+        record(jobId, Delta.SENT);
+    }
+
+    /**
+     * @param jobId job of the notification, or null when it belongs to none
+     */
+    public void recordFailed(String jobId) {
+        record(jobId, Delta.FAILED);
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.jobs.progress-flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // remove() is atomic against merge(), so no outcome is counted twice or lost
+        Map<String, Delta> batch = new HashMap<>();
+        for (String jobId : new ArrayList<>(pending.keySet())) {
+            Delta delta = pending.remove(jobId);
+            if (delta != null) {
+                batch.put(jobId, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationJob.class);
+            Instant now = Instant.now();
+            batch.forEach((jobId, delta) -> bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(jobId)),
+                    new Update()
+                            .inc("sent", delta.sent())
+                            .inc("failed", delta.failed())
+                            .set("updatedAt", now)));
+            bulk.execute();
+
+            jobService.completeIfDone(List.copyOf(batch.keySet()));
+            log.debug("Flushed delivery progress of {} jobs", batch.size());
+        } catch (Exception e) {
+            // Keep them and try again on the next tick
+            log.error("Failed to flush delivery progress of {} jobs: {}", batch.size(), e.getMessage());
+            batch.forEach(this::record);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void record(String jobId, Delta delta) {
+        if (jobId != null) {
+            pending.merge(jobId, delta, Delta::plus);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.aigreentick.services.notification.service.job;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.notification.config.properties.NotificationJobProperties;
+import com.aigreentick.services.notification.dto.response.NotificationJobResponse;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.enums.NotificationJobStatus;
+import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.aigreentick.services.notification.model.entity.EmailNotification;
+import com.aigreentick.services.notification.model.entity.NotificationJob;
+import com.aigreentick.services.notification.model.entity.PushNotification;
+import com.aigreentick.services.notification.repository.NotificationJobRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates batch and bulk send jobs and reports their aggregated progress.
+ * Delivery outcomes reach the job through {@link JobProgressTracker}; running
+ * jobs that stop moving are recounted from their notifications.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationJobService {
+
+    private static final String JOBS_URL = "/api/v1/notification/jobs/";
+
+    private static final List<NotificationStatus> TERMINAL_STATUSES = Arrays.stream(NotificationStatus.values())
+            .filter(NotificationStatus::isTerminal)
+            .toList();
+
+    /** Terminal statuses reached after the provider accepted the send */
+    private static final Set<NotificationStatus> SENT_STATUSES = Set.of(
+            NotificationStatus.SENT,
+            NotificationStatus.DELIVERED,
+            NotificationStatus.BOUNCED,
+            NotificationStatus.SPAM_COMPLAINT);
+
+    private final NotificationJobRepository jobRepository;
+    private final MongoTemplate mongoTemplate;
+    private final NotificationJobProperties properties;
+
+    /**
+     * @param source endpoint the items come in through, e.g. batch or bulk
+     */
+    public NotificationJob start(NotificationChannel channel, String source) {
+        NotificationJob job = jobRepository.save(NotificationJob.builder()
+                .channel(channel)
+                .source(source)
+                .status(NotificationJobStatus.ACCEPTING)
+                .createdAt(Instant.now())
+                .build());
+
+        log.info("Started {} {} job {}", channel, source, job.getId());
+        return job;
+    }
+
+    /**
+     * Add the outcome of accepting one chunk of items
+     */
+    public void recordAccepted(String jobId, int accepted, int rejected) {
+        if (accepted == 0 && rejected == 0) {
+            return;
+        }
+        mongoTemplate.updateFirst(byId(jobId),
+                new Update()
+                        .inc("accepted", accepted)
+                        .inc("rejected", rejected)
+                        .set("updatedAt", Instant.now()),
+                NotificationJob.class);
+    }
+
+    /**
+     * No more items will be accepted; the job completes once every accepted
+     * item was sent or failed, which may already be the case
+     */
+    public void close(String jobId) {
+        Instant now = Instant.now();
+        Query accepting = byId(jobId).addCriteria(Criteria.where("status").is(NotificationJobStatus.ACCEPTING));
+        mongoTemplate.updateFirst(accepting,
+                new Update()
+                        .set("status", NotificationJobStatus.RUNNING)
+                        .set("closedAt", now)
+                        .set("updatedAt", now),
+                NotificationJob.class);
+        completeIfDone(List.of(jobId));
+    }
+
+    /**
+     * Mark the given running jobs COMPLETED where sent plus failed has reached accepted
+     */
+    public void completeIfDone(Collection<String> jobIds) {
+        Criteria done = Criteria.expr(ComparisonOperators.Gte
+                .valueOf(ArithmeticOperators.Add.valueOf("sent").add("failed"))
+                .greaterThanEqualTo("accepted"));
+        Instant now = Instant.now();
+
+        long completed = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(jobIds)
+                        .and("status").is(NotificationJobStatus.RUNNING)
+                        .andOperator(done)),
+                new Update()
+                        .set("status", NotificationJobStatus.COMPLETED)
+                        .set("completedAt", now)
+                        .set("updatedAt", now),
+                NotificationJob.class).getModifiedCount();
+        if (completed > 0) {
+            log.info("Completed {} notification jobs", completed);
+        }
+    }
+
+    /**
+     * Outcomes counted in memory are lost when an instance dies before its
+     * flush, which would leave the job RUNNING for good. Jobs whose progress
+     * has not moved for a while get sent and failed recounted from the
+     * terminal statuses of their notifications; counts only ever go up.
+     */
+    @Scheduled(fixedDelayString = "${delivery.jobs.reconcile-interval-ms:60000}")
+    public void reconcileStaleJobs() {
+        Instant staleBefore = Instant.now().minusMillis(properties.getReconcileAfterMs());
+        List<NotificationJob> stale = mongoTemplate.find(
+                Query.query(Criteria.where("status").is(NotificationJobStatus.RUNNING)
+                        .and("updatedAt").lt(staleBefore)),
+                NotificationJob.class);
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        List<String> jobIds = stale.stream().map(NotificationJob::getId).toList();
+        for (NotificationJob job : stale) {
+            try {
+                reconcile(job);
+            } catch (Exception e) {
+                log.error("Failed to reconcile notification job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+        completeIfDone(jobIds);
+        log.info("Reconciled {} stale notification jobs", stale.size());
+    }
+
+    public NotificationJobResponse getJob(String jobId) {
+        return jobRepository.findById(jobId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new IllegalArgumentException("Notification job not found: " + jobId));
+    }
+
+    public static String statusCheckUrl(String jobId) {
+        return JOBS_URL + jobId;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void reconcile(NotificationJob job) {
+        Class<?> notificationType = job.getChannel() == NotificationChannel.PUSH
+                ? PushNotification.class
+                : EmailNotification.class;
+
+        Aggregation countByStatus = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("jobId").is(job.getId()).and("status").in(TERMINAL_STATUSES)),
+                Aggregation.group("status").count().as("count"));
+        long sent = 0;
+        long failed = 0;
+        for (Document row : mongoTemplate.aggregate(countByStatus, notificationType, Document.class)) {
+            long count = ((Number) row.get("count")).longValue();
+            if (SENT_STATUSES.contains(NotificationStatus.valueOf(row.getString("_id")))) {
+                sent += count;
+            } else {
+                failed += count;
+            }
+        }
+
+        mongoTemplate.updateFirst(
+                byId(job.getId()).addCriteria(Criteria.where("status").is(NotificationJobStatus.RUNNING)),
+                new Update()
+                        .max("sent", sent)
+                        .max("failed", failed)
+                        .set("updatedAt", Instant.now()),
+                NotificationJob.class);
+        if (sent > job.getSent() || failed > job.getFailed()) {
+            log.warn("Reconciled job {}: sent {} -> {}, failed {} -> {}",
+                    job.getId(), job.getSent(), sent, job.getFailed(), failed);
+        }
+    }
+
+    private NotificationJobResponse toResponse(NotificationJob job) {
+        return NotificationJobResponse.builder()
+                .jobId(job.getId())
+                .channel(job.getChannel())
+                .source(job.getSource())
+                .status(job.getStatus())
+                .accepted(job.getAccepted())
+                .rejected(job.getRejected())
+                .sent(job.getSent())
+                .failed(job.getFailed())
+                .pending(Math.max(0, job.getAccepted() - job.getSent() - job.getFailed()))
+                .createdAt(job.getCreatedAt())
+                .closedAt(job.getClosedAt())
+                .completedAt(job.getCompletedAt())
+                .statusCheckUrl(statusCheckUrl(job.getId()))
+                .eventsUrl(statusCheckUrl(job.getId()) + "/events")
+                .build();
+    }
+
+    private static Query byId(String jobId) {
+        return Query.query(Criteria.where("_id").is(jobId));
+    }
+}
@@ -0,0 +1,137 @@
+package com.aigreentick.services.notification.service.job;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.aigreentick.services.notification.config.properties.NotificationJobProperties;
+import com.aigreentick.services.notification.dto.response.NotificationJobResponse;
+import com.aigreentick.services.notification.enums.NotificationJobStatus;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-sent events of a job's progress. Each open stream re-reads its job
+ * every {@code delivery.jobs.stream-interval-ms}, sends a {@code progress}
+ * event when the counters changed and ends after the COMPLETED one: one
+ * read per interval per watcher, whatever the size of the job.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationJobStream {
+
+    private static final int POLLER_THREADS = 2;
+
+    private final NotificationJobService jobService;
+    private final NotificationJobProperties properties;
+
+    private ScheduledExecutorService poller;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threads = new AtomicInteger();
+        poller = Executors.newScheduledThreadPool(POLLER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "job-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the job does not exist
+     */
+    public SseEmitter open(String jobId) {
+        NotificationJobResponse current = jobService.getJob(jobId);
+
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeoutMs());
+        Watcher watcher = new Watcher(jobId, emitter);
+        emitter.onCompletion(watcher::stop);
+        emitter.onTimeout(watcher::stop);
+        emitter.onError(e -> watcher.stop());
+
+        watcher.send(current);
+        watcher.start(poller.scheduleWithFixedDelay(watcher::poll, properties.getStreamIntervalMs(),
+                properties.getStreamIntervalMs(), TimeUnit.MILLISECONDS));
+        log.debug("Opened progress stream of job {}", jobId);
+        return emitter;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private final class Watcher {
+
+        private final String jobId;
+        private final SseEmitter emitter;
+
+        private ScheduledFuture<?> future;
+        private boolean stopped;
+        private NotificationJobResponse last;
+
+        private Watcher(String jobId, SseEmitter emitter) {
+            this.jobId = jobId;
+            this.emitter = emitter;
+        }
+
+        private void poll() {
+            try {
+                NotificationJobResponse job = jobService.getJob(jobId);
+                if (!job.equals(last)) {
+                    send(job);
+                }
+            } catch (Exception e) {
+                log.warn("Progress stream of job {} failed: {}", jobId, e.getMessage());
+                emitter.completeWithError(e);
+                stop();
+            }
+        }
+
+        private void send(NotificationJobResponse job) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("progress")
+                        .id(String.valueOf(job.getSent() + job.getFailed()))
+                        .data(job));
+                last = job;
+                if (job.getStatus() == NotificationJobStatus.COMPLETED) {
+                    emitter.complete();
+                    stop();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                stop();
+            }
+        }
+
+        /**
+         * Stopping may race with the start, e.g. when the first event already completed the stream
+         */
+        private synchronized void start(ScheduledFuture<?> scheduled) {
+            future = scheduled;
+            if (stopped) {
+                future.cancel(false);
+            }
+        }
+
+        private synchronized void stop() {
+            stopped = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
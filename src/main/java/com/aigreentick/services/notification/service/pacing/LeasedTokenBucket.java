@@ -0,0 +1,72 @@
+package com.aigreentick.services.notification.service.pacing;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local token bucket filled in leases from a shared one.
+ *
+ * Most takes are served from tokens this instance already holds; only when
+ * they run out is the shared bucket asked for more, up to {@code leaseSize}
+ * at once. The shared bucket alone decides the rate, so it holds however many
+ * instances take from it. Tokens held but not spent are at most one lease, so
+ * an instance going idle can only add that much to a later burst.
+ */
+public final class LeasedTokenBucket {
+
+    /**
+     * The shared bucket
+     */
+    @FunctionalInterface
+    public interface LeaseSource {
+
+        /**
+         * @return between 0 and {@code wanted} tokens and, when fewer than
+         *         wanted, how long until the next one is available
+         */
+        Take lease(int wanted);
+    }
+
+    /**
+     * @param retryAfterMs 0 when every wanted token was taken
+     */
+    public record Take(int tokens, long retryAfterMs) {
+    }
+
+    private final LeaseSource source;
+    private final int leaseSize;
+    // Not synchronized: the lease call blocks on Redis and would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private int held;
+
+    public LeasedTokenBucket(LeaseSource source, int leaseSize) {
+        if (leaseSize < 1) {
+            throw new IllegalArgumentException("leaseSize must be >= 1");
+        }
+        this.source = source;
+        this.leaseSize = leaseSize;
+    }
+
+    /**
+     * Take up to {@code wanted} tokens without waiting
+     */
+    public Take take(int wanted) {
+        lock.lock();
+        try {
+            long retryAfterMs = 0;
+            if (held < wanted) {
+                Take lease = source.lease(Math.max(wanted - held, leaseSize));
+                held += lease.tokens();
+                retryAfterMs = lease.retryAfterMs();
+            }
+            int taken = Math.min(held, wanted);
+            held -= taken;
+            return new Take(taken, taken < wanted ? Math.max(1, retryAfterMs) : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getHeld() {
+        return held;
+    }
+}
@@ -0,0 +1,254 @@
+package com.aigreentick.services.notification.service.pacing;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.config.properties.PacingProperties;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.exceptions.NotificationSendException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Releases campaign sends at the configured rate of their provider and, for
+ * email, of each recipient domain ({@code delivery.pacing}).
+ *
+ * Every rate is a token bucket in Redis shared by all instances; each
+ * instance leases tokens from it in small batches (see {@link LeasedTokenBucket}),
+ * so a steady campaign costs one Redis call per lease rather than per send.
+ * The bucket is refilled on Redis' clock, so skew between instances does not
+ * change the rate. While Redis is unavailable each instance paces itself at
+ * the full rate on its own.
+ *
+ * A paced send waits for its tokens, parking a virtual thread; it never fails
+ * for lack of them. Sends on lanes that are not paced are not slowed down.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SendPacer {
+
+    /**
+     * Refill by elapsed time on Redis' clock, grant what is there up to
+     * ARGV[3], and report how long until the next token otherwise
+     */
+    private static final RedisScript<List> LEASE_SCRIPT = new DefaultRedisScript<>(
+            "local rate = tonumber(ARGV[1]) "
+                    + "local burst = tonumber(ARGV[2]) "
+                    + "local wanted = tonumber(ARGV[3]) "
+                    + "local time = redis.call('TIME') "
+                    + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+                    + "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') "
+                    + "local tokens = tonumber(state[1]) or burst "
+                    + "local ts = tonumber(state[2]) or now "
+                    + "tokens = math.min(burst, tokens + math.max(0, now - ts) * rate / 1000) "
+                    + "local granted = math.min(wanted, math.floor(tokens)) "
+                    + "tokens = tokens - granted "
+                    + "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) "
+                    + "redis.call('PEXPIRE', KEYS[1], math.ceil(burst * 1000 / rate) + 1000) "
+                    + "local wait = 0 "
+                    + "if granted < wanted then wait = math.ceil((1 - tokens) * 1000 / rate) end "
+                    + "return {granted, wait}",
+            List.class);
+
+    private final PacingProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /** Empty for targets without a configured rate */
+    private final Map<String, Optional<PacedBucket>> providerBuckets = new ConcurrentHashMap<>();
+    private Cache<String, Optional<PacedBucket>> domainBuckets;
+    private Counter redisFallbacks;
+
+    @PostConstruct
+    public void init() {
+        domainBuckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxDomainBuckets())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        redisFallbacks = Counter.builder("notification.pacing.local_fallbacks")
+                .description("Leases served by the local bucket because Redis was unavailable")
+                .register(meterRegistry);
+
+        log.info("Send pacing {} for lanes {}: providers={}, domains={}",
+                properties.isEnabled() ? "enabled" : "disabled", properties.getPacedLanes(),
+                properties.getProviders().keySet(), properties.getDomains().keySet());
+    }
+
+    public boolean isPaced(DeliveryLane lane) {
+        return properties.isEnabled() && lane != null && properties.getPacedLanes().contains(lane);
+    }
+
+    /**
+     * Wait until {@code sends} sends may go to {@code providerType} and one
+     * email may go to each distinct domain among {@code recipients}
+     *
+     * @param recipients email addresses, or null for channels without domains
+     * @throws NotificationSendException if interrupted while waiting
+     */
+    public void pace(NotificationChannel channel, Enum<?> providerType, Collection<String> recipients, int sends) {
+        if (!properties.isEnabled() || sends < 1) {
+            return;
+        }
+        // Domains first: they are the tighter limit, and provider tokens taken
+        // while waiting on a domain would go unused
+        for (String domain : domainsOf(recipients)) {
+            domainBucket(domain).ifPresent(bucket -> await(bucket, 1));
+        }
+        providerBucket(channel, providerType).ifPresent(bucket -> await(bucket, sends));
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void await(PacedBucket bucket, int tokens) {
+        long startNanos = System.nanoTime();
+        int remaining = tokens;
+        while (remaining > 0) {
+            LeasedTokenBucket.Take take = bucket.tokens.take(remaining);
+            remaining -= take.tokens();
+            if (remaining > 0) {
+                sleep(Math.min(take.retryAfterMs(), properties.getMaxWaitSliceMs()));
+            }
+        }
+        bucket.waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Optional<PacedBucket> providerBucket(NotificationChannel channel, Enum<?> providerType) {
+        return providerBuckets.computeIfAbsent(channel + ":" + providerType.name(), key ->
+                findRate(properties.getProviders(), providerType.name())
+                        .map(rate -> newBucket("provider:" + key, rate, channel.name(), "provider",
+                                providerType.name())));
+    }
+
+    private Optional<PacedBucket> domainBucket(String domain) {
+        return domainBuckets.get(domain, key -> {
+            Optional<PacingProperties.RateConfig> configured = findRate(properties.getDomains(), domain);
+            // Unlisted domains share one timer so the tag stays bounded
+            String domainTag = configured.isPresent() ? domain : "other";
+            return configured.or(() -> Optional.ofNullable(properties.getDefaultDomain()))
+                    .map(rate -> newBucket("domain:" + key, rate, NotificationChannel.EMAIL.name(), "domain",
+                            domainTag));
+        });
+    }
+
+    private static Optional<PacingProperties.RateConfig> findRate(Map<String, PacingProperties.RateConfig> rates,
+            String name) {
+        return rates.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(name))
+                .map(Map.Entry::getValue)
+                .findFirst();
+    }
+
+    private PacedBucket newBucket(String name, PacingProperties.RateConfig rate, String channel, String scope,
+            String target) {
+        String redisKey = properties.getKeyPrefix() + name;
+        LocalLeaseSource local = new LocalLeaseSource(rate.getRatePerSecond(), rate.effectiveBurst());
+        int leaseSize = Math.max(1, Math.min(properties.getMaxLeaseTokens(),
+                Math.min(rate.effectiveBurst(), rate.getRatePerSecond() / 20)));
+
+        LeasedTokenBucket tokens = new LeasedTokenBucket(
+                wanted -> leaseFromRedis(redisKey, rate, wanted, local), leaseSize);
+        Timer waitTimer = Timer.builder("notification.pacing.wait")
+                .description("Time paced sends waited for their tokens")
+                .tag("channel", channel)
+                .tag("scope", scope)
+                .tag("target", target)
+                .register(meterRegistry);
+
+        log.info("Pacing {} at {}/s (burst={}, lease={})", name, rate.getRatePerSecond(),
+                rate.effectiveBurst(), leaseSize);
+        return new PacedBucket(tokens, waitTimer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LeasedTokenBucket.Take leaseFromRedis(String redisKey, PacingProperties.RateConfig rate, int wanted,
+            LocalLeaseSource local) {
+        try {
+            List<Long> result = redisTemplate.execute(LEASE_SCRIPT, List.of(redisKey),
+                    String.valueOf(rate.getRatePerSecond()), String.valueOf(rate.effectiveBurst()),
+                    String.valueOf(wanted));
+            if (result != null && result.size() == 2) {
+                return new LeasedTokenBucket.Take(result.get(0).intValue(), result.get(1));
+            }
+        } catch (Exception e) {
+            log.warn("Pacing lease for {} failed, pacing locally: {}", redisKey, e.getMessage());
+        }
+        redisFallbacks.increment();
+        return local.lease(wanted);
+    }
+
+    private static Set<String> domainsOf(Collection<String> recipients) {
+        if (recipients == null || recipients.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> domains = new LinkedHashSet<>();
+        for (String recipient : recipients) {
+            int at = recipient != null ? recipient.lastIndexOf('@') : -1;
+            if (at >= 0 && at < recipient.length() - 1) {
+                domains.add(recipient.substring(at + 1).trim().toLowerCase());
+            }
+        }
+        return domains;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(Math.max(1, millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotificationSendException("Interrupted while waiting for send pacing", e);
+        }
+    }
+
+    private record PacedBucket(LeasedTokenBucket tokens, Timer waitTimer) {
+    }
+
+    /**
+     * Same algorithm as the Redis script on this instance's clock
+     */
+    private static final class LocalLeaseSource implements LeasedTokenBucket.LeaseSource {
+        private final int ratePerSecond;
+        private final int burst;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        private LocalLeaseSource(int ratePerSecond, int burst) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        // Only called under the lock of the owning LeasedTokenBucket
+        @Override
+        public LeasedTokenBucket.Take lease(int wanted) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * ratePerSecond / 1e9);
+            lastRefillNanos = now;
+
+            int granted = (int) Math.min(wanted, Math.floor(tokens));
+            tokens -= granted;
+            long retryAfterMs = granted < wanted ? (long) Math.ceil((1 - tokens) * 1000 / ratePerSecond) : 0;
+            return new LeasedTokenBucket.Take(granted, retryAfterMs);
+        }
+    }
+}
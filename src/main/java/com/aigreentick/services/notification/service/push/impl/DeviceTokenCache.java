@@ -0,0 +1,147 @@
+package com.aigreentick.services.notification.service.push.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.config.properties.PushProperties;
+import com.aigreentick.services.notification.model.entity.DeviceToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-node cache of active device tokens, by token value and by user id.
+ *
+ * Every write to a token evicts it here and publishes an invalidation on a
+ * Redis channel so the other nodes evict it too; the TTL bounds staleness
+ * if a message is lost. Cached tokens are shared and must not be modified.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceTokenCache {
+    
+    private final PushProperties pushProperties;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    private Cache<String, DeviceToken> byToken;
+    private Cache<String, List<DeviceToken>> byUser;
+    
+    @PostConstruct
+    public void init() {
+        PushProperties.TokenCacheConfig config = pushProperties.getTokenCache();
+        if (!config.isEnabled()) {
+            log.info("Device token cache disabled");
+            return;
+        }
+        
+        byToken = newCache(config);
+        byUser = newCache(config);
+        CaffeineCacheMetrics.monitor(meterRegistry, byToken, "deviceTokens.byToken");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUser, "deviceTokens.byUser");
+        
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(config.getInvalidationChannel()));
+        
+        log.info("Device token cache enabled (maxSize={}, ttl={}s, channel={})",
+                config.getMaxSize(), config.getTtlSeconds(), config.getInvalidationChannel());
+    }
+    
+    /**
+     * @param loader called on a miss; an empty result is not cached
+     */
+    public Optional<DeviceToken> getActiveToken(String tokenValue, Supplier<Optional<DeviceToken>> loader) {
+        if (byToken == null) {
+            return loader.get();
+        }
+        DeviceToken cached = byToken.getIfPresent(tokenValue);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<DeviceToken> loaded = loader.get();
+        loaded.ifPresent(deviceToken -> byToken.put(tokenValue, deviceToken));
+        return loaded;
+    }
+    
+    public List<DeviceToken> getActiveTokensForUser(String userId, Function<String, List<DeviceToken>> loader) {
+        if (byUser == null) {
+            return loader.apply(userId);
+        }
+        return byUser.get(userId, key -> List.copyOf(loader.apply(key)));
+    }
+    
+    /**
+     * Evict on this node and publish to the others
+     *
+     * @param userId owner of the token, or null if unknown
+     */
+    public void invalidate(String userId, String tokenValue) {
+        invalidateAll(userId != null ? List.of(userId) : List.of(),
+                tokenValue != null ? List.of(tokenValue) : List.of());
+    }
+    
+    /**
+     * Bulk variant of {@link #invalidate}: one message for the whole batch
+     */
+    public void invalidateAll(Collection<String> userIds, Collection<String> tokenValues) {
+        if (byToken == null || (userIds.isEmpty() && tokenValues.isEmpty())) {
+            return;
+        }
+        Invalidation invalidation = new Invalidation(
+                userIds.stream().filter(Objects::nonNull).toList(),
+                tokenValues.stream().filter(Objects::nonNull).toList());
+        evict(invalidation);
+        try {
+            redisTemplate.convertAndSend(pushProperties.getTokenCache().getInvalidationChannel(),
+                    objectMapper.writeValueAsString(invalidation));
+        } catch (Exception e) {
+            // Other nodes fall back to the TTL
+            log.warn("Failed to publish device token invalidation: {}", e.getMessage());
+        }
+    }
+    
+    private void onInvalidation(String payload) {
+        try {
+            evict(objectMapper.readValue(payload, Invalidation.class));
+        } catch (Exception e) {
+            log.warn("Ignoring malformed device token invalidation: {}", e.getMessage());
+        }
+    }
+    
+    private void evict(Invalidation invalidation) {
+        byToken.invalidateAll(invalidation.deviceTokens());
+        byUser.invalidateAll(invalidation.userIds());
+    }
+    
+    private static <V> Cache<String, V> newCache(PushProperties.TokenCacheConfig config) {
+        return Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+                .recordStats()
+                .build();
+    }
+    
+    record Invalidation(List<String> userIds, List<String> deviceTokens) {
+    }
+}
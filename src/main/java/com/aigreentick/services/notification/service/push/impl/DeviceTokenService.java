@@ -1,14 +1,31 @@
 package com.aigreentick.services.notification.service.push.impl;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.aigreentick.services.notification.config.properties.PushProperties;
+import com.aigreentick.services.notification.dto.request.push.BulkDeactivateTokensRequest;
+import com.aigreentick.services.notification.dto.request.push.BulkDeviceTokenRequest;
 import com.aigreentick.services.notification.dto.request.push.DeviceTokenRequest;
+import com.aigreentick.services.notification.dto.response.push.BulkDeviceTokenResponse;
 import com.aigreentick.services.notification.dto.response.push.DeviceTokenResponse;
+import com.aigreentick.services.notification.enums.push.DeviceTokenOutcome;
 import com.aigreentick.services.notification.exceptions.DeviceTokenNotFoundException;
 import com.aigreentick.services.notification.model.entity.DeviceToken;
 import com.aigreentick.services.notification.repository.DeviceTokenRepository;
@@ -22,6 +39,9 @@ import lombok.extern.slf4j.Slf4j;
 public class DeviceTokenService {
     
     private final DeviceTokenRepository deviceTokenRepository;
+    private final DeviceTokenCache tokenCache;
+    private final MongoTemplate mongoTemplate;
+    private final PushProperties pushProperties;
     
     @Transactional
     public DeviceTokenResponse registerToken(DeviceTokenRequest request) {
@@ -33,6 +53,8 @@ public class DeviceTokenService {
         
         if (deviceToken != null) {
             log.info("Updating existing device token: {}", deviceToken.getId());
+            // The token may be moving to another user
+            tokenCache.invalidate(deviceToken.getUserId(), deviceToken.getDeviceToken());
             updateExistingToken(deviceToken, request);
         } else {
             log.info("Creating new device token");
@@ -40,11 +62,187 @@ public class DeviceTokenService {
         }
         
         deviceToken = deviceTokenRepository.save(deviceToken);
+        tokenCache.invalidate(deviceToken.getUserId(), deviceToken.getDeviceToken());
         
         log.info("Device token registered successfully: {}", deviceToken.getId());
         return mapToResponse(deviceToken);
     }
     
+    // ==================== BULK ====================
+    
+    /**
+     * Upsert many tokens in one unordered bulk write keyed on the unique
+     * deviceToken index. Invalid items are rejected without failing the rest.
+     */
+    public BulkDeviceTokenResponse registerTokens(BulkDeviceTokenRequest request) {
+        List<DeviceTokenRequest> items = request.getTokens();
+        checkBulkSize(items.size());
+        log.info("Bulk registering {} device tokens", items.size());
+        
+        BulkDeviceTokenResponse.ItemResult[] results = new BulkDeviceTokenResponse.ItemResult[items.size()];
+        List<Integer> accepted = new ArrayList<>(items.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            DeviceTokenRequest item = items.get(i);
+            String error = validateBulkItem(item);
+            if (error == null && !seen.add(item.getDeviceToken())) {
+                error = "Duplicate device token in request";
+            }
+            if (error != null) {
+                results[i] = itemResult(item != null ? item.getDeviceToken() : null, DeviceTokenOutcome.REJECTED, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+        
+        if (!accepted.isEmpty()) {
+            Map<String, String> previousOwners = findOwners(accepted.stream()
+                    .map(index -> items.get(index).getDeviceToken())
+                    .toList());
+            
+            Instant now = Instant.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, DeviceToken.class);
+            for (int index : accepted) {
+                DeviceTokenRequest item = items.get(index);
+                bulk.upsert(Query.query(Criteria.where("deviceToken").is(item.getDeviceToken())),
+                        new Update()
+                                .set("userId", item.getUserId())
+                                .set("platform", item.getPlatform())
+                                .set("deviceModel", item.getDeviceModel())
+                                .set("osVersion", item.getOsVersion())
+                                .set("appVersion", item.getAppVersion())
+                                .set("language", item.getLanguage())
+                                .set("active", true)
+                                .set("updatedAt", now)
+                                .setOnInsert("createdAt", now));
+            }
+            
+            Set<Integer> upserted = new HashSet<>();
+            Map<Integer, String> errors = new HashMap<>();
+            try {
+                bulk.execute().getUpserts().forEach(upsert -> upserted.add(upsert.getIndex()));
+            } catch (BulkOperationException e) {
+                e.getResult().getUpserts().forEach(upsert -> upserted.add(upsert.getIndex()));
+                e.getErrors().forEach(error -> errors.put(error.getIndex(), error.getMessage()));
+            }
+            
+            Set<String> affectedUsers = new HashSet<>(previousOwners.values());
+            List<String> affectedTokens = new ArrayList<>(accepted.size());
+            for (int position = 0; position < accepted.size(); position++) {
+                DeviceTokenRequest item = items.get(accepted.get(position));
+                String error = errors.get(position);
+                if (error != null) {
+                    results[accepted.get(position)] = itemResult(item.getDeviceToken(), DeviceTokenOutcome.FAILED, error);
+                    continue;
+                }
+                results[accepted.get(position)] = itemResult(item.getDeviceToken(),
+                        upserted.contains(position) ? DeviceTokenOutcome.CREATED : DeviceTokenOutcome.UPDATED, null);
+                affectedUsers.add(item.getUserId());
+                affectedTokens.add(item.getDeviceToken());
+            }
+            tokenCache.invalidateAll(affectedUsers, affectedTokens);
+        }
+        
+        return summarize(results);
+    }
+    
+    /**
+     * Deactivate many tokens with one lookup and one multi-document update
+     */
+    public BulkDeviceTokenResponse deactivateTokens(BulkDeactivateTokensRequest request) {
+        List<String> tokens = request.getDeviceTokens();
+        checkBulkSize(tokens.size());
+        log.info("Bulk deactivating {} device tokens", tokens.size());
+        
+        Map<String, String> owners = findOwners(tokens.stream()
+                .filter(token -> token != null && !token.isBlank())
+                .distinct()
+                .toList());
+        
+        if (!owners.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("deviceToken").in(owners.keySet())),
+                    new Update()
+                            .set("active", false)
+                            .set("updatedAt", Instant.now()),
+                    DeviceToken.class);
+            tokenCache.invalidateAll(new HashSet<>(owners.values()), owners.keySet());
+        }
+        
+        BulkDeviceTokenResponse.ItemResult[] results = new BulkDeviceTokenResponse.ItemResult[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token == null || token.isBlank()) {
+                results[i] = itemResult(token, DeviceTokenOutcome.REJECTED, "Device token is required");
+            } else if (owners.containsKey(token)) {
+                results[i] = itemResult(token, DeviceTokenOutcome.DEACTIVATED, null);
+            } else {
+                results[i] = itemResult(token, DeviceTokenOutcome.NOT_FOUND, null);
+            }
+        }
+        return summarize(results);
+    }
+    
+    private void checkBulkSize(int size) {
+        int max = pushProperties.getValidation().getMaxBulkDeviceTokens();
+        if (size > max) {
+            throw new IllegalArgumentException("Bulk request exceeds maximum of " + max + " device tokens");
+        }
+    }
+    
+    private String validateBulkItem(DeviceTokenRequest item) {
+        if (item == null || item.getDeviceToken() == null || item.getDeviceToken().isBlank()) {
+            return "Device token is required";
+        }
+        if (item.getUserId() == null || item.getUserId().isBlank()) {
+            return "User ID is required";
+        }
+        if (item.getPlatform() == null) {
+            return "Platform is required";
+        }
+        return null;
+    }
+    
+    /**
+     * Current owner of each token that exists, in one projected query
+     */
+    private Map<String, String> findOwners(List<String> tokenValues) {
+        if (tokenValues.isEmpty()) {
+            return Map.of();
+        }
+        Query query = Query.query(Criteria.where("deviceToken").in(tokenValues));
+        query.fields().include("deviceToken", "userId");
+        
+        Map<String, String> owners = new HashMap<>();
+        mongoTemplate.find(query, DeviceToken.class)
+                .forEach(deviceToken -> owners.put(deviceToken.getDeviceToken(), deviceToken.getUserId()));
+        return owners;
+    }
+    
+    private static BulkDeviceTokenResponse.ItemResult itemResult(String deviceToken, DeviceTokenOutcome outcome,
+                                                                 String error) {
+        return BulkDeviceTokenResponse.ItemResult.builder()
+                .deviceToken(deviceToken)
+                .outcome(outcome)
+                .error(error)
+                .build();
+    }
+    
+    private static BulkDeviceTokenResponse summarize(BulkDeviceTokenResponse.ItemResult[] results) {
+        int failed = 0;
+        for (BulkDeviceTokenResponse.ItemResult result : results) {
+            if (result.getOutcome() == DeviceTokenOutcome.REJECTED
+                    || result.getOutcome() == DeviceTokenOutcome.FAILED) {
+                failed++;
+            }
+        }
+        return BulkDeviceTokenResponse.builder()
+                .total(results.length)
+                .succeeded(results.length - failed)
+                .failed(failed)
+                .results(List.of(results))
+                .build();
+    }
+    
     private void updateExistingToken(DeviceToken deviceToken, DeviceTokenRequest request) {
         deviceToken.setUserId(request.getUserId());
         deviceToken.setPlatform(request.getPlatform());
@@ -74,15 +272,21 @@ public class DeviceTokenService {
     public List<DeviceTokenResponse> getUserTokens(String userId) {
         log.debug("Fetching device tokens for user: {}", userId);
         
-        return deviceTokenRepository.findByUserIdAndActive(userId, true).stream()
+        return getActiveTokensForUser(userId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<DeviceToken> getActiveTokensForUser(String userId) {
+        return tokenCache.getActiveTokensForUser(userId,
+                key -> deviceTokenRepository.findByUserIdAndActive(key, true));
+    }
+    
     @Transactional(readOnly = true)
     public DeviceToken getActiveTokenByValue(String tokenValue) {
-        return deviceTokenRepository.findByDeviceToken(tokenValue)
-                .filter(DeviceToken::isActive)
+        return tokenCache.getActiveToken(tokenValue,
+                        () -> deviceTokenRepository.findByDeviceToken(tokenValue).filter(DeviceToken::isActive))
                 .orElseThrow(() -> new DeviceTokenNotFoundException(
                         "Active device token not found: " + tokenValue));
     }
@@ -98,6 +302,7 @@ public class DeviceTokenService {
         deviceToken.setActive(false);
         deviceToken.setUpdatedAt(Instant.now());
         deviceTokenRepository.save(deviceToken);
+        tokenCache.invalidate(deviceToken.getUserId(), tokenValue);
         
         log.info("Device token deactivated successfully");
     }
@@ -105,7 +310,11 @@ public class DeviceTokenService {
     @Transactional
     public void deleteToken(String tokenValue) {
         log.info("Deleting device token: {}", tokenValue);
+        String userId = deviceTokenRepository.findByDeviceToken(tokenValue)
+                .map(DeviceToken::getUserId)
+                .orElse(null);
         deviceTokenRepository.deleteByDeviceToken(tokenValue);
+        tokenCache.invalidate(userId, tokenValue);
     }
     
     private DeviceTokenResponse mapToResponse(DeviceToken deviceToken) {
@@ -0,0 +1,111 @@
+package com.aigreentick.services.notification.service.push.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.config.properties.PushProperties;
+import com.aigreentick.services.notification.dto.request.push.BulkDeactivateTokensRequest;
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects tokens that providers reported dead and deactivates them in
+ * batches off the delivery threads. Until its batch is flushed a queued
+ * token is already skipped by the fan-out, so it costs no further sends.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InvalidTokenPruner {
+    
+    private final DeviceTokenService deviceTokenService;
+    private final PushProperties pushProperties;
+    private final MeterRegistry meterRegistry;
+    
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    
+    private Counter prunedCounter;
+    private Counter droppedCounter;
+    
+    @PostConstruct
+    public void init() {
+        prunedCounter = Counter.builder("notification.push.tokens.pruned")
+                .description("Device tokens deactivated after a dead-token provider response")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("notification.push.tokens.prune.dropped")
+                .description("Dead tokens not queued because the pruning queue was full")
+                .register(meterRegistry);
+        Gauge.builder("notification.push.tokens.prune.pending", pending, Set::size)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Queue a token for deactivation; duplicates are ignored
+     */
+    public void enqueue(String deviceToken, PushErrorCode reason) {
+        if (pending.size() >= pushProperties.getPruning().getQueueCapacity()) {
+            droppedCounter.increment();
+            log.warn("Pruning queue full, dropping dead token ({})", reason);
+            return;
+        }
+        if (pending.add(deviceToken)) {
+            queue.offer(deviceToken);
+            log.debug("Queued dead device token for pruning ({})", reason);
+        }
+    }
+    
+    /**
+     * True while the token waits for deactivation
+     */
+    public boolean isPending(String deviceToken) {
+        return pending.contains(deviceToken);
+    }
+    
+    @Scheduled(fixedDelayString = "${push.pruning.flush-interval-ms:1000}")
+    public void flush() {
+        int batchSize = Math.min(pushProperties.getPruning().getMaxBatchSize(),
+                pushProperties.getValidation().getMaxBulkDeviceTokens());
+        
+        while (!queue.isEmpty()) {
+            List<String> batch = new ArrayList<>(batchSize);
+            String token;
+            while (batch.size() < batchSize && (token = queue.poll()) != null) {
+                batch.add(token);
+            }
+            
+            try {
+                deviceTokenService.deactivateTokens(BulkDeactivateTokensRequest.builder()
+                        .deviceTokens(batch)
+                        .build());
+                batch.forEach(pending::remove);
+                prunedCounter.increment(batch.size());
+                log.info("Pruned {} dead device tokens", batch.size());
+            } catch (Exception e) {
+                // Keep them pending and try again on the next tick
+                log.error("Failed to prune {} device tokens: {}", batch.size(), e.getMessage());
+                queue.addAll(batch);
+                return;
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,249 @@
+package com.aigreentick.services.notification.service.push.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.request.push.QueuedPushDelivery;
+import com.aigreentick.services.notification.dto.request.push.SendPushRequest;
+import com.aigreentick.services.notification.dto.response.BulkItemResult;
+import com.aigreentick.services.notification.dto.response.BulkSendSummary;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.aigreentick.services.notification.mapper.PushNotificationMapper;
+import com.aigreentick.services.notification.model.entity.DeviceToken;
+import com.aigreentick.services.notification.model.entity.PushNotification;
+import com.aigreentick.services.notification.repository.DeviceTokenRepository;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.batch.StatusTransition;
+import com.aigreentick.services.notification.service.bulk.NdjsonBulkProcessor;
+import com.aigreentick.services.notification.service.bulk.NdjsonBulkProcessor.BulkItem;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
+import com.aigreentick.services.notification.service.scheduling.ScheduledDeliveryService;
+import com.aigreentick.services.notification.validator.PushValidationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accepts a streamed bulk push submission one chunk at a time. Each item
+ * targets one device, by token or as the first active device of a user;
+ * the devices of a chunk are resolved in at most two queries, recorded as
+ * PENDING in one bulk insert and queued with one pipelined call per lane.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PushBulkSendService {
+
+    private final NdjsonBulkProcessor bulkProcessor;
+    private final PushNotificationMapper mapper;
+    private final PushValidationService validationService;
+    private final DeviceTokenRepository deviceTokenRepository;
+    private final PushDeliveryServiceImpl pushDeliveryService;
+    private final PushDeliveryQueueHandler deliveryQueueHandler;
+    private final NotificationStatusWriter statusWriter;
+    private final ScheduledDeliveryService scheduledDeliveryService;
+    private final NotificationJobService jobService;
+
+    /**
+     * Job for one submission, started before its input is read so the caller
+     * can follow it from the first item
+     */
+    public String startJob() {
+        return jobService.start(NotificationChannel.PUSH, "bulk").getId();
+    }
+
+    /**
+     * @param jobId from {@link #startJob()}
+     * @param in    NDJSON, one {@link SendPushRequest} per line
+     * @param out   receives one {@link BulkItemResult} line per item, then the summary
+     */
+    public BulkSendSummary sendBulk(String jobId, InputStream in, OutputStream out) throws IOException {
+        return bulkProcessor.process(jobId, in, out, SendPushRequest.class, chunk -> acceptChunk(jobId, chunk));
+    }
+
+    /**
+     * Never throws for work already done: items scheduled or recorded before a
+     * failure keep their accepted result, and only those not yet handed over are
+     * rejected (and their records failed)
+     */
+    private List<BulkItemResult> acceptChunk(String jobId, List<BulkItem<SendPushRequest>> chunk) {
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<BulkItem<SendPushRequest>> valid = new ArrayList<>(chunk.size());
+
+        for (BulkItem<SendPushRequest> item : chunk) {
+            try {
+                SendPushRequest request = item.item();
+                if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+                    throw new IllegalArgumentException("Bulk items target one device; use a segment send for userIds");
+                }
+                validationService.validateSendRequest(request);
+                scheduledDeliveryService.validateScheduledAt(request.getScheduledAt());
+                valid.add(item);
+            } catch (IllegalArgumentException e) {
+                results.add(BulkItemResult.rejected(item.index(), e.getMessage()));
+            }
+        }
+
+        Map<String, DeviceToken> byToken = new HashMap<>();
+        Map<String, DeviceToken> byUser = new HashMap<>();
+        try {
+            resolveDevices(valid, byToken, byUser);
+        } catch (RuntimeException e) {
+            log.error("Resolving devices for {} bulk push items failed", valid.size(), e);
+            valid.forEach(item -> results.add(
+                    BulkItemResult.rejected(item.index(), "Could not be accepted: " + e.getMessage())));
+            return results;
+        }
+
+        List<Integer> indexes = new ArrayList<>(valid.size());
+        List<QueuedPushDelivery> entries = new ArrayList<>(valid.size());
+        List<DeliveryLane> lanes = new ArrayList<>(valid.size());
+        List<PushNotification> notifications = new ArrayList<>(valid.size());
+
+        for (BulkItem<SendPushRequest> item : valid) {
+            SendPushRequest request = item.item();
+            DeviceToken deviceToken = request.getDeviceToken() != null
+                    ? byToken.get(request.getDeviceToken())
+                    : byUser.get(request.getUserId());
+            if (deviceToken == null) {
+                results.add(BulkItemResult.rejected(item.index(), "No active device token found"));
+                continue;
+            }
+
+            try {
+                PushNotificationRequest pushRequest = mapper.toPushRequest(request);
+                pushRequest.setJobId(jobId);
+                DeliveryLane lane = DeliveryLane.ofPushPriority(pushRequest.getPriority()).demoted();
+
+                if (scheduledDeliveryService.isScheduled(request.getScheduledAt())) {
+                    results.add(acceptScheduled(item.index(), pushRequest, deviceToken, lane,
+                            request.getScheduledAt()));
+                    continue;
+                }
+
+                indexes.add(item.index());
+                entries.add(PushDeliveryQueueHandler.toEntry(pushRequest, deviceToken));
+                lanes.add(lane);
+                notifications.add(pushDeliveryService.buildPendingNotification(pushRequest, deviceToken));
+            } catch (RuntimeException e) {
+                log.error("Bulk push item {} could not be accepted", item.index(), e);
+                results.add(BulkItemResult.rejected(item.index(), "Could not be accepted: " + e.getMessage()));
+            }
+        }
+
+        if (notifications.isEmpty()) {
+            return results;
+        }
+        try {
+            statusWriter.createAll(PushNotification.class, notifications, NotificationStatus.PENDING);
+        } catch (RuntimeException e) {
+            log.error("Recording {} bulk push items failed", notifications.size(), e);
+            for (int i = 0; i < notifications.size(); i++) {
+                results.add(fail(indexes.get(i), notifications.get(i).getId(),
+                        "Could not be recorded: " + e.getMessage()));
+            }
+            return results;
+        }
+
+        Map<DeliveryLane, Map<String, QueuedPushDelivery>> byLane = new EnumMap<>(DeliveryLane.class);
+        Map<String, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            String notificationId = notifications.get(i).getId();
+            byLane.computeIfAbsent(lanes.get(i), lane -> new LinkedHashMap<>()).put(notificationId, entries.get(i));
+            indexById.put(notificationId, indexes.get(i));
+        }
+
+        int accepted = 0;
+        for (Map.Entry<DeliveryLane, Map<String, QueuedPushDelivery>> lane : byLane.entrySet()) {
+            Collection<String> notSubmitted;
+            String reason;
+            try {
+                notSubmitted = deliveryQueueHandler.submitAll(lane.getKey(), lane.getValue());
+                reason = "Could not be queued: delivery executor saturated";
+            } catch (RuntimeException e) {
+                log.error("Submitting {} bulk push items on lane {} failed", lane.getValue().size(), lane.getKey(), e);
+                notSubmitted = lane.getValue().keySet();
+                reason = "Could not be queued: " + e.getMessage();
+            }
+
+            for (String notificationId : lane.getValue().keySet()) {
+                if (notSubmitted.contains(notificationId)) {
+                    results.add(fail(indexById.get(notificationId), notificationId, reason));
+                } else {
+                    results.add(BulkItemResult.accepted(indexById.get(notificationId), notificationId,
+                            NotificationStatus.PENDING));
+                    accepted++;
+                }
+            }
+        }
+
+        log.debug("Accepted {} of {} bulk push items", accepted, chunk.size());
+        return results;
+    }
+
+    private BulkItemResult acceptScheduled(int index, PushNotificationRequest pushRequest, DeviceToken deviceToken,
+                                           DeliveryLane lane, Instant scheduledAt) {
+        String notificationId = null;
+        try {
+            notificationId = pushDeliveryService.createScheduledNotification(pushRequest, deviceToken, scheduledAt)
+                    .getId();
+            deliveryQueueHandler.schedule(pushRequest, deviceToken, notificationId, lane, scheduledAt);
+            return BulkItemResult.accepted(index, notificationId, NotificationStatus.SCHEDULED);
+        } catch (RuntimeException e) {
+            log.error("Scheduling bulk push item {} failed", index, e);
+            return fail(index, notificationId, "Could not be scheduled: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reject an item and fail its record, if one was made, so it is never delivered
+     */
+    private BulkItemResult fail(int index, String notificationId, String reason) {
+        if (notificationId != null) {
+            statusWriter.transition(PushNotification.class, notificationId,
+                    StatusTransition.to(NotificationStatus.FAILED));
+        }
+        return BulkItemResult.rejected(index, reason);
+    }
+
+    /**
+     * One query for the items addressed by token and one for those addressed by user
+     */
+    private void resolveDevices(List<BulkItem<SendPushRequest>> items,
+                                Map<String, DeviceToken> byToken, Map<String, DeviceToken> byUser) {
+        Set<String> tokenValues = new LinkedHashSet<>();
+        Set<String> userIds = new LinkedHashSet<>();
+        for (BulkItem<SendPushRequest> item : items) {
+            if (item.item().getDeviceToken() != null) {
+                tokenValues.add(item.item().getDeviceToken());
+            } else {
+                userIds.add(item.item().getUserId());
+            }
+        }
+
+        if (!tokenValues.isEmpty()) {
+            deviceTokenRepository.findActiveDeliveryTargetsByToken(tokenValues)
+                    .forEach(deviceToken -> byToken.put(deviceToken.getDeviceToken(), deviceToken));
+        }
+        if (!userIds.isEmpty()) {
+            deviceTokenRepository.findActiveDeliveryTargets(userIds)
+                    .forEach(deviceToken -> byUser.putIfAbsent(deviceToken.getUserId(), deviceToken));
+        }
+    }
+}
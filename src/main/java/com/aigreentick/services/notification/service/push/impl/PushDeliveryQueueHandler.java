@@ -0,0 +1,146 @@
+package com.aigreentick.services.notification.service.push.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.request.push.QueuedPushDelivery;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.model.entity.DeviceToken;
+import com.aigreentick.services.notification.model.entity.PushNotification;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.queue.DeliveryQueue;
+import com.aigreentick.services.notification.service.queue.DeliveryQueueHandler;
+import com.aigreentick.services.notification.service.scheduling.ScheduledDeliveryService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands accepted push notifications to the delivery queue and delivers them as they come off it
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushDeliveryQueueHandler implements DeliveryQueueHandler<QueuedPushDelivery> {
+    
+    public static final String CHANNEL = "push";
+    
+    private final DeliveryQueue deliveryQueue;
+    private final PushDeliveryServiceImpl pushDeliveryService;
+    private final PushNotificationServiceImpl pushNotificationService;
+    private final NotificationStatusWriter statusWriter;
+    private final ScheduledDeliveryService scheduledDeliveryService;
+    
+    @PostConstruct
+    public void init() {
+        deliveryQueue.registerChannel(this);
+    }
+    
+    /**
+     * Queue a notification created in PENDING status on the given lane. Falls back
+     * to the async executor when the queue is disabled or Redis is unavailable.
+     */
+    public void submit(PushNotificationRequest request, DeviceToken deviceToken, String notificationId,
+                       DeliveryLane lane) {
+        if (deliveryQueue.isEnabled()) {
+            // The consumer may run on another instance; it must find the record in MongoDB
+            statusWriter.flush(PushNotification.class, notificationId);
+            if (deliveryQueue.publish(CHANNEL, lane, notificationId, toEntry(request, deviceToken))) {
+                return;
+            }
+        }
+        pushDeliveryService.deliverAsync(request, deviceToken, notificationId, lane);
+    }
+    
+    /**
+     * Same as {@link #submit} for many notifications on one lane: their records
+     * are written in one bulk write and their entries in one pipelined call
+     *
+     * @param entries by notification id
+     * @return ids the executor would not take; nothing was started for them
+     */
+    public List<String> submitAll(DeliveryLane lane, Map<String, QueuedPushDelivery> entries) {
+        if (deliveryQueue.isEnabled()) {
+            statusWriter.flush(PushNotification.class, entries.keySet());
+            if (deliveryQueue.publishAll(CHANNEL, lane, entries)) {
+                return List.of();
+            }
+        }
+        List<String> notSubmitted = new ArrayList<>();
+        entries.forEach((notificationId, entry) -> {
+            try {
+                pushDeliveryService.deliverAsync(entry.getRequest(), toDeviceToken(entry), notificationId, lane);
+            } catch (RuntimeException e) {
+                log.warn("Could not submit notification {}: {}", notificationId, e.getMessage());
+                notSubmitted.add(notificationId);
+            }
+        });
+        return notSubmitted;
+    }
+    
+    /**
+     * Hold a notification created in SCHEDULED status until {@code scheduledAt}
+     */
+    public void schedule(PushNotificationRequest request, DeviceToken deviceToken, String notificationId,
+                         DeliveryLane lane, Instant scheduledAt) {
+        scheduledDeliveryService.schedule(CHANNEL, lane, notificationId, toEntry(request, deviceToken), scheduledAt);
+    }
+    
+    @Override
+    public String getChannel() {
+        return CHANNEL;
+    }
+    
+    @Override
+    public Class<QueuedPushDelivery> getPayloadType() {
+        return QueuedPushDelivery.class;
+    }
+    
+    @Override
+    public Class<PushNotification> getNotificationType() {
+        return PushNotification.class;
+    }
+    
+    @Override
+    public void handle(String notificationId, QueuedPushDelivery entry, DeliveryLane lane) {
+        PushNotification notification = statusWriter.overlay(PushNotification.class, notificationId,
+                pushNotificationService.findOptionalById(notificationId).orElse(null));
+        if (notification != null && notification.getStatus().isTerminal()) {
+            log.info("Skipping redelivered push {}, already {}", notificationId, notification.getStatus());
+            return;
+        }
+        
+        pushDeliveryService.deliverQueued(entry.getRequest(), toDeviceToken(entry), notificationId, lane);
+    }
+    
+    @Override
+    public void deadLetter(String notificationId, String reason) {
+        pushDeliveryService.markFailed(notificationId, reason);
+    }
+    
+    static QueuedPushDelivery toEntry(PushNotificationRequest request, DeviceToken deviceToken) {
+        return QueuedPushDelivery.builder()
+                .request(request)
+                .deviceTokenId(deviceToken.getId())
+                .deviceToken(deviceToken.getDeviceToken())
+                .platform(deviceToken.getPlatform())
+                .userId(deviceToken.getUserId())
+                .build();
+    }
+    
+    private static DeviceToken toDeviceToken(QueuedPushDelivery entry) {
+        return DeviceToken.builder()
+                .id(entry.getDeviceTokenId())
+                .deviceToken(entry.getDeviceToken())
+                .platform(entry.getPlatform())
+                .userId(entry.getUserId())
+                .active(true)
+                .build();
+    }
+}
@@ -1,25 +1,41 @@
 package com.aigreentick.services.notification.service.push.impl;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.aigreentick.services.notification.config.properties.AsyncProperties;
 import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.response.push.PushSendResult;
 import com.aigreentick.services.notification.enums.AuditEventType;
+import com.aigreentick.services.notification.enums.DeliveryLane;
 import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
 import com.aigreentick.services.notification.event.audit.AuditEvent;
 import com.aigreentick.services.notification.event.audit.AuditEventPublisher;
+import com.aigreentick.services.notification.exceptions.NotificationBackpressureException;
 import com.aigreentick.services.notification.exceptions.PushNotificationException;
 import com.aigreentick.services.notification.model.entity.DeviceToken;
 import com.aigreentick.services.notification.model.entity.PushNotification;
 import com.aigreentick.services.notification.provider.push.PushProviderStrategy;
 import com.aigreentick.services.notification.provider.selector.PushProviderSelector;
 import com.aigreentick.services.notification.service.batch.BatchPushNotificationWriter;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.batch.StatusTransition;
+import com.aigreentick.services.notification.service.concurrency.ProviderBulkheads;
+import com.aigreentick.services.notification.service.job.JobProgressTracker;
+import com.aigreentick.services.notification.service.pacing.SendPacer;
 
 import io.github.resilience4j.retry.annotation.Retry;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,9 +46,21 @@ public class PushDeliveryServiceImpl {
     
     private final PushProviderSelector providerSelector;
     private final PushNotificationServiceImpl pushNotificationService;
-    private final DeviceTokenService deviceTokenService;
+    private final InvalidTokenPruner tokenPruner;
     private final BatchPushNotificationWriter batchWriter;
+    private final NotificationStatusWriter statusWriter;
+    private final ProviderBulkheads providerBulkheads;
+    private final SendPacer sendPacer;
+    private final JobProgressTracker jobProgress;
     private final AuditEventPublisher auditPublisher;
+    private final AsyncProperties asyncProperties;
+    
+    /** Completion callbacks of pipelined sends; token deactivation may block on MongoDB */
+    @Qualifier("pushFanOutExecutor")
+    private final Executor callbackExecutor;
+    
+    /** Pipelined sends whose status callback has not run yet */
+    private final AtomicInteger pendingCallbacks = new AtomicInteger();
     
     @Transactional
     @Retry(name = "emailRetry", fallbackMethod = "deliverFallback")
@@ -44,41 +72,86 @@ public class PushDeliveryServiceImpl {
     @Async("pushTaskExecutor")
     @Retry(name = "emailRetry", fallbackMethod = "deliverAsyncFallback")
     public void deliverAsync(PushNotificationRequest request, DeviceToken deviceToken, 
-                            String notificationId) {
-        log.info("Starting async push delivery for notification: {}", notificationId);
-        
-        long startTime = System.currentTimeMillis();
+                            String notificationId, DeliveryLane lane) {
+        executeAsyncDelivery(request, deviceToken, notificationId, lane);
+    }
+    
+    /**
+     * Same as {@link #deliverAsync} on the calling thread, for entries taken
+     * off the delivery queue. Returns normally once the notification reached
+     * a terminal status, including after the retry fallback marked it FAILED.
+     */
+    @Retry(name = "emailRetry", fallbackMethod = "deliverAsyncFallback")
+    public void deliverQueued(PushNotificationRequest request, DeviceToken deviceToken, 
+                             String notificationId, DeliveryLane lane) {
+        executeAsyncDelivery(request, deviceToken, notificationId, lane);
+    }
+    
+    /**
+     * Fail a notification that will not be delivered, e.g. a dead-lettered queue entry
+     */
+    public void markFailed(String notificationId, String reason) {
+        log.error("Failing push notification {}: {}", notificationId, reason);
+        // The queue payload may be unreadable here, so the job id comes from the record
+        PushNotification notification = statusWriter.overlay(PushNotification.class, notificationId,
+                pushNotificationService.findOptionalById(notificationId).orElse(null));
+        updateNotificationFailure(notificationId, reason);
+        if (notification != null && !notification.getStatus().isTerminal()) {
+            jobProgress.recordFailed(notification.getJobId());
+        }
+    }
+    
+    /**
+     * Deliver one message to devices that all go through the same provider,
+     * with records already created by the caller (see {@link PushFanOutService}).
+     * The provider's batch or pipelined path is used and every per-token
+     * result is mapped back to its own notification record. Runs on the calling
+     * thread and returns once the batch is sent, or for pipelined providers once
+     * every send is in flight.
+     *
+     * @param notificationIds pre-created notification ids, in the same order as deviceTokens
+     */
+    public void deliverProviderBatch(PushProviderStrategy provider, PushNotificationRequest request,
+                                     List<DeviceToken> deviceTokens, List<String> notificationIds) {
+        log.info("Starting {} batch push delivery to {} devices", provider.getProviderType(), deviceTokens.size());
         
-        try {
-            updateNotificationStatus(notificationId, NotificationStatus.PROCESSING);
-            
-            PushProviderStrategy provider = providerSelector.selectProviderByPlatform(deviceToken.getPlatform());
-            provider.send(request);
-            
-            long processingTime = System.currentTimeMillis() - startTime;
-            updateNotificationSuccess(notificationId, provider.getProviderType(), processingTime);
-            
-            log.info("Async push delivered successfully in {}ms for notification: {} via {}", 
-                    processingTime, notificationId, provider.getProviderType());
-            
-            publishSuccessAudit(notificationId, request, deviceToken, processingTime);
-            
-        } catch (Exception e) {
-            log.error("Async push delivery failed for notification: {}", notificationId, e);
-            
-            if (isInvalidTokenError(e)) {
-                log.warn("Invalid device token, deactivating: {}", deviceToken.getDeviceToken());
-                deviceTokenService.deactivateToken(deviceToken.getDeviceToken());
-            }
-            
-            updateNotificationFailure(notificationId, e.getMessage());
-            throw new PushNotificationException("Async push delivery failed", e);
+        List<Integer> indexes = new ArrayList<>(deviceTokens.size());
+        for (int i = 0; i < deviceTokens.size(); i++) {
+            indexes.add(i);
         }
+        deliverBatch(provider, request, deviceTokens, notificationIds, indexes);
     }
     
     public PushNotification createPendingNotification(PushNotificationRequest request, 
                                                      DeviceToken deviceToken) {
-        PushNotification notification = PushNotification.builder()
+        PushNotification notification = buildPendingNotification(request, deviceToken);
+        
+        notification = statusWriter.create(PushNotification.class, notification, NotificationStatus.PENDING);
+        log.info("Created PENDING push notification: {}", notification.getId());
+        
+        return notification;
+    }
+    
+    /**
+     * Create a SCHEDULED record for one device, held until {@code scheduledAt}
+     */
+    public PushNotification createScheduledNotification(PushNotificationRequest request, DeviceToken deviceToken,
+                                                        Instant scheduledAt) {
+        PushNotification notification = buildPendingNotification(request, deviceToken);
+        notification.setStatus(NotificationStatus.SCHEDULED);
+        notification.setScheduledAt(scheduledAt);
+        
+        notification = statusWriter.create(PushNotification.class, notification, NotificationStatus.SCHEDULED);
+        log.info("Created SCHEDULED push notification {} due at {}", notification.getId(), scheduledAt);
+        
+        return notification;
+    }
+    
+    /**
+     * Unsaved PENDING record for one device
+     */
+    public PushNotification buildPendingNotification(PushNotificationRequest request, DeviceToken deviceToken) {
+        return PushNotification.builder()
                 .userId(deviceToken.getUserId())
                 .deviceTokenId(deviceToken.getId())
                 .deviceToken(deviceToken.getDeviceToken())
@@ -89,13 +162,124 @@ public class PushDeliveryServiceImpl {
                 .imageUrl(request.getImageUrl())
                 .status(NotificationStatus.PENDING)
                 .retryCount(0)
+                .jobId(request.getJobId())
                 .createdAt(Instant.now())
                 .build();
+    }
+    
+    /**
+     * Wait for status callbacks of pipelined sends still in flight; a send whose
+     * callback never runs stays PROCESSING
+     */
+    @PreDestroy
+    public void drainCallbacks() {
+        long deadline = System.currentTimeMillis() + asyncProperties.getPush().getAwaitTerminationSeconds() * 1000L;
+        try {
+            while (pendingCallbacks.get() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pendingCallbacks.get() > 0) {
+            log.warn("Shutting down with {} pipelined push callbacks pending; their notifications stay PROCESSING",
+                    pendingCallbacks.get());
+        }
+    }
+    
+    private void deliverBatch(PushProviderStrategy provider, PushNotificationRequest request,
+                              List<DeviceToken> deviceTokens, List<String> notificationIds,
+                              List<Integer> indexes) {
+        long startTime = System.currentTimeMillis();
         
-        notification = pushNotificationService.save(notification);
-        log.info("Created PENDING push notification: {}", notification.getId());
+        List<String> tokens = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            updateNotificationStatus(notificationIds.get(index), NotificationStatus.PROCESSING);
+            tokens.add(deviceTokens.get(index).getDeviceToken());
+        }
         
-        return notification;
+        if (provider.isPipelined()) {
+            // The provider caps its own in-flight streams; status updates run on completion
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                DeviceToken deviceToken = deviceTokens.get(index);
+                String notificationId = notificationIds.get(index);
+                pendingCallbacks.incrementAndGet();
+                try {
+                    provider.sendAsync(request.toBuilder().deviceToken(tokens.get(i)).build())
+                            .whenCompleteAsync((result, error) -> {
+                                try {
+                                    applyResult(provider, request, deviceToken, notificationId,
+                                            error != null
+                                                    ? PushSendResult.failure(deviceToken.getDeviceToken(),
+                                                            PushProviderStrategy.errorCodeOf(error), null,
+                                                            error.getMessage())
+                                                    : result,
+                                            System.currentTimeMillis() - startTime);
+                                } finally {
+                                    pendingCallbacks.decrementAndGet();
+                                }
+                            }, callbackExecutor);
+                } catch (Exception e) {
+                    pendingCallbacks.decrementAndGet();
+                    log.error("Pipelined push via {} failed for notification: {}",
+                            provider.getProviderType(), notificationId, e);
+                    updateNotificationFailure(notificationId, e.getMessage());
+                    jobProgress.recordFailed(request.getJobId());
+                }
+            }
+            log.info("Pipelined {} pushes via {}", indexes.size(), provider.getProviderType());
+            return;
+        }
+        
+        List<PushSendResult> results;
+        try {
+            results = providerBulkheads.call(provider.getChannel(), provider.getProviderType(),
+                    () -> provider.sendCampaign(request, tokens));
+        } catch (Exception e) {
+            log.error("Batch push via {} failed for {} notifications", provider.getProviderType(), indexes.size(), e);
+            indexes.forEach(index -> {
+                updateNotificationFailure(notificationIds.get(index), e.getMessage());
+                jobProgress.recordFailed(request.getJobId());
+            });
+            return;
+        }
+        
+        long processingTime = System.currentTimeMillis() - startTime;
+        int succeeded = 0;
+        for (int i = 0; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            if (applyResult(provider, request, deviceTokens.get(index), notificationIds.get(index),
+                    results.get(i), processingTime)) {
+                succeeded++;
+            }
+        }
+        
+        log.info("Batch push via {} delivered {}/{} in {}ms",
+                provider.getProviderType(), succeeded, indexes.size(), processingTime);
+    }
+    
+    /**
+     * Map one provider result onto its notification record and its job's progress
+     *
+     * @return true if the push was accepted
+     */
+    private boolean applyResult(PushProviderStrategy provider, PushNotificationRequest request,
+                                DeviceToken deviceToken, String notificationId,
+                                PushSendResult result, long processingTime) {
+        if (result.isSuccess()) {
+            updateNotificationSuccess(notificationId, provider.getProviderType(), processingTime);
+            jobProgress.recordSent(request.getJobId());
+            publishSuccessAudit(notificationId, request, deviceToken, processingTime);
+            return true;
+        }
+        
+        if (result.isInvalidToken()) {
+            tokenPruner.enqueue(deviceToken.getDeviceToken(), result.getErrorCode());
+        }
+        updateNotificationFailure(notificationId, result.getErrorMessage());
+        jobProgress.recordFailed(request.getJobId());
+        return false;
     }
     
     private PushNotification executeDelivery(PushNotificationRequest request, 
@@ -112,8 +296,11 @@ public class PushDeliveryServiceImpl {
             notification = createNotificationRecord(request, deviceToken, provider);
         }
         
+        // Refuse before sending if the record could not be persisted afterwards
+        batchWriter.ensureCapacity();
+        
         try {
-            provider.send(request);
+            providerBulkheads.run(provider.getChannel(), provider.getProviderType(), () -> provider.send(request));
             
             notification.setStatus(NotificationStatus.SENT);
             notification.setUpdatedAt(Instant.now());
@@ -124,14 +311,15 @@ public class PushDeliveryServiceImpl {
         } catch (Exception e) {
             log.error("Failed to deliver push via provider: {}", provider.getProviderType(), e);
             
-            if (isInvalidTokenError(e)) {
-                deviceTokenService.deactivateToken(deviceToken.getDeviceToken());
+            PushErrorCode errorCode = PushProviderStrategy.errorCodeOf(e);
+            if (errorCode.isTokenDead()) {
+                tokenPruner.enqueue(deviceToken.getDeviceToken(), errorCode);
             }
             
             notification.setStatus(NotificationStatus.FAILED);
             notification.setUpdatedAt(Instant.now());
             
-            throw new PushNotificationException("Failed to deliver push notification", e);
+            throw new PushNotificationException("Failed to deliver push notification", errorCode, e);
         } finally {
             persistNotificationAsync(notification);
         }
@@ -158,58 +346,78 @@ public class PushDeliveryServiceImpl {
                 .build();
     }
     
+    private void executeAsyncDelivery(PushNotificationRequest request, DeviceToken deviceToken, 
+                                      String notificationId, DeliveryLane lane) {
+        log.info("Starting async push delivery for notification: {}", notificationId);
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            PushProviderStrategy provider = providerSelector.selectProviderByPlatform(deviceToken.getPlatform());
+            if (sendPacer.isPaced(lane)) {
+                // Stays PENDING while waiting for its turn
+                sendPacer.pace(provider.getChannel(), provider.getProviderType(), null, 1);
+            }
+            
+            updateNotificationStatus(notificationId, NotificationStatus.PROCESSING);
+            providerBulkheads.run(provider.getChannel(), provider.getProviderType(), () -> provider.send(request));
+            
+            long processingTime = System.currentTimeMillis() - startTime;
+            updateNotificationSuccess(notificationId, provider.getProviderType(), processingTime);
+            jobProgress.recordSent(request.getJobId());
+            
+            log.info("Async push delivered successfully in {}ms for notification: {} via {}", 
+                    processingTime, notificationId, provider.getProviderType());
+            
+            publishSuccessAudit(notificationId, request, deviceToken, processingTime);
+            
+        } catch (Exception e) {
+            log.error("Async push delivery failed for notification: {}", notificationId, e);
+            
+            PushErrorCode errorCode = PushProviderStrategy.errorCodeOf(e);
+            if (errorCode.isTokenDead()) {
+                tokenPruner.enqueue(deviceToken.getDeviceToken(), errorCode);
+            }
+            
+            // FAILED is left to the retry fallback, once no attempt is left
+            updateNotificationRetrying(notificationId);
+            throw new PushNotificationException("Async push delivery failed", errorCode, e);
+        }
+    }
+    
     private void updateNotificationStatus(String notificationId, NotificationStatus status) {
-        pushNotificationService.findOptionalById(notificationId).ifPresent(notification -> {
-            notification.setStatus(status);
-            notification.setUpdatedAt(Instant.now());
-            pushNotificationService.save(notification);
-        });
+        statusWriter.transition(PushNotification.class, notificationId, StatusTransition.to(status));
     }
     
     private void updateNotificationSuccess(String notificationId, 
                                           com.aigreentick.services.notification.enums.push.PushProviderType providerType,
                                           long processingTimeMs) {
-        pushNotificationService.findOptionalById(notificationId).ifPresent(notification -> {
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setProviderType(providerType);
-            notification.setUpdatedAt(Instant.now());
-            pushNotificationService.save(notification);
-        });
+        statusWriter.transition(PushNotification.class, notificationId,
+                StatusTransition.to(NotificationStatus.SENT)
+                        .set("providerType", providerType));
     }
     
     private void updateNotificationFailure(String notificationId, String errorMessage) {
-        pushNotificationService.findOptionalById(notificationId).ifPresent(notification -> {
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setUpdatedAt(Instant.now());
-            
-            Integer retryCount = notification.getRetryCount();
-            notification.setRetryCount(retryCount != null ? retryCount + 1 : 1);
-            
-            pushNotificationService.save(notification);
-        });
+        statusWriter.transition(PushNotification.class, notificationId,
+                StatusTransition.to(NotificationStatus.FAILED)
+                        .inc("retryCount", 1));
+    }
+    
+    private void updateNotificationRetrying(String notificationId) {
+        statusWriter.transition(PushNotification.class, notificationId,
+                StatusTransition.to(NotificationStatus.RETRYING)
+                        .inc("retryCount", 1));
     }
     
     private PushNotification persistNotificationAsync(PushNotification notification) {
         try {
-            boolean enqueued = batchWriter.enqueue(notification);
-            
-            if (!enqueued) {
-                return pushNotificationService.save(notification);
-            }
-            
-            return notification;
-            
-        } catch (Exception e) {
-            log.error("Error enqueueing push notification, saving synchronously", e);
-            return pushNotificationService.save(notification);
+            batchWriter.enqueue(notification);
+        } catch (NotificationBackpressureException e) {
+            // Capacity was checked before sending; only a burst in between gets here
+            log.error("Batch writer rejected push notification {} after delivery: {}",
+                    notification.getId(), e.getMessage());
         }
-    }
-    
-    private boolean isInvalidTokenError(Exception e) {
-        String message = e.getMessage() != null ? e.getMessage().toLowerCase() : "";
-        return message.contains("invalid") || 
-               message.contains("unregistered") ||
-               message.contains("token");
+        return notification;
     }
     
     private void publishSuccessAudit(String notificationId, 
@@ -238,6 +446,13 @@ public class PushDeliveryServiceImpl {
         }
     }
     
+    @SuppressWarnings("unused")
+    private PushNotification deliverFallback(PushNotificationRequest request,
+                                            DeviceToken deviceToken, NotificationBackpressureException ex) {
+        // Backpressure is not a delivery failure: surface it to the caller as-is
+        throw ex;
+    }
+    
     @SuppressWarnings("unused")
     private PushNotification deliverFallback(PushNotificationRequest request, 
                                             DeviceToken deviceToken, Exception ex) {
@@ -255,11 +470,12 @@ public class PushDeliveryServiceImpl {
     @SuppressWarnings("unused")
     private void deliverAsyncFallback(PushNotificationRequest request, 
                                      DeviceToken deviceToken,
-                                     String notificationId, Exception ex) {
+                                     String notificationId, DeliveryLane lane, Exception ex) {
         log.error("Async push delivery fallback triggered for notification: {}. Error: {}", 
                 notificationId, ex.getMessage());
         
         updateNotificationFailure(notificationId, 
                 "All retry attempts failed: " + ex.getMessage());
+        jobProgress.recordFailed(request.getJobId());
     }
 }
\ No newline at end of file
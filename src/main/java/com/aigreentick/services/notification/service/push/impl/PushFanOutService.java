@@ -0,0 +1,270 @@
+package com.aigreentick.services.notification.service.push.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.request.push.QueuedPushDelivery;
+import com.aigreentick.services.notification.dto.response.push.AsyncPushResponse;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.aigreentick.services.notification.enums.push.DevicePlatform;
+import com.aigreentick.services.notification.exceptions.DeviceTokenNotFoundException;
+import com.aigreentick.services.notification.model.entity.DeviceToken;
+import com.aigreentick.services.notification.model.entity.PushNotification;
+import com.aigreentick.services.notification.provider.push.PushProviderStrategy;
+import com.aigreentick.services.notification.provider.selector.PushProviderSelector;
+import com.aigreentick.services.notification.repository.DeviceTokenRepository;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.batch.StatusTransition;
+import com.aigreentick.services.notification.service.pacing.SendPacer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fans one push out to every active device of one or more users.
+ *
+ * Tokens are loaded with a single projected query per chunk of users (chunks
+ * run in parallel), grouped by platform and recorded as PENDING in one bulk
+ * insert. User fan-outs then go through the delivery queue in one pipelined
+ * call; segment pages are handed to the delivery service as one batch per
+ * provider.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PushFanOutService {
+    
+    /** Users per token query; keeps each $in list well below the BSON size limit */
+    private static final int RESOLVE_CHUNK_SIZE = 1000;
+    
+    private final DeviceTokenRepository deviceTokenRepository;
+    private final PushProviderSelector providerSelector;
+    private final PushDeliveryServiceImpl pushDeliveryService;
+    private final PushDeliveryQueueHandler deliveryQueueHandler;
+    private final NotificationStatusWriter statusWriter;
+    private final InvalidTokenPruner tokenPruner;
+    private final SendPacer sendPacer;
+    private final MeterRegistry meterRegistry;
+    
+    /** Token lookups are joined by the caller, so nothing is left to drain on shutdown */
+    @Qualifier("pushFanOutExecutor")
+    private final Executor fanOutExecutor;
+    
+    /**
+     * @return one accepted response per targeted device
+     * @throws DeviceTokenNotFoundException if none of the users has an active device
+     */
+    public List<AsyncPushResponse> fanOut(PushNotificationRequest request, Collection<String> userIds) {
+        List<DeviceToken> resolved = resolveTokens(userIds);
+        if (resolved.isEmpty()) {
+            throw new DeviceTokenNotFoundException("No active device tokens found for users: " + userIds);
+        }
+        
+        TokenDedupSet seen = new TokenDedupSet(resolved.size());
+        List<DeviceToken> deviceTokens = resolved.stream()
+                .filter(deviceToken -> seen.add(deviceToken.getDeviceToken()))
+                .toList();
+        countSuppressed("fanout", seen.getSuppressed());
+        
+        FanOutPlan plan = plan(request, deviceTokens);
+        
+        log.info("Fanning push out to {} devices of {} users across {} providers ({} unroutable)",
+                plan.notifications.size(), userIds.size(), plan.byProvider.size(), plan.unroutable);
+        
+        submit(request, plan);
+        
+        Instant acceptedAt = Instant.now();
+        return plan.notifications.stream()
+                .map(notification -> AsyncPushResponse.builder()
+                        .notificationId(notification.getId())
+                        .status(notification.getStatus())
+                        .message(notification.getStatus() == NotificationStatus.FAILED
+                                ? "Push notification could not be delivered to platform " + notification.getPlatform()
+                                : "Push notification accepted")
+                        .acceptedAt(acceptedAt)
+                        .build())
+                .toList();
+    }
+    
+    /**
+     * Record and deliver one page of devices on the calling thread, so a
+     * streaming caller only fetches the next page once this one is handed off.
+     * Pages are campaign traffic and wait for their provider's pacing.
+     *
+     * @return number of devices that could not be routed to a provider
+     */
+    public int dispatchPage(PushNotificationRequest request, List<DeviceToken> deviceTokens) {
+        FanOutPlan plan = plan(request, deviceTokens);
+        plan.byProvider.forEach((provider, batch) -> {
+            if (sendPacer.isPaced(DeliveryLane.BULK)) {
+                sendPacer.pace(provider.getChannel(), provider.getProviderType(), null, batch.deviceTokens.size());
+            }
+            pushDeliveryService.deliverProviderBatch(provider, request, batch.deviceTokens, batch.notificationIds());
+        });
+        return plan.unroutable;
+    }
+    
+    /**
+     * Queue every routable device on the request's lane. Devices the queue and
+     * its fallback executor would not take are FAILED rather than left PENDING.
+     */
+    private void submit(PushNotificationRequest request, FanOutPlan plan) {
+        Map<String, QueuedPushDelivery> entries = new LinkedHashMap<>();
+        plan.byProvider.values().forEach(batch -> {
+            for (int i = 0; i < batch.deviceTokens.size(); i++) {
+                entries.put(batch.notifications.get(i).getId(),
+                        PushDeliveryQueueHandler.toEntry(request, batch.deviceTokens.get(i)));
+            }
+        });
+        if (entries.isEmpty()) {
+            return;
+        }
+        
+        Set<String> notSubmitted;
+        try {
+            notSubmitted = new HashSet<>(deliveryQueueHandler.submitAll(
+                    DeliveryLane.ofPushPriority(request.getPriority()), entries));
+        } catch (RuntimeException e) {
+            log.error("Submitting {} fanned-out pushes failed", entries.size(), e);
+            notSubmitted = entries.keySet();
+        }
+        if (notSubmitted.isEmpty()) {
+            return;
+        }
+        
+        log.warn("Failing {} fanned-out pushes that could not be submitted", notSubmitted.size());
+        for (PushNotification notification : plan.notifications) {
+            if (notSubmitted.contains(notification.getId())) {
+                pushDeliveryService.markFailed(notification.getId(), "Could not be submitted for delivery");
+                notification.setStatus(NotificationStatus.FAILED);
+            }
+        }
+    }
+    
+    /**
+     * Group by platform, resolve each platform's provider once and create
+     * every PENDING record in one bulk write. Unroutable devices are FAILED.
+     */
+    private FanOutPlan plan(PushNotificationRequest request, List<DeviceToken> deviceTokens) {
+        Map<DevicePlatform, List<DeviceToken>> byPlatform = new EnumMap<>(DevicePlatform.class);
+        for (DeviceToken deviceToken : deviceTokens) {
+            if (tokenPruner.isPending(deviceToken.getDeviceToken())) {
+                // Reported dead, deactivation not flushed yet
+                continue;
+            }
+            byPlatform.computeIfAbsent(deviceToken.getPlatform(), key -> new ArrayList<>()).add(deviceToken);
+        }
+        
+        FanOutPlan plan = new FanOutPlan(deviceTokens.size());
+        List<PushNotification> unroutable = new ArrayList<>();
+        
+        byPlatform.forEach((platform, tokens) -> {
+            PushProviderStrategy provider = selectProvider(platform);
+            for (DeviceToken deviceToken : tokens) {
+                PushNotification notification = pushDeliveryService.buildPendingNotification(request, deviceToken);
+                plan.notifications.add(notification);
+                if (provider != null) {
+                    plan.byProvider.computeIfAbsent(provider, key -> new ProviderBatch())
+                            .add(deviceToken, notification);
+                } else {
+                    unroutable.add(notification);
+                }
+            }
+        });
+        
+        statusWriter.createAll(PushNotification.class, plan.notifications, NotificationStatus.PENDING);
+        
+        for (PushNotification notification : unroutable) {
+            statusWriter.transition(PushNotification.class, notification.getId(),
+                    StatusTransition.to(NotificationStatus.FAILED)
+                            .inc("retryCount", 1));
+            notification.setStatus(NotificationStatus.FAILED);
+        }
+        plan.unroutable = unroutable.size();
+        return plan;
+    }
+    
+    private List<DeviceToken> resolveTokens(Collection<String> userIds) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(userIds));
+        if (distinct.size() <= RESOLVE_CHUNK_SIZE) {
+            return deviceTokenRepository.findActiveDeliveryTargets(distinct);
+        }
+        
+        List<CompletableFuture<List<DeviceToken>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += RESOLVE_CHUNK_SIZE) {
+            List<String> chunk = distinct.subList(from, Math.min(from + RESOLVE_CHUNK_SIZE, distinct.size()));
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> deviceTokenRepository.findActiveDeliveryTargets(chunk), fanOutExecutor));
+        }
+        
+        List<DeviceToken> deviceTokens = new ArrayList<>();
+        chunks.forEach(chunk -> deviceTokens.addAll(chunk.join()));
+        return deviceTokens;
+    }
+    
+    /**
+     * Record duplicate sends dropped by a {@link TokenDedupSet}
+     */
+    public void countSuppressed(String source, long suppressed) {
+        if (suppressed == 0) {
+            return;
+        }
+        log.info("Suppressed {} duplicate device tokens ({})", suppressed, source);
+        Counter.builder("notification.push.dedup.suppressed")
+                .description("Sends dropped because the token already appeared in the same job")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment(suppressed);
+    }
+    
+    private PushProviderStrategy selectProvider(DevicePlatform platform) {
+        try {
+            return providerSelector.selectProviderByPlatform(platform);
+        } catch (Exception e) {
+            log.error("No push provider for platform {}: {}", platform, e.getMessage());
+            return null;
+        }
+    }
+    
+    private static final class FanOutPlan {
+        private final List<PushNotification> notifications;
+        private final Map<PushProviderStrategy, ProviderBatch> byProvider = new LinkedHashMap<>();
+        private int unroutable;
+        
+        private FanOutPlan(int size) {
+            this.notifications = new ArrayList<>(size);
+        }
+    }
+    
+    private static final class ProviderBatch {
+        private final List<DeviceToken> deviceTokens = new ArrayList<>();
+        private final List<PushNotification> notifications = new ArrayList<>();
+        
+        private void add(DeviceToken deviceToken, PushNotification notification) {
+            deviceTokens.add(deviceToken);
+            notifications.add(notification);
+        }
+        
+        /** Ids are only assigned once the records are created */
+        private List<String> notificationIds() {
+            return notifications.stream().map(PushNotification::getId).toList();
+        }
+    }
+}
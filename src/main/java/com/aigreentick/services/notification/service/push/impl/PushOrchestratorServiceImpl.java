@@ -1,19 +1,24 @@
 package com.aigreentick.services.notification.service.push.impl;
 
 import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.stereotype.Service;
 
 import com.aigreentick.services.notification.dto.request.push.SendPushRequest;
 import com.aigreentick.services.notification.dto.response.push.AsyncPushResponse;
 import com.aigreentick.services.notification.dto.response.push.PushNotificationResponse;
+import com.aigreentick.services.notification.enums.DeliveryLane;
 import com.aigreentick.services.notification.enums.NotificationStatus;
 import com.aigreentick.services.notification.exceptions.DeviceTokenNotFoundException;
 import com.aigreentick.services.notification.mapper.PushNotificationMapper;
 import com.aigreentick.services.notification.model.entity.DeviceToken;
 import com.aigreentick.services.notification.model.entity.PushNotification;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.scheduling.ScheduledDeliveryService;
 import com.aigreentick.services.notification.validator.PushValidationService;
 
 import lombok.RequiredArgsConstructor;
@@ -25,10 +30,14 @@ import lombok.extern.slf4j.Slf4j;
 public class PushOrchestratorServiceImpl {
     
     private final PushDeliveryServiceImpl pushDeliveryService;
+    private final PushDeliveryQueueHandler deliveryQueueHandler;
     private final DeviceTokenService deviceTokenService;
     private final PushNotificationServiceImpl pushNotificationService;
     private final PushValidationService validationService;
     private final PushNotificationMapper mapper;
+    private final NotificationStatusWriter statusWriter;
+    private final PushFanOutService pushFanOutService;
+    private final ScheduledDeliveryService scheduledDeliveryService;
     
     public PushNotificationResponse sendPush(SendPushRequest request) {
         log.info("Orchestrating SYNC push send");
@@ -48,15 +57,34 @@ public class PushOrchestratorServiceImpl {
         log.info("Orchestrating ASYNC push send");
         
         validationService.validateSendRequest(request);
+        scheduledDeliveryService.validateScheduledAt(request.getScheduledAt());
         
         DeviceToken deviceToken = resolveDeviceToken(request);
         
         var pushRequest = mapper.toPushRequest(request);
+        DeliveryLane lane = DeliveryLane.ofPushPriority(pushRequest.getPriority());
+        
+        if (scheduledDeliveryService.isScheduled(request.getScheduledAt())) {
+            PushNotification notification = pushDeliveryService.createScheduledNotification(
+                    pushRequest, deviceToken, request.getScheduledAt());
+            
+            deliveryQueueHandler.schedule(pushRequest, deviceToken, notification.getId(), lane,
+                    request.getScheduledAt());
+            
+            return AsyncPushResponse.builder()
+                    .notificationId(notification.getId())
+                    .status(NotificationStatus.SCHEDULED)
+                    .message("Push notification scheduled for delivery")
+                    .acceptedAt(Instant.now())
+                    .scheduledAt(request.getScheduledAt())
+                    .statusCheckUrl("/api/v1/notification/push/status/" + notification.getId())
+                    .build();
+        }
         
         PushNotification notification = pushDeliveryService.createPendingNotification(
                 pushRequest, deviceToken);
         
-        pushDeliveryService.deliverAsync(pushRequest, deviceToken, notification.getId());
+        deliveryQueueHandler.submit(pushRequest, deviceToken, notification.getId(), lane);
         
         return AsyncPushResponse.builder()
                 .notificationId(notification.getId())
@@ -68,46 +96,39 @@ public class PushOrchestratorServiceImpl {
                 .build();
     }
     
+    /**
+     * Send to every active device of {@code userId}, or of each of {@code userIds} for segment sends
+     */
     public List<AsyncPushResponse> sendPushToUser(SendPushRequest request) {
-        log.info("Sending push to all devices for user: {}", request.getUserId());
+        Set<String> userIds = new LinkedHashSet<>();
+        if (request.getUserId() != null) {
+            userIds.add(request.getUserId());
+        }
+        if (request.getUserIds() != null) {
+            userIds.addAll(request.getUserIds());
+        }
         
-        if (request.getUserId() == null) {
+        if (userIds.isEmpty()) {
             throw new IllegalArgumentException("User ID is required for user-based push");
         }
+        if (request.getScheduledAt() != null) {
+            throw new IllegalArgumentException("Scheduled sends must target a single device");
+        }
         
-        List<DeviceToken> userTokens = deviceTokenService.getUserTokens(request.getUserId())
-                .stream()
-                .map(response -> deviceTokenService.getActiveTokenByValue(response.getDeviceToken()))
-                .collect(Collectors.toList());
+        log.info("Sending push to all devices of {} users", userIds.size());
         
-        if (userTokens.isEmpty()) {
-            throw new DeviceTokenNotFoundException(
-                    "No active device tokens found for user: " + request.getUserId());
-        }
+        validationService.validateSendRequest(request);
         
-        return userTokens.stream()
-                .map(deviceToken -> {
-                    var pushRequest = mapper.toPushRequest(request);
-                    
-                    PushNotification notification = pushDeliveryService.createPendingNotification(
-                            pushRequest, deviceToken);
-                    
-                    pushDeliveryService.deliverAsync(pushRequest, deviceToken, notification.getId());
-                    
-                    return AsyncPushResponse.builder()
-                            .notificationId(notification.getId())
-                            .status(NotificationStatus.PENDING)
-                            .message("Push notification accepted")
-                            .acceptedAt(Instant.now())
-                            .build();
-                })
-                .collect(Collectors.toList());
+        return pushFanOutService.fanOut(mapper.toPushRequest(request), userIds);
     }
     
     public PushNotificationResponse getPushStatus(String notificationId) {
         log.debug("Fetching status for push notification: {}", notificationId);
         
-        PushNotification notification = pushNotificationService.findOptionalById(notificationId)
+        // Include writes still buffered by the status writer
+        PushNotification notification = Optional.ofNullable(statusWriter.overlay(
+                        PushNotification.class, notificationId,
+                        pushNotificationService.findOptionalById(notificationId).orElse(null)))
                 .orElseThrow(() -> new DeviceTokenNotFoundException(
                         "Push notification not found: " + notificationId));
         
@@ -120,11 +141,7 @@ public class PushOrchestratorServiceImpl {
         }
         
         if (request.getUserId() != null) {
-            List<DeviceToken> tokens = deviceTokenService.getUserTokens(request.getUserId())
-                    .stream()
-                    .map(response -> deviceTokenService.getActiveTokenByValue(
-                            response.getDeviceToken()))
-                    .collect(Collectors.toList());
+            List<DeviceToken> tokens = deviceTokenService.getActiveTokensForUser(request.getUserId());
             
             if (tokens.isEmpty()) {
                 throw new DeviceTokenNotFoundException(
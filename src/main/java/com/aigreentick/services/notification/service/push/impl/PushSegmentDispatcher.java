@@ -0,0 +1,206 @@
+package com.aigreentick.services.notification.service.push.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.notification.config.properties.AsyncProperties;
+import com.aigreentick.services.notification.config.properties.PushProperties;
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.request.push.SendSegmentPushRequest;
+import com.aigreentick.services.notification.model.entity.DeviceToken;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the devices of a segment off a MongoDB cursor and pushes them
+ * through {@link PushFanOutService#dispatchPage} one page at a time.
+ *
+ * At most {@code push.segment.max-in-flight-pages} pages are being
+ * dispatched while the cursor reads the next one, so memory is bounded by
+ * page size times pages in flight, whatever the size of the segment.
+ * Each page adds its devices to the job's accepted count; the job is closed
+ * once the cursor is exhausted and completes when every send has finished.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PushSegmentDispatcher {
+    
+    private final MongoTemplate mongoTemplate;
+    private final PushFanOutService pushFanOutService;
+    private final NotificationJobService jobService;
+    private final PushProperties pushProperties;
+    private final AsyncProperties asyncProperties;
+    
+    @Qualifier("pushFanOutExecutor")
+    private final Executor fanOutExecutor;
+    
+    /** Pages handed to the executor across all segment jobs */
+    private final AtomicInteger pagesInFlight = new AtomicInteger();
+    
+    /**
+     * @param request carries {@code jobId}, so every send is counted on the job
+     */
+    @Async("pushTaskExecutor")
+    public void dispatchAsync(String jobId, SendSegmentPushRequest segment, PushNotificationRequest request) {
+        PushProperties.SegmentConfig config = pushProperties.getSegment();
+        Semaphore pagePermits = new Semaphore(config.getMaxInFlightPages());
+        // Grows as needed; user-id lists and re-registered devices can repeat a token
+        TokenDedupSet seen = new TokenDedupSet(config.getPageSize() * config.getMaxInFlightPages());
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            for (Query query : buildQueries(segment, config)) {
+                streamPages(jobId, query, request, config.getPageSize(), pagePermits, seen);
+            }
+            log.info("Segment job {} read every device in {}ms", jobId, System.currentTimeMillis() - startTime);
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Segment job {} interrupted; devices not yet read are not sent", jobId);
+        } catch (Exception e) {
+            log.error("Segment job {} stopped reading devices; those not yet read are not sent", jobId, e);
+        } finally {
+            // Every page has recorded its devices once all permits are back; closing
+            // earlier could complete the job before they count as accepted
+            pagePermits.acquireUninterruptibly(config.getMaxInFlightPages());
+            pushFanOutService.countSuppressed("segment", seen.getSuppressed());
+            jobService.close(jobId);
+        }
+    }
+    
+    private void streamPages(String jobId, Query query, PushNotificationRequest request,
+                             int pageSize, Semaphore pagePermits, TokenDedupSet seen) throws InterruptedException {
+        try (Stream<DeviceToken> devices = mongoTemplate.stream(query, DeviceToken.class)) {
+            Iterator<DeviceToken> cursor = devices.iterator();
+            List<DeviceToken> page = new ArrayList<>(pageSize);
+            while (cursor.hasNext()) {
+                DeviceToken deviceToken = cursor.next();
+                if (!seen.add(deviceToken.getDeviceToken())) {
+                    continue;
+                }
+                page.add(deviceToken);
+                if (page.size() == pageSize) {
+                    submitPage(jobId, request, page, pagePermits);
+                    page = new ArrayList<>(pageSize);
+                }
+            }
+            if (!page.isEmpty()) {
+                submitPage(jobId, request, page, pagePermits);
+            }
+        }
+    }
+    
+    /**
+     * Blocks the cursor while the pipeline is full
+     */
+    private void submitPage(String jobId, PushNotificationRequest request, List<DeviceToken> page,
+                            Semaphore pagePermits) throws InterruptedException {
+        pagePermits.acquire();
+        pagesInFlight.incrementAndGet();
+        try {
+            fanOutExecutor.execute(() -> {
+                try {
+                    int failed;
+                    try {
+                        failed = pushFanOutService.dispatchPage(request, page);
+                    } catch (Exception e) {
+                        log.error("Segment job {} failed to dispatch a page of {} devices", jobId, page.size(), e);
+                        failed = page.size();
+                    }
+                    recordAccepted(jobId, page.size(), failed);
+                } finally {
+                    pagePermits.release();
+                    pagesInFlight.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            pagesInFlight.decrementAndGet();
+            pagePermits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Let pages already handed out finish before the executor closes
+     */
+    @PreDestroy
+    public void drainPages() {
+        long deadline = System.currentTimeMillis() + asyncProperties.getPush().getAwaitTerminationSeconds() * 1000L;
+        try {
+            while (pagesInFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pagesInFlight.get() > 0) {
+            log.warn("Shutting down with {} segment pages still dispatching; their jobs will not complete",
+                    pagesInFlight.get());
+        }
+    }
+    
+    /**
+     * One query for a filter segment, one per chunk of user ids otherwise
+     */
+    private List<Query> buildQueries(SendSegmentPushRequest segment, PushProperties.SegmentConfig config) {
+        if (segment.getUserIds() == null || segment.getUserIds().isEmpty()) {
+            return List.of(buildQuery(segment, null, config.getPageSize()));
+        }
+        
+        List<String> userIds = new ArrayList<>(new LinkedHashSet<>(segment.getUserIds()));
+        List<Query> queries = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += config.getUserIdChunkSize()) {
+            List<String> chunk = userIds.subList(from, Math.min(from + config.getUserIdChunkSize(), userIds.size()));
+            queries.add(buildQuery(segment, chunk, config.getPageSize()));
+        }
+        return queries;
+    }
+    
+    private Query buildQuery(SendSegmentPushRequest segment, List<String> userIds, int pageSize) {
+        Criteria criteria = Criteria.where("active").is(true);
+        if (userIds != null) {
+            criteria = criteria.and("userId").in(userIds);
+        }
+        if (segment.getPlatform() != null) {
+            criteria = criteria.and("platform").is(segment.getPlatform());
+        }
+        if (segment.getAppVersion() != null) {
+            criteria = criteria.and("appVersion").is(segment.getAppVersion());
+        }
+        if (segment.getLanguage() != null) {
+            criteria = criteria.and("language").is(segment.getLanguage());
+        }
+        
+        Query query = Query.query(criteria).cursorBatchSize(pageSize).noCursorTimeout();
+        query.fields().include("userId", "deviceToken", "platform");
+        return query;
+    }
+    
+    /**
+     * Devices that could not be routed were FAILED before sending and count as rejected
+     */
+    private void recordAccepted(String jobId, int devices, int rejected) {
+        try {
+            jobService.recordAccepted(jobId, devices - rejected, rejected);
+        } catch (Exception e) {
+            log.warn("Failed to record accepted devices of segment job {}: {}", jobId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.aigreentick.services.notification.service.push.impl;
+
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.request.push.SendSegmentPushRequest;
+import com.aigreentick.services.notification.dto.response.NotificationJobResponse;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.mapper.PushNotificationMapper;
+import com.aigreentick.services.notification.model.entity.NotificationJob;
+import com.aigreentick.services.notification.service.job.NotificationJobService;
+import com.aigreentick.services.notification.validator.PushValidationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accepts segment pushes as notification jobs; the devices are streamed and
+ * dispatched in the background by {@link PushSegmentDispatcher}, and their
+ * sends and failures are counted on the job like any batch or bulk send.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PushSegmentService {
+    
+    private final NotificationJobService jobService;
+    private final PushSegmentDispatcher segmentDispatcher;
+    private final PushValidationService validationService;
+    private final PushNotificationMapper mapper;
+    
+    public NotificationJobResponse startSegmentSend(SendSegmentPushRequest request) {
+        validationService.validateSegmentSendRequest(request);
+        
+        NotificationJob job = jobService.start(NotificationChannel.PUSH, "segment");
+        log.info("Started segment push job {} (users={}, platform={}, appVersion={}, language={})",
+                job.getId(), request.getUserIds() != null ? request.getUserIds().size() : null,
+                request.getPlatform(), request.getAppVersion(), request.getLanguage());
+        
+        PushNotificationRequest pushRequest = mapper.toPushRequest(request);
+        pushRequest.setJobId(job.getId());
+        try {
+            segmentDispatcher.dispatchAsync(job.getId(), request, pushRequest);
+        } catch (RuntimeException e) {
+            // Nothing was accepted; close it so it completes empty instead of staying open
+            jobService.close(job.getId());
+            throw e;
+        }
+        
+        return jobService.getJob(job.getId());
+    }
+    
+    public NotificationJobResponse getJob(String jobId) {
+        return jobService.getJob(jobId);
+    }
+}
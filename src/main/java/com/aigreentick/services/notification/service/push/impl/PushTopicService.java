@@ -0,0 +1,136 @@
+package com.aigreentick.services.notification.service.push.impl;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.request.push.SendTopicPushRequest;
+import com.aigreentick.services.notification.dto.request.push.TopicSubscriptionRequest;
+import com.aigreentick.services.notification.dto.response.push.PushNotificationResponse;
+import com.aigreentick.services.notification.dto.response.push.TopicSubscriptionResponse;
+import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.aigreentick.services.notification.enums.push.PushProviderType;
+import com.aigreentick.services.notification.exceptions.ProviderNotAvailableException;
+import com.aigreentick.services.notification.mapper.PushNotificationMapper;
+import com.aigreentick.services.notification.model.entity.PushNotification;
+import com.aigreentick.services.notification.provider.push.FcmPushProvider;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.batch.StatusTransition;
+import com.aigreentick.services.notification.validator.PushValidationService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * FCM topic management and topic/condition broadcasts.
+ *
+ * A broadcast is one FCM call and one notification record, however many
+ * devices are subscribed; FCM does the fan-out and reports no per-device
+ * outcomes, so the record tracks the send and the counters track totals.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PushTopicService {
+    
+    private final ObjectProvider<FcmPushProvider> fcmProvider;
+    private final PushValidationService validationService;
+    private final PushNotificationMapper mapper;
+    private final NotificationStatusWriter statusWriter;
+    private final MeterRegistry meterRegistry;
+    
+    // ==================== SUBSCRIPTIONS ====================
+    
+    public TopicSubscriptionResponse subscribe(TopicSubscriptionRequest request) {
+        validationService.validateTopicName(request.getTopic());
+        log.info("Subscribing {} tokens to topic '{}'", request.getDeviceTokens().size(), request.getTopic());
+        
+        TopicSubscriptionResponse response = requireFcm()
+                .subscribeToTopic(request.getTopic(), request.getDeviceTokens());
+        countSubscriptions("subscribe", response);
+        return response;
+    }
+    
+    public TopicSubscriptionResponse unsubscribe(TopicSubscriptionRequest request) {
+        validationService.validateTopicName(request.getTopic());
+        log.info("Unsubscribing {} tokens from topic '{}'", request.getDeviceTokens().size(), request.getTopic());
+        
+        TopicSubscriptionResponse response = requireFcm()
+                .unsubscribeFromTopic(request.getTopic(), request.getDeviceTokens());
+        countSubscriptions("unsubscribe", response);
+        return response;
+    }
+    
+    // ==================== BROADCAST ====================
+    
+    public PushNotificationResponse sendToTopic(SendTopicPushRequest request) {
+        validationService.validateTopicSendRequest(request);
+        FcmPushProvider provider = requireFcm();
+        
+        PushNotificationRequest pushRequest = mapper.toPushRequest(request);
+        PushNotification notification = PushNotification.builder()
+                .topic(request.getTopic())
+                .condition(request.getCondition())
+                .title(request.getTitle())
+                .body(request.getBody())
+                .data(request.getData())
+                .imageUrl(request.getImageUrl())
+                .providerType(PushProviderType.FCM)
+                .status(NotificationStatus.PENDING)
+                .retryCount(0)
+                .createdAt(Instant.now())
+                .build();
+        notification = statusWriter.create(PushNotification.class, notification, NotificationStatus.PENDING);
+        
+        try {
+            String messageId = provider.sendToTopic(pushRequest, request.getTopic(), request.getCondition());
+            statusWriter.transition(PushNotification.class, notification.getId(),
+                    StatusTransition.to(NotificationStatus.SENT)
+                            .set("providerId", messageId));
+            notification.setStatus(NotificationStatus.SENT);
+            notification.setProviderId(messageId);
+            countSend("success");
+        } catch (Exception e) {
+            log.error("Topic push {} failed: {}", notification.getId(), e.getMessage());
+            statusWriter.transition(PushNotification.class, notification.getId(),
+                    StatusTransition.to(NotificationStatus.FAILED)
+                            .inc("retryCount", 1));
+            notification.setStatus(NotificationStatus.FAILED);
+            countSend("failed");
+        }
+        
+        return mapper.toResponse(notification);
+    }
+    
+    private FcmPushProvider requireFcm() {
+        FcmPushProvider provider = fcmProvider.getIfAvailable();
+        if (provider == null || !provider.isAvailable()) {
+            throw new ProviderNotAvailableException("FCM is required for topic messaging but is not available");
+        }
+        return provider;
+    }
+    
+    private void countSend(String outcome) {
+        Counter.builder("notification.push.topic.sends")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    private void countSubscriptions(String operation, TopicSubscriptionResponse response) {
+        Counter.builder("notification.push.topic.subscriptions")
+                .tag("operation", operation)
+                .tag("outcome", "success")
+                .register(meterRegistry)
+                .increment(response.getSuccessCount());
+        Counter.builder("notification.push.topic.subscriptions")
+                .tag("operation", operation)
+                .tag("outcome", "failed")
+                .register(meterRegistry)
+                .increment(response.getFailureCount());
+    }
+}
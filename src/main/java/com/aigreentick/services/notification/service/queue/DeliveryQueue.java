@@ -0,0 +1,740 @@
+package com.aigreentick.services.notification.service.queue;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisCallback;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.notification.config.properties.DeliveryQueueProperties;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durable work queue between the orchestrators and the delivery services,
+ * one Redis stream per channel and {@link DeliveryLane}.
+ *
+ * Every instance reads through the same consumer group, so entries are spread
+ * across instances and throughput grows with their number. An entry is
+ * acknowledged once its handler returns; entries left unacknowledged by a
+ * crashed or stopped instance are claimed by another one after
+ * {@code claim-idle-ms}, and dead-lettered after {@code max-deliveries}.
+ *
+ * Each read round gives every backlogged lane a share of the batch by weight,
+ * and a lane may only occupy its configured share of the in-flight slots, so a
+ * bulk backlog never stands between a critical entry and a free slot.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliveryQueue {
+
+    private static final String FIELD_NOTIFICATION_ID = "notificationId";
+    private static final String FIELD_PAYLOAD = "payload";
+    private static final String FIELD_ENQUEUED_AT = "enqueuedAt";
+    private static final String FIELD_REASON = "reason";
+    private static final String DEAD_LETTER_SUFFIX = ":dead";
+
+    /** SET NX the release marker and XADD only if it was not there */
+    private static final RedisScript<Long> PUBLISH_ONCE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SET', KEYS[2], '1', 'NX', 'EX', ARGV[1]) then "
+                    + "redis.call('XADD', KEYS[1], 'MAXLEN', '~', ARGV[2], '*', "
+                    + "'" + FIELD_NOTIFICATION_ID + "', ARGV[3], '" + FIELD_PAYLOAD + "', ARGV[4], "
+                    + "'" + FIELD_ENQUEUED_AT + "', ARGV[5]) "
+                    + "return 1 end return 0",
+            Long.class);
+
+    /** Back-off while every lane is at its in-flight limit */
+    private static final long SATURATED_PAUSE_MS = 10;
+
+    private final StringRedisTemplate redisTemplate;
+    private final DeliveryQueueProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Channel<?>> channels = new ConcurrentHashMap<>();
+
+    /** Deliveries block on providers and MongoDB */
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile boolean running;
+    private String consumerName;
+
+    /**
+     * Register a channel; its consumer starts once the application is ready.
+     * Channel names must be unique.
+     */
+    public <T> void registerChannel(DeliveryQueueHandler<T> handler) {
+        String name = handler.getChannel();
+        Channel<T> channel = new Channel<>(handler, new Semaphore(properties.getMaxInFlightPerChannel()));
+
+        for (DeliveryLane lane : DeliveryLane.values()) {
+            channel.lanes.put(lane, createLane(name, lane));
+        }
+
+        if (channels.putIfAbsent(name, channel) != null) {
+            throw new IllegalStateException("Delivery queue channel already registered: " + name);
+        }
+
+        if (running) {
+            start(channel);
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // ==================== PRODUCER ====================
+
+    /**
+     * Append an entry to the stream of the channel's lane.
+     *
+     * @return false if the queue is disabled or Redis rejected the entry;
+     *         the caller then delivers through its in-memory path
+     */
+    public boolean publish(String channelName, DeliveryLane lane, String notificationId, Object payload) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        String streamKey = requireChannel(channelName).lanes.get(lane).streamKey;
+
+        try {
+            Map<String, String> fields = Map.of(
+                    FIELD_NOTIFICATION_ID, notificationId,
+                    FIELD_PAYLOAD, objectMapper.writeValueAsString(payload),
+                    FIELD_ENQUEUED_AT, String.valueOf(System.currentTimeMillis()));
+
+            redisTemplate.opsForStream().add(
+                    StreamRecords.string(fields).withStreamKey(streamKey),
+                    XAddOptions.maxlen(properties.getMaxLength()).approximateTrimming(true));
+
+            count(channelName, lane, "published");
+            return true;
+
+        } catch (Exception e) {
+            log.warn("Could not queue {} notification {}: {}", channelName, notificationId, e.getMessage());
+            count(channelName, lane, "publish_failed");
+            return false;
+        }
+    }
+
+    /**
+     * Same as {@link #publish} for many entries, written in one pipelined
+     * round trip
+     *
+     * @param payloads by notification id
+     * @return false if the queue is disabled or the pipeline failed; the
+     *         caller then delivers all of them through its in-memory path
+     */
+    public boolean publishAll(String channelName, DeliveryLane lane, Map<String, ?> payloads) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (payloads.isEmpty()) {
+            return true;
+        }
+        byte[] streamKey = bytes(requireChannel(channelName).lanes.get(lane).streamKey);
+
+        try {
+            byte[] enqueuedAt = bytes(String.valueOf(System.currentTimeMillis()));
+            List<ByteRecord> records = new ArrayList<>(payloads.size());
+            for (Map.Entry<String, ?> entry : payloads.entrySet()) {
+                records.add(StreamRecords.rawBytes(Map.of(
+                        bytes(FIELD_NOTIFICATION_ID), bytes(entry.getKey()),
+                        bytes(FIELD_PAYLOAD), objectMapper.writeValueAsBytes(entry.getValue()),
+                        bytes(FIELD_ENQUEUED_AT), enqueuedAt)).withStreamKey(streamKey));
+            }
+
+            XAddOptions options = XAddOptions.maxlen(properties.getMaxLength()).approximateTrimming(true);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                records.forEach(record -> connection.streamCommands().xAdd(record, options));
+                return null;
+            });
+
+            count(channelName, lane, "published", payloads.size());
+            return true;
+
+        } catch (Exception e) {
+            log.warn("Could not queue {} {} notifications: {}", payloads.size(), channelName, e.getMessage());
+            count(channelName, lane, "publish_failed", payloads.size());
+            return false;
+        }
+    }
+
+    /**
+     * Append already serialized entries, skipping notifications published this
+     * way before. Each marker and its entry are written by one script, so
+     * releasing the same notification from two instances, or again after a
+     * crash, queues it only once. The script calls go out in one pipelined
+     * round trip.
+     *
+     * @param payloads serialized payloads by notification id
+     * @return false if the queue is disabled or the pipeline failed; the
+     *         caller then delivers all of them through {@link #deliverLocally}
+     */
+    public boolean publishAllOnce(String channelName, DeliveryLane lane, Map<String, String> payloads,
+            Duration markerTtl) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (payloads.isEmpty()) {
+            return true;
+        }
+        String streamKey = requireChannel(channelName).lanes.get(lane).streamKey;
+
+        try {
+            byte[] script = bytes(PUBLISH_ONCE_SCRIPT.getScriptAsString());
+            byte[] ttl = bytes(String.valueOf(markerTtl.toSeconds()));
+            byte[] maxLength = bytes(String.valueOf(properties.getMaxLength()));
+            byte[] enqueuedAt = bytes(String.valueOf(System.currentTimeMillis()));
+
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                payloads.forEach((notificationId, payloadJson) -> connection.scriptingCommands().eval(
+                        script, ReturnType.INTEGER, 2,
+                        bytes(streamKey), bytes(properties.getStreamPrefix() + "released:" + notificationId),
+                        ttl, maxLength, bytes(notificationId), bytes(payloadJson), enqueuedAt));
+                return null;
+            });
+
+            int added = (int) results.stream().filter(result -> Long.valueOf(1).equals(result)).count();
+            count(channelName, lane, "published", added);
+            count(channelName, lane, "duplicate", payloads.size() - added);
+            return true;
+
+        } catch (Exception e) {
+            log.warn("Could not queue {} {} notifications: {}", payloads.size(), channelName, e.getMessage());
+            count(channelName, lane, "publish_failed", payloads.size());
+            return false;
+        }
+    }
+
+    /**
+     * Deliver an already serialized entry on this instance, bypassing Redis;
+     * for when {@link #publishAllOnce} is not possible
+     */
+    public void deliverLocally(String channelName, DeliveryLane lane, String notificationId, String payloadJson) {
+        DeliveryQueueHandler<?> handler = requireChannel(channelName).handler;
+        deliveryExecutor.execute(() -> handleLocally(handler, lane, notificationId, payloadJson));
+    }
+
+    public DeliveryQueueHandler<?> getHandler(String channelName) {
+        return requireChannel(channelName).handler;
+    }
+
+    // ==================== CONSUMER ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startConsumers() {
+        if (!properties.isEnabled()) {
+            log.info("Delivery queue disabled, using in-memory async delivery");
+            return;
+        }
+        consumerName = resolveConsumerName();
+        running = true;
+        channels.values().forEach(this::start);
+    }
+
+    /**
+     * Stop reading first so nothing new is handed out, then let deliveries already
+     * running finish within {@code shutdown-timeout-ms}. Entries still unfinished
+     * after that stay pending and are claimed by another instance.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        long deadline = System.currentTimeMillis() + properties.getShutdownTimeoutMs();
+        channels.values().forEach(channel -> {
+            if (channel.reader != null) {
+                channel.reader.interrupt();
+            }
+        });
+
+        try {
+            for (Channel<?> channel : channels.values()) {
+                if (channel.reader != null) {
+                    channel.reader.join(Math.max(1, deadline - System.currentTimeMillis()));
+                }
+            }
+
+            deliveryExecutor.shutdown();
+            if (!deliveryExecutor.awaitTermination(
+                    Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                log.warn("Delivery queue deliveries still running after {}ms; their entries stay pending for reclaim",
+                        properties.getShutdownTimeoutMs());
+                deliveryExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deliveryExecutor.shutdownNow();
+        }
+    }
+
+    private void start(Channel<?> channel) {
+        channel.lanes.values().forEach(lane -> ensureGroup(lane.streamKey));
+
+        channel.reader = new Thread(() -> {
+            channel.lanes.values().forEach(lane -> recoverOwnPending(channel, lane));
+            poll(channel);
+        }, "delivery-queue-" + channel.handler.getChannel());
+        channel.reader.setDaemon(true);
+        channel.reader.start();
+
+        log.info("Delivery queue consumer '{}' started for channel {} (group={})",
+                consumerName, channel.handler.getChannel(), properties.getConsumerGroup());
+    }
+
+    /**
+     * Weighted rounds over the lanes; blocks on all lanes with free slots once a round reads nothing
+     */
+    private void poll(Channel<?> channel) {
+        Consumer consumer = Consumer.from(properties.getConsumerGroup(), consumerName);
+        int totalWeight = channel.lanes.values().stream().mapToInt(lane -> lane.weight).sum();
+
+        while (running) {
+            try {
+                dispatchClaimed(channel);
+
+                int read = 0;
+                for (Lane lane : channel.lanes.values()) {
+                    int quota = Math.max(1, properties.getBatchSize() * lane.weight / totalWeight);
+                    int count = Math.min(quota,
+                            Math.min(lane.permits.availablePermits(), channel.permits.availablePermits()));
+                    if (count <= 0) {
+                        continue;
+                    }
+
+                    List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                            consumer, StreamReadOptions.empty().count(count),
+                            StreamOffset.create(lane.streamKey, ReadOffset.lastConsumed()));
+                    if (records != null) {
+                        records.forEach(record -> dispatch(channel, lane, record));
+                        read += records.size();
+                    }
+                }
+
+                if (read == 0) {
+                    awaitEntries(channel, consumer);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.error("Delivery queue read failed for channel {}, retrying", channel.handler.getChannel(), e);
+                pause(properties.getPollTimeoutMs());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void awaitEntries(Channel<?> channel, Consumer consumer) {
+        List<StreamOffset<String>> offsets = new ArrayList<>();
+        if (channel.permits.availablePermits() > 0) {
+            channel.lanes.values().stream()
+                    .filter(lane -> lane.permits.availablePermits() > 0)
+                    .forEach(lane -> offsets.add(StreamOffset.create(lane.streamKey, ReadOffset.lastConsumed())));
+        }
+        if (offsets.isEmpty()) {
+            pause(SATURATED_PAUSE_MS);
+            return;
+        }
+
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(consumer,
+                StreamReadOptions.empty().count(1).block(Duration.ofMillis(properties.getPollTimeoutMs())),
+                offsets.toArray(new StreamOffset[0]));
+        if (records != null) {
+            records.forEach(record -> dispatch(channel, channel.laneOf(record.getStream()), record));
+        }
+    }
+
+    /**
+     * Entries this consumer read before a restart and never acknowledged
+     */
+    private void recoverOwnPending(Channel<?> channel, Lane lane) {
+        Consumer consumer = Consumer.from(properties.getConsumerGroup(), consumerName);
+        StreamReadOptions options = StreamReadOptions.empty().count(properties.getBatchSize());
+        String lastId = "0-0";
+        int recovered = 0;
+
+        try {
+            while (running) {
+                List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                        consumer, options, StreamOffset.create(lane.streamKey, ReadOffset.from(lastId)));
+                if (records == null || records.isEmpty()) {
+                    break;
+                }
+                for (MapRecord<String, Object, Object> record : records) {
+                    dispatch(channel, lane, record);
+                    lastId = record.getId().getValue();
+                    recovered++;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not recover pending entries of {} on {}, they will be claimed after {}ms",
+                    consumerName, lane.streamKey, properties.getClaimIdleMs(), e);
+        }
+
+        if (recovered > 0) {
+            log.info("Recovered {} unacknowledged entries from {}", recovered, lane.streamKey);
+        }
+    }
+
+    /**
+     * Entries claimed by {@link #reclaimIdleEntries}, which leaves waiting for
+     * free slots to this reader instead of blocking the scheduler thread
+     */
+    private void dispatchClaimed(Channel<?> channel) {
+        for (Lane lane : channel.lanes.values()) {
+            MapRecord<String, Object, Object> record;
+            while (running && (record = lane.claimed.poll()) != null) {
+                dispatch(channel, lane, record);
+            }
+        }
+    }
+
+    private void dispatch(Channel<?> channel, Lane lane, MapRecord<String, Object, Object> record) {
+        String recordId = record.getId().getValue();
+        if (!lane.inFlight.add(recordId)) {
+            return;
+        }
+        try {
+            lane.permits.acquire();
+            try {
+                channel.permits.acquire();
+            } catch (InterruptedException e) {
+                lane.permits.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lane.inFlight.remove(recordId);
+            return;
+        }
+
+        deliveryExecutor.execute(() -> {
+            try {
+                process(channel, lane, record);
+            } finally {
+                lane.inFlight.remove(recordId);
+                channel.permits.release();
+                lane.permits.release();
+            }
+        });
+    }
+
+    private <T> void process(Channel<T> channel, Lane lane, MapRecord<String, Object, Object> record) {
+        String notificationId = (String) record.getValue().get(FIELD_NOTIFICATION_ID);
+        String channelName = channel.handler.getChannel();
+
+        T payload;
+        try {
+            payload = objectMapper.readValue((String) record.getValue().get(FIELD_PAYLOAD),
+                    channel.handler.getPayloadType());
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            deadLetter(channel, lane, record, "Unreadable queue entry: " + e.getMessage());
+            return;
+        }
+
+        try {
+            channel.handler.handle(notificationId, payload, lane.lane);
+            acknowledge(lane, record.getId());
+            count(channelName, lane.lane, "acked");
+            recordLatency(lane, record);
+        } catch (Exception e) {
+            log.warn("Delivery of {} notification {} failed, leaving it pending for redelivery: {}",
+                    channelName, notificationId, e.getMessage());
+            count(channelName, lane.lane, "failed");
+        }
+    }
+
+    // ==================== RECLAIM ====================
+
+    /**
+     * Claim entries left unacknowledged by a consumer that stopped or crashed.
+     * Runs on the shared scheduler thread, so it only claims; the channel's
+     * reader dispatches them once the lane has free slots.
+     */
+    @Scheduled(fixedDelayString = "${delivery.queue.claim-interval-ms:15000}")
+    public void reclaimIdleEntries() {
+        if (!running) {
+            return;
+        }
+        channels.values().forEach(channel -> channel.lanes.values().forEach(lane -> {
+            try {
+                reclaim(channel, lane);
+            } catch (Exception e) {
+                log.error("Reclaiming idle entries on {} failed", lane.streamKey, e);
+            }
+        }));
+    }
+
+    private void reclaim(Channel<?> channel, Lane lane) {
+        PendingMessages pending = redisTemplate.opsForStream().pending(lane.streamKey,
+                properties.getConsumerGroup(), Range.unbounded(), properties.getClaimBatchSize());
+
+        List<RecordId> claimable = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().toMillis() < properties.getClaimIdleMs()
+                    || lane.inFlight.contains(message.getIdAsString())
+                    || isClaimed(lane, message.getIdAsString())) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= properties.getMaxDeliveries()) {
+                deadLetter(channel, lane, message.getId(),
+                        "Gave up after " + message.getTotalDeliveryCount() + " deliveries");
+                continue;
+            }
+            claimable.add(message.getId());
+        }
+        if (claimable.isEmpty()) {
+            return;
+        }
+
+        // The min-idle check makes XCLAIM race-safe across instances
+        List<MapRecord<String, Object, Object>> claimed = redisTemplate.opsForStream().claim(
+                lane.streamKey, properties.getConsumerGroup(), consumerName,
+                Duration.ofMillis(properties.getClaimIdleMs()), claimable.toArray(new RecordId[0]));
+
+        log.info("Claimed {} idle entries on {}", claimed.size(), lane.streamKey);
+        count(channel.handler.getChannel(), lane.lane, "reclaimed", claimed.size());
+        lane.claimed.addAll(claimed);
+    }
+
+    private static boolean isClaimed(Lane lane, String recordId) {
+        return lane.claimed.stream().anyMatch(record -> record.getId().getValue().equals(recordId));
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private Channel<?> requireChannel(String channelName) {
+        Channel<?> channel = channels.get(channelName);
+        if (channel == null) {
+            throw new IllegalStateException("Unknown delivery queue channel: " + channelName);
+        }
+        return channel;
+    }
+
+    private <T> void handleLocally(DeliveryQueueHandler<T> handler, DeliveryLane lane, String notificationId,
+            String payloadJson) {
+        try {
+            handler.handle(notificationId, objectMapper.readValue(payloadJson, handler.getPayloadType()), lane);
+        } catch (Exception e) {
+            log.error("Local delivery of {} notification {} failed", handler.getChannel(), notificationId, e);
+            handler.deadLetter(notificationId, "Local delivery failed: " + e.getMessage());
+        }
+    }
+
+    private Lane createLane(String channelName, DeliveryLane deliveryLane) {
+        DeliveryQueueProperties.LaneConfig config = properties.getLane(deliveryLane);
+        int maxInFlight = Math.max(1, properties.getMaxInFlightPerChannel() * config.getMaxInFlightPercent() / 100);
+        String laneName = deliveryLane.name().toLowerCase();
+
+        Timer latency = Timer.builder("notification.queue.latency")
+                .description("Time from acceptance to completed delivery")
+                .tag("channel", channelName)
+                .tag("lane", laneName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(Duration.ofMillis(config.getLatencySloMs()))
+                .register(meterRegistry);
+        Counter sloBreaches = Counter.builder("notification.queue.slo.breaches")
+                .description("Deliveries that took longer than the lane's latency objective")
+                .tag("channel", channelName)
+                .tag("lane", laneName)
+                .register(meterRegistry);
+
+        Lane lane = new Lane(deliveryLane, properties.getStreamPrefix() + channelName + ":" + laneName,
+                new Semaphore(maxInFlight), config.getWeight(), config.getLatencySloMs(), latency, sloBreaches);
+
+        Gauge.builder("notification.queue.in_flight", lane.inFlight, Set::size)
+                .tag("channel", channelName)
+                .tag("lane", laneName)
+                .register(meterRegistry);
+        return lane;
+    }
+
+    private void recordLatency(Lane lane, MapRecord<String, Object, Object> record) {
+        Object enqueuedAt = record.getValue().get(FIELD_ENQUEUED_AT);
+        if (enqueuedAt == null) {
+            return;
+        }
+        long latencyMs = System.currentTimeMillis() - Long.parseLong((String) enqueuedAt);
+        lane.latency.record(latencyMs, TimeUnit.MILLISECONDS);
+        if (latencyMs > lane.latencySloMs) {
+            lane.sloBreaches.increment();
+        }
+    }
+
+    private void deadLetter(Channel<?> channel, Lane lane, RecordId recordId, String reason) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(lane.streamKey, Range.just(recordId.getValue()));
+        if (records == null || records.isEmpty()) {
+            // Trimmed away before it was delivered
+            log.error("Entry {} on {} is no longer in the stream, dropping it", recordId, lane.streamKey);
+            acknowledge(lane, recordId);
+            count(channel.handler.getChannel(), lane.lane, "dead_lettered");
+            return;
+        }
+        deadLetter(channel, lane, records.get(0), reason);
+    }
+
+    private void deadLetter(Channel<?> channel, Lane lane, MapRecord<String, Object, Object> record, String reason) {
+        String notificationId = (String) record.getValue().get(FIELD_NOTIFICATION_ID);
+        log.error("Dead-lettering {} notification {}: {}", channel.handler.getChannel(), notificationId, reason);
+
+        Map<String, String> fields = new HashMap<>();
+        record.getValue().forEach((key, value) -> fields.put(String.valueOf(key), String.valueOf(value)));
+        fields.put(FIELD_REASON, reason);
+        redisTemplate.opsForStream().add(
+                StreamRecords.string(fields).withStreamKey(lane.streamKey + DEAD_LETTER_SUFFIX),
+                XAddOptions.maxlen(properties.getMaxLength()).approximateTrimming(true));
+
+        if (notificationId != null) {
+            channel.handler.deadLetter(notificationId, reason);
+        }
+        acknowledge(lane, record.getId());
+        count(channel.handler.getChannel(), lane.lane, "dead_lettered");
+    }
+
+    private void acknowledge(Lane lane, RecordId recordId) {
+        redisTemplate.opsForStream().acknowledge(lane.streamKey, properties.getConsumerGroup(), recordId);
+    }
+
+    private void ensureGroup(String streamKey) {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands().xGroupCreate(
+                    streamKey.getBytes(StandardCharsets.UTF_8), properties.getConsumerGroup(),
+                    ReadOffset.from("0"), true));
+        } catch (Exception e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    private String resolveConsumerName() {
+        if (properties.getConsumerName() != null && !properties.getConsumerName().isBlank()) {
+            return properties.getConsumerName();
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            String name = "consumer-" + UUID.randomUUID();
+            log.warn("Could not resolve host name, using {} as delivery queue consumer name", name);
+            return name;
+        }
+    }
+
+    private void count(String channel, DeliveryLane lane, String outcome) {
+        count(channel, lane, outcome, 1);
+    }
+
+    private void count(String channel, DeliveryLane lane, String outcome, int amount) {
+        Counter.builder("notification.queue.entries")
+                .tag("channel", channel)
+                .tag("lane", lane.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment(amount);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Channel<T> {
+        private final DeliveryQueueHandler<T> handler;
+        private final Semaphore permits;
+        private final Map<DeliveryLane, Lane> lanes = new EnumMap<>(DeliveryLane.class);
+
+        private volatile Thread reader;
+
+        private Channel(DeliveryQueueHandler<T> handler, Semaphore permits) {
+            this.handler = handler;
+            this.permits = permits;
+        }
+
+        private Lane laneOf(String streamKey) {
+            return lanes.values().stream()
+                    .filter(lane -> lane.streamKey.equals(streamKey))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No lane for stream " + streamKey));
+        }
+    }
+
+    private static final class Lane {
+        private final DeliveryLane lane;
+        private final String streamKey;
+        private final Semaphore permits;
+        private final int weight;
+        private final long latencySloMs;
+        private final Timer latency;
+        private final Counter sloBreaches;
+        private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+        /** Claimed from other consumers, waiting for the reader to dispatch them */
+        private final Queue<MapRecord<String, Object, Object>> claimed = new ConcurrentLinkedQueue<>();
+
+        private Lane(DeliveryLane lane, String streamKey, Semaphore permits, int weight, long latencySloMs,
+                Timer latency, Counter sloBreaches) {
+            this.lane = lane;
+            this.streamKey = streamKey;
+            this.permits = permits;
+            this.weight = weight;
+            this.latencySloMs = latencySloMs;
+            this.latency = latency;
+            this.sloBreaches = sloBreaches;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.aigreentick.services.notification.service.queue;
+
+import com.aigreentick.services.common.model.base.MongoBaseEntity;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+
+/**
+ * Consumer side of one {@link DeliveryQueue} channel
+ *
+ * @param <T> payload stored alongside the notification id
+ */
+public interface DeliveryQueueHandler<T> {
+
+    /**
+     * Channel name; also the stream name suffix
+     */
+    String getChannel();
+
+    Class<T> getPayloadType();
+
+    /**
+     * Entity holding the channel's notification records
+     */
+    Class<? extends MongoBaseEntity> getNotificationType();
+
+    /**
+     * Deliver one entry. Returning normally acknowledges it; throwing leaves it
+     * pending so it is redelivered, possibly on another instance. Entries are
+     * delivered at least once, so a notification already in a terminal status
+     * should be skipped.
+     *
+     * @param lane lane the entry was queued on
+     */
+    void handle(String notificationId, T payload, DeliveryLane lane);
+
+    /**
+     * Called once an entry has been delivered too many times or cannot be read
+     */
+    void deadLetter(String notificationId, String reason);
+}
@@ -0,0 +1,131 @@
+package com.aigreentick.services.notification.service.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for items due in the near future.
+ *
+ * The lowest level has {@code wheelSize} buckets of {@code tickMs} each; an
+ * item due beyond its span goes to an overflow level whose tick is the span
+ * of the level below, created on demand. Adding is O(1). Advancing drains one
+ * bucket per tick and, when the lowest level completes a rotation, moves the
+ * next bucket of the level above down a level. An item is released at the end
+ * of its tick, so never early and at most {@code tickMs} late. Not thread-safe.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs < 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be >= 1 and wheelSize >= 2");
+        }
+        this.wheelSize = wheelSize;
+        levels.add(new Level<>(tickMs, wheelSize, startMs - startMs % tickMs));
+    }
+
+    /**
+     * @return false if the item is already due; the caller releases it itself
+     */
+    public boolean add(T item, long dueAtMs) {
+        Level<T> base = levels.get(0);
+        if (dueAtMs < base.currentTime) {
+            return false;
+        }
+        for (int i = 0; ; i++) {
+            Level<T> level = i < levels.size() ? levels.get(i) : addLevel();
+            if (dueAtMs < level.currentTime + level.interval) {
+                level.bucket(dueAtMs).add(new Entry<>(item, dueAtMs));
+                size++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Move the wheel up to {@code nowMs}, handing every item now due to {@code sink}
+     */
+    public void advance(long nowMs, Consumer<T> sink) {
+        Level<T> base = levels.get(0);
+        while (base.currentTime + base.tickMs <= nowMs) {
+            drain(base.bucket(base.currentTime), sink);
+            base.currentTime += base.tickMs;
+            cascade(sink);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Once a level completes a rotation, the bucket of the next tick of the level
+     * above now falls within its span, so it is spread over the lower levels
+     */
+    private void cascade(Consumer<T> sink) {
+        for (int i = 1; i < levels.size(); i++) {
+            long lowerTime = levels.get(i - 1).currentTime;
+            Level<T> upper = levels.get(i);
+            if (lowerTime < upper.currentTime + upper.tickMs) {
+                return;
+            }
+            upper.currentTime = lowerTime - lowerTime % upper.tickMs;
+
+            List<Entry<T>> bucket = upper.bucket(upper.currentTime);
+            List<Entry<T>> moved = new ArrayList<>(bucket);
+            bucket.clear();
+            size -= moved.size();
+            for (Entry<T> entry : moved) {
+                if (!add(entry.item, entry.dueAtMs)) {
+                    sink.accept(entry.item);
+                }
+            }
+        }
+    }
+
+    private void drain(List<Entry<T>> bucket, Consumer<T> sink) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+        size -= bucket.size();
+        List<Entry<T>> due = new ArrayList<>(bucket);
+        bucket.clear();
+        due.forEach(entry -> sink.accept(entry.item));
+    }
+
+    private Level<T> addLevel() {
+        Level<T> top = levels.get(levels.size() - 1);
+        Level<T> overflow = new Level<>(top.interval, wheelSize, top.currentTime - top.currentTime % top.interval);
+        levels.add(overflow);
+        return overflow;
+    }
+
+    private record Entry<T>(T item, long dueAtMs) {
+    }
+
+    private static final class Level<T> {
+        private final long tickMs;
+        private final long interval;
+        private final List<List<Entry<T>>> buckets;
+        /** Start of the current tick */
+        private long currentTime;
+
+        private Level(long tickMs, int wheelSize, long currentTime) {
+            this.tickMs = tickMs;
+            this.interval = tickMs * wheelSize;
+            this.currentTime = currentTime;
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new ArrayList<>());
+            }
+        }
+
+        private List<Entry<T>> bucket(long timeMs) {
+            return buckets.get((int) ((timeMs / tickMs) % buckets.size()));
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.aigreentick.services.notification.service.scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.common.model.base.MongoBaseEntity;
+import com.aigreentick.services.notification.config.properties.DeliverySchedulerProperties;
+import com.aigreentick.services.notification.enums.DeliveryLane;
+import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.aigreentick.services.notification.enums.ScheduledDeliveryStatus;
+import com.aigreentick.services.notification.model.entity.ScheduledDelivery;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.aigreentick.services.notification.service.batch.StatusTransition;
+import com.aigreentick.services.notification.service.queue.DeliveryQueue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds scheduled sends until their time and then releases them to the
+ * {@link DeliveryQueue}.
+ *
+ * Every entry is stored in MongoDB first. Entries due within the horizon are
+ * claimed by one instance (a lease, taken with a guarded update) and kept in
+ * its {@link HierarchicalTimingWheel}; the rest stay in MongoDB until a scan
+ * brings them within the horizon. Claims of a stopped instance are handed
+ * back on shutdown, and those of a crashed one are taken over once their lease
+ * runs out. Releases are paced to {@code max-releases-per-second}, and
+ * {@link DeliveryQueue#publishAllOnce} keeps a notification released by two
+ * instances from being queued twice.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduledDeliveryService {
+
+    private final MongoTemplate mongoTemplate;
+    private final DeliveryQueue deliveryQueue;
+    private final NotificationStatusWriter statusWriter;
+    private final DeliverySchedulerProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Object wheelLock = new Object();
+    /** Due entries waiting for release credit; guarded by wheelLock */
+    private final Deque<ScheduledDelivery> ready = new ArrayDeque<>();
+
+    private HierarchicalTimingWheel<ScheduledDelivery> wheel;
+    private double releaseCredit;
+    private ScheduledExecutorService ticker;
+
+    private Counter scheduledCounter;
+    private Counter releasedCounter;
+    private Counter releaseFailedCounter;
+    private Timer releaseDelayTimer;
+
+    @PostConstruct
+    public void init() {
+        wheel = new HierarchicalTimingWheel<>(properties.getTickMs(), properties.getWheelSize(),
+                System.currentTimeMillis());
+
+        scheduledCounter = Counter.builder("notification.scheduler.scheduled")
+                .register(meterRegistry);
+        releasedCounter = Counter.builder("notification.scheduler.released")
+                .register(meterRegistry);
+        releaseFailedCounter = Counter.builder("notification.scheduler.release.failures")
+                .description("Releases left for another attempt after the lease runs out")
+                .register(meterRegistry);
+        releaseDelayTimer = Timer.builder("notification.scheduler.release.delay")
+                .description("Time between the scheduled time and the release to the delivery queue")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("notification.scheduler.wheel.size", this, ScheduledDeliveryService::getWheelSize)
+                .register(meterRegistry);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "delivery-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, properties.getTickMs(), properties.getTickMs(),
+                TimeUnit.MILLISECONDS);
+
+        log.info("Delivery scheduler started (tick={}ms, horizon={}ms, instance={})",
+                properties.getTickMs(), properties.getHorizonMs(), instanceId);
+    }
+
+    /**
+     * Hand this instance's claims back so another instance picks them up without waiting for the lease
+     */
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        try {
+            long returned = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("status").is(ScheduledDeliveryStatus.CLAIMED)
+                            .and("claimedBy").is(instanceId)),
+                    new Update()
+                            .set("status", ScheduledDeliveryStatus.SCHEDULED)
+                            .unset("claimedBy")
+                            .unset("claimToken")
+                            .unset("leaseUntil"),
+                    ScheduledDelivery.class).getModifiedCount();
+            log.info("Returned {} claimed scheduled deliveries", returned);
+        } catch (Exception e) {
+            log.warn("Could not return claimed scheduled deliveries, they are taken over after their lease", e);
+        }
+    }
+
+    // ==================== SCHEDULING ====================
+
+    /**
+     * @return true if the send should be scheduled rather than delivered now
+     */
+    public boolean isScheduled(Instant scheduledAt) {
+        return scheduledAt != null && scheduledAt.isAfter(Instant.now());
+    }
+
+    public void validateScheduledAt(Instant scheduledAt) {
+        if (scheduledAt != null
+                && scheduledAt.isAfter(Instant.now().plus(Duration.ofDays(properties.getMaxScheduleAheadDays())))) {
+            throw new IllegalArgumentException(
+                    "scheduledAt must be within " + properties.getMaxScheduleAheadDays() + " days");
+        }
+    }
+
+    /**
+     * Store a send for later release. The caller has created the notification
+     * in SCHEDULED status.
+     *
+     * @param payload queue payload of the channel, as {@link DeliveryQueue#publish} would take it
+     */
+    public void schedule(String channel, DeliveryLane lane, String notificationId, Object payload, Instant dueAt) {
+        Class<? extends MongoBaseEntity> notificationType = deliveryQueue.getHandler(channel).getNotificationType();
+        // The release may happen on another instance; it must find the record in MongoDB
+        statusWriter.flush(notificationType, notificationId);
+
+        boolean nearTerm = dueAt.toEpochMilli() < System.currentTimeMillis() + properties.getHorizonMs()
+                && getWheelSize() < properties.getMaxWheelEntries();
+
+        ScheduledDelivery entry = ScheduledDelivery.builder()
+                .channel(channel)
+                .lane(lane)
+                .notificationId(notificationId)
+                .payload(serialize(payload))
+                .dueAt(dueAt)
+                .status(nearTerm ? ScheduledDeliveryStatus.CLAIMED : ScheduledDeliveryStatus.SCHEDULED)
+                .claimedBy(nearTerm ? instanceId : null)
+                .leaseUntil(nearTerm ? dueAt.plusMillis(properties.getLeaseMs()) : null)
+                .createdAt(Instant.now())
+                .build();
+        entry = mongoTemplate.insert(entry);
+
+        if (nearTerm) {
+            addToWheel(entry);
+        }
+        scheduledCounter.increment();
+        log.info("Scheduled {} notification {} for {}", channel, notificationId, dueAt);
+    }
+
+    // ==================== CLAIMING ====================
+
+    /**
+     * Claim entries coming within the horizon, and entries whose claim has expired
+     */
+    @Scheduled(fixedDelayString = "${delivery.scheduler.scan-interval-ms:5000}")
+    public void claimDueEntries() {
+        try {
+            while (true) {
+                int room = properties.getMaxWheelEntries() - getWheelSize();
+                int limit = Math.min(room, properties.getClaimBatchSize());
+                if (limit <= 0 || claimBatch(limit) < limit) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Claiming scheduled deliveries failed", e);
+        }
+    }
+
+    /**
+     * @return number of candidates found, whether or not this instance won them
+     */
+    private int claimBatch(int limit) {
+        Instant now = Instant.now();
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("status").is(ScheduledDeliveryStatus.SCHEDULED)
+                        .and("dueAt").lte(now.plusMillis(properties.getHorizonMs())),
+                Criteria.where("status").is(ScheduledDeliveryStatus.CLAIMED)
+                        .and("leaseUntil").lt(now));
+
+        Query candidates = Query.query(claimable).with(Sort.by("dueAt")).limit(limit);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, ScheduledDelivery.class).stream()
+                .map(ScheduledDelivery::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Guarded by the same criteria, so an entry goes to exactly one instance
+        String claimToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable)),
+                new Update()
+                        .set("status", ScheduledDeliveryStatus.CLAIMED)
+                        .set("claimedBy", instanceId)
+                        .set("claimToken", claimToken)
+                        .set("leaseUntil", now.plusMillis(properties.getHorizonMs() + properties.getLeaseMs())),
+                ScheduledDelivery.class);
+
+        List<ScheduledDelivery> won = mongoTemplate.find(
+                Query.query(Criteria.where("claimToken").is(claimToken)), ScheduledDelivery.class);
+        won.forEach(this::addToWheel);
+
+        if (!won.isEmpty()) {
+            log.debug("Claimed {} scheduled deliveries", won.size());
+        }
+        return ids.size();
+    }
+
+    // ==================== RELEASING ====================
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            List<ScheduledDelivery> batch = new ArrayList<>();
+
+            synchronized (wheelLock) {
+                wheel.advance(now, ready::add);
+
+                double perTick = properties.getMaxReleasesPerSecond() * properties.getTickMs() / 1000.0;
+                releaseCredit = Math.min(releaseCredit + perTick, Math.max(perTick, 1));
+                while (releaseCredit >= 1 && !ready.isEmpty()) {
+                    batch.add(ready.poll());
+                    releaseCredit--;
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                release(batch);
+            }
+        } catch (Exception e) {
+            log.error("Delivery scheduler tick failed", e);
+        }
+    }
+
+    /**
+     * One status flush per channel and one pipelined publish per lane for the
+     * whole tick, so a burst of due entries costs a few round trips, not a few per entry
+     */
+    private void release(List<ScheduledDelivery> batch) {
+        Map<String, List<ScheduledDelivery>> byChannel = new LinkedHashMap<>();
+        batch.forEach(entry -> byChannel.computeIfAbsent(entry.getChannel(), channel -> new ArrayList<>()).add(entry));
+
+        List<String> released = new ArrayList<>(batch.size());
+        byChannel.forEach((channel, entries) -> {
+            try {
+                releaseChannel(channel, entries, released);
+            } catch (Exception e) {
+                // Still claimed in MongoDB; taken over once the lease runs out
+                log.error("Releasing {} scheduled {} notifications failed", entries.size(), channel, e);
+                releaseFailedCounter.increment(entries.size());
+            }
+        });
+
+        if (!released.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(released)), ScheduledDelivery.class);
+        }
+    }
+
+    private void releaseChannel(String channel, List<ScheduledDelivery> entries, List<String> released) {
+        Class<? extends MongoBaseEntity> notificationType = deliveryQueue.getHandler(channel).getNotificationType();
+
+        List<String> notificationIds = new ArrayList<>(entries.size());
+        for (ScheduledDelivery entry : entries) {
+            statusWriter.transition(notificationType, entry.getNotificationId(),
+                    StatusTransition.to(NotificationStatus.PENDING));
+            notificationIds.add(entry.getNotificationId());
+        }
+        statusWriter.flush(notificationType, notificationIds);
+
+        Map<DeliveryLane, List<ScheduledDelivery>> byLane = new EnumMap<>(DeliveryLane.class);
+        entries.forEach(entry -> byLane.computeIfAbsent(entry.getLane(), lane -> new ArrayList<>()).add(entry));
+
+        Duration markerTtl = Duration.ofHours(properties.getReleaseMarkerTtlHours());
+        byLane.forEach((lane, laneEntries) -> {
+            Map<String, String> payloads = new LinkedHashMap<>();
+            laneEntries.forEach(entry -> payloads.put(entry.getNotificationId(), entry.getPayload()));
+
+            if (!deliveryQueue.publishAllOnce(channel, lane, payloads, markerTtl)) {
+                payloads.forEach((notificationId, payloadJson) ->
+                        deliveryQueue.deliverLocally(channel, lane, notificationId, payloadJson));
+            }
+
+            long now = System.currentTimeMillis();
+            for (ScheduledDelivery entry : laneEntries) {
+                released.add(entry.getId());
+                releasedCounter.increment();
+                releaseDelayTimer.record(Math.max(0, now - entry.getDueAt().toEpochMilli()), TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void addToWheel(ScheduledDelivery entry) {
+        synchronized (wheelLock) {
+            if (!wheel.add(entry, entry.getDueAt().toEpochMilli())) {
+                ready.add(entry);
+            }
+        }
+    }
+
+    public int getWheelSize() {
+        synchronized (wheelLock) {
+            return wheel.size() + ready.size();
+        }
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize scheduled payload", e);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.aigreentick.services.notification.validator;
 
+import java.util.regex.Pattern;
+
 import org.springframework.stereotype.Service;
 
 import com.aigreentick.services.notification.config.properties.PushProperties;
 import com.aigreentick.services.notification.dto.request.push.SendPushRequest;
+import com.aigreentick.services.notification.dto.request.push.SendSegmentPushRequest;
+import com.aigreentick.services.notification.dto.request.push.SendTopicPushRequest;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +17,8 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class PushValidationService {
     
+    private static final Pattern TOPIC_NAME = Pattern.compile("[a-zA-Z0-9-_.~%]{1,900}");
+    
     private final PushProperties pushProperties;
     
     public void validateSendRequest(SendPushRequest request) {
@@ -27,30 +33,76 @@ public class PushValidationService {
         validateDataPayload(request);
     }
     
+    public void validateTopicSendRequest(SendTopicPushRequest request) {
+        boolean hasTopic = request.getTopic() != null && !request.getTopic().isBlank();
+        boolean hasCondition = request.getCondition() != null && !request.getCondition().isBlank();
+        if (hasTopic == hasCondition) {
+            throw new IllegalArgumentException("Exactly one of topic or condition must be provided");
+        }
+        if (hasTopic) {
+            validateTopicName(request.getTopic());
+        }
+        
+        if (!pushProperties.getValidation().isEnabled()) {
+            return;
+        }
+        validateContent(request.getTitle(), request.getBody());
+    }
+    
+    public void validateSegmentSendRequest(SendSegmentPushRequest request) {
+        boolean hasUserIds = request.getUserIds() != null && !request.getUserIds().isEmpty();
+        boolean hasFilter = request.getPlatform() != null
+                || request.getAppVersion() != null
+                || request.getLanguage() != null;
+        if (!hasUserIds && !hasFilter) {
+            // An empty segment would match every device
+            throw new IllegalArgumentException("Segment needs user IDs or at least one filter");
+        }
+        
+        if (!pushProperties.getValidation().isEnabled()) {
+            return;
+        }
+        validateContent(request.getTitle(), request.getBody());
+    }
+    
+    /**
+     * FCM topic names: letters, digits and -_.~% only
+     */
+    public void validateTopicName(String topic) {
+        if (topic == null || !TOPIC_NAME.matcher(topic).matches()) {
+            throw new IllegalArgumentException("Invalid topic name: " + topic);
+        }
+    }
+    
     private void validateRecipient(SendPushRequest request) {
-        if (request.getDeviceToken() == null && request.getUserId() == null) {
+        boolean hasUserIds = request.getUserIds() != null && !request.getUserIds().isEmpty();
+        if (request.getDeviceToken() == null && request.getUserId() == null && !hasUserIds) {
             throw new IllegalArgumentException(
-                    "Either device token or user ID must be provided");
+                    "Either device token, user ID or user IDs must be provided");
         }
     }
     
     private void validateContent(SendPushRequest request) {
+        validateContent(request.getTitle(), request.getBody());
+    }
+    
+    private void validateContent(String title, String body) {
         PushProperties.ValidationConfig validation = pushProperties.getValidation();
         
-        if (request.getTitle() == null || request.getTitle().isBlank()) {
+        if (title == null || title.isBlank()) {
             throw new IllegalArgumentException("Title is required");
         }
         
-        if (request.getTitle().length() > validation.getMaxTitleLength()) {
+        if (title.length() > validation.getMaxTitleLength()) {
             throw new IllegalArgumentException(
                     "Title exceeds maximum length of " + validation.getMaxTitleLength());
         }
         
-        if (request.getBody() == null || request.getBody().isBlank()) {
+        if (body == null || body.isBlank()) {
             throw new IllegalArgumentException("Body is required");
         }
         
-        if (request.getBody().length() > validation.getMaxBodyLength()) {
+        if (body.length() > validation.getMaxBodyLength()) {
             throw new IllegalArgumentException(
                     "Body exceeds maximum length of " + validation.getMaxBodyLength());
         }
@@ -0,0 +1,99 @@
+package com.aigreentick.services.notification.batch;
+
+import com.aigreentick.services.notification.service.batch.BatchEntryCodec;
+import com.aigreentick.services.notification.service.batch.BatchWriteAheadLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Batch write-ahead log")
+class BatchWriteAheadLogTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    private static final BatchEntryCodec<String> CODEC = new BatchEntryCodec<>() {
+        @Override
+        public String encode(String entry) {
+            return entry;
+        }
+
+        @Override
+        public String decode(String line) {
+            return line;
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Unreleased entries are replayed in order after a crash")
+    void replaysUnreleasedEntries() throws IOException {
+        BatchWriteAheadLog<String> wal = openLog();
+        for (int i = 0; i < 100; i++) {
+            wal.append("entry-" + i);
+        }
+        // No close(): simulate the JVM dying with everything still queued
+
+        BatchWriteAheadLog<String> restarted = newLog();
+        List<String> recovered = restarted.recover();
+
+        assertThat(recovered).hasSize(100);
+        assertThat(recovered.get(0)).isEqualTo("entry-0");
+        assertThat(recovered.get(99)).isEqualTo("entry-99");
+    }
+
+    @Test
+    @DisplayName("Full segments are deleted once every entry is released")
+    void deletesReleasedSegments() throws IOException {
+        BatchWriteAheadLog<String> wal = openLog();
+        List<Long> segments = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            segments.add(wal.append("entry-" + i + "-padding-padding-padding"));
+        }
+        assertThat(wal.getSegmentCount()).isGreaterThan(1);
+
+        segments.forEach(segment -> wal.release(segment, 1, true));
+        wal.close();
+
+        assertThat(segmentFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Segments with failed flushes are kept for replay")
+    void keepsSegmentsWithFailedFlushes() throws IOException {
+        BatchWriteAheadLog<String> wal = openLog();
+        long segment = wal.append("entry-0");
+        wal.release(segment, 1, false);
+        wal.close();
+
+        assertThat(newLog().recover()).containsExactly("entry-0");
+    }
+
+    private BatchWriteAheadLog<String> newLog() {
+        return new BatchWriteAheadLog<>("test", directory, CODEC, SEGMENT_BYTES, 1, 1000);
+    }
+
+    private BatchWriteAheadLog<String> openLog() throws IOException {
+        BatchWriteAheadLog<String> wal = newLog();
+        wal.recover();
+        wal.discardRecovered();
+        wal.open();
+        return wal;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
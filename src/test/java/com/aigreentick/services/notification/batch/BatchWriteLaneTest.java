@@ -0,0 +1,83 @@
+package com.aigreentick.services.notification.batch;
+
+import com.aigreentick.services.notification.config.properties.BatchWriterProperties;
+import com.aigreentick.services.notification.exceptions.NotificationBackpressureException;
+import com.aigreentick.services.notification.service.batch.BatchEntryCodec;
+import com.aigreentick.services.notification.service.batch.BatchFlushResult;
+import com.aigreentick.services.notification.service.batch.BatchWriteAheadLog;
+import com.aigreentick.services.notification.service.batch.BatchWriteLane;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Batch write lane with a write-ahead log")
+class BatchWriteLaneTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    private static final BatchEntryCodec<String> CODEC = new BatchEntryCodec<>() {
+        @Override
+        public String encode(String entry) {
+            return entry;
+        }
+
+        @Override
+        public String decode(String line) {
+            return line;
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    private final List<String> flushed = new CopyOnWriteArrayList<>();
+    private BatchWriteLane<String> lane;
+
+    @BeforeEach
+    void setUp() {
+        BatchWriterProperties properties = new BatchWriterProperties();
+        properties.setFlushIntervalMs(10);
+        properties.getWal().setDirectory(directory.toString());
+
+        BatchWriteAheadLog<String> wal = new BatchWriteAheadLog<>("test", directory, CODEC, SEGMENT_BYTES, 1, 1000);
+        lane = new BatchWriteLane<>("test", batch -> {
+            flushed.addAll(batch);
+            return BatchFlushResult.builder()
+                    .requested(batch.size())
+                    .inserted(batch.size())
+                    .attempts(1)
+                    .build();
+        }, properties, CODEC, wal, new SimpleMeterRegistry().timer("test.queue"));
+        lane.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lane.shutdown(1000);
+    }
+
+    @Test
+    @DisplayName("An entry the log cannot take is rejected instead of queued")
+    void rejectsEntryWhenLogAppendFails() {
+        String tooLarge = "x".repeat(SEGMENT_BYTES);
+
+        assertThatThrownBy(() -> lane.enqueue(tooLarge))
+                .isInstanceOf(NotificationBackpressureException.class);
+        lane.enqueue("entry-0");
+        lane.shutdown(1000);
+
+        assertThat(lane.getWalFailures()).isEqualTo(1);
+        assertThat(lane.getRejectedDocuments()).isEqualTo(1);
+        assertThat(flushed).containsExactly("entry-0");
+    }
+}
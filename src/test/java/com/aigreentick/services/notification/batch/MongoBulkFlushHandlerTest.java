@@ -0,0 +1,138 @@
+package com.aigreentick.services.notification.batch;
+
+import com.aigreentick.services.notification.model.entity.EmailNotification;
+import com.aigreentick.services.notification.service.batch.BatchFlushResult;
+import com.aigreentick.services.notification.service.batch.BatchWriteEntry;
+import com.aigreentick.services.notification.service.batch.MongoBulkFlushHandler;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("MongoDB bulk flush handler")
+class MongoBulkFlushHandlerTest {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int HOST_UNREACHABLE = 6;
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulk;
+    private MongoBulkFlushHandler<EmailNotification> handler;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class, RETURNS_SELF);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(EmailNotification.class))).thenReturn(bulk);
+        handler = new MongoBulkFlushHandler<>("email", mongoTemplate, EmailNotification.class, 3, 1, 5);
+    }
+
+    @Test
+    @DisplayName("Only the documents that failed are written again")
+    void retriesFailedIndexesOnly() {
+        List<BatchWriteEntry<EmailNotification>> batch = entries(3);
+        when(bulk.execute())
+                .thenThrow(bulkFailure(2, error(HOST_UNREACHABLE, 1)))
+                .thenReturn(inserted(1));
+
+        BatchFlushResult result = handler.flush(batch);
+
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getAttempts()).isEqualTo(2);
+        verify(bulk, times(1)).insert(batch.get(0).getDocument());
+        verify(bulk, times(2)).insert(batch.get(1).getDocument());
+        verify(bulk, times(1)).insert(batch.get(2).getDocument());
+    }
+
+    @Test
+    @DisplayName("A document still failing after the last attempt counts as failed")
+    void givesUpAfterMaxAttempts() {
+        List<BatchWriteEntry<EmailNotification>> batch = entries(2);
+        when(bulk.execute())
+                .thenThrow(bulkFailure(1, error(HOST_UNREACHABLE, 1)))
+                .thenThrow(bulkFailure(0, error(HOST_UNREACHABLE, 0)))
+                .thenThrow(bulkFailure(0, error(HOST_UNREACHABLE, 0)));
+
+        BatchFlushResult result = handler.flush(batch);
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A duplicate-key insert whose id is stored counts as persisted and is not overwritten")
+    void countsStoredDuplicatesAsPersisted() {
+        List<BatchWriteEntry<EmailNotification>> batch = entries(2);
+        when(bulk.execute())
+                .thenThrow(bulkFailure(1, error(DUPLICATE_KEY, 0)));
+        when(mongoTemplate.find(any(Query.class), eq(EmailNotification.class)))
+                .thenReturn(List.of(EmailNotification.builder().id(batch.get(0).getDocument().getId()).build()));
+
+        BatchFlushResult result = handler.flush(batch);
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getAttempts()).isEqualTo(1);
+        verify(bulk, never()).replaceOne(any(Query.class), any(), any());
+    }
+
+    @Test
+    @DisplayName("A duplicate key on another field drops the document without retrying it")
+    void dropsDuplicatesOfOtherKeys() {
+        List<BatchWriteEntry<EmailNotification>> batch = entries(1);
+        when(bulk.execute())
+                .thenThrow(bulkFailure(0, error(DUPLICATE_KEY, 0)));
+        when(mongoTemplate.find(any(Query.class), eq(EmailNotification.class))).thenReturn(List.of());
+
+        BatchFlushResult result = handler.flush(batch);
+
+        assertThat(result.getDuplicates()).isZero();
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getAttempts()).isEqualTo(1);
+    }
+
+    private static List<BatchWriteEntry<EmailNotification>> entries(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BatchWriteEntry.of(EmailNotification.builder().subject("subject-" + i).build()))
+                .toList();
+    }
+
+    private static BulkWriteError error(int code, int index) {
+        return new BulkWriteError(code, "write error " + code, new BsonDocument(), index);
+    }
+
+    private static BulkWriteResult inserted(int count) {
+        return BulkWriteResult.acknowledged(count, 0, 0, 0, List.of(), List.of());
+    }
+
+    private static BulkOperationException bulkFailure(int inserted, BulkWriteError error) {
+        return new BulkOperationException("bulk write failed", new MongoBulkWriteException(
+                inserted(inserted), List.of(error), null, new ServerAddress(), Set.of()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.aigreentick.services.notification.batch;
+
+import com.aigreentick.services.notification.config.properties.StatusWriterProperties;
+import com.aigreentick.services.notification.enums.NotificationStatus;
+import com.aigreentick.services.notification.model.entity.EmailNotification;
+import com.aigreentick.services.notification.service.batch.NotificationStatusWriter;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Notification status writer")
+class NotificationStatusWriterTest {
+
+    private NotificationStatusWriter writer;
+
+    @AfterEach
+    void stop() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("An explicit flush waits for the insert the tick is already writing")
+    void flushWaitsForTickInFlight() throws Exception {
+        CountDownLatch tickWriting = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        BulkOperations bulk = mock(BulkOperations.class, RETURNS_SELF);
+        when(bulk.execute()).thenAnswer(invocation -> {
+            tickWriting.countDown();
+            commit.await(5, TimeUnit.SECONDS);
+            return mock(BulkWriteResult.class);
+        });
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(EmailNotification.class))).thenReturn(bulk);
+
+        StatusWriterProperties properties = new StatusWriterProperties();
+        properties.setTickMs(5);
+        properties.setCoalesceWindowMs(1);
+        writer = new NotificationStatusWriter(mongoTemplate, properties, new SimpleMeterRegistry());
+        writer.init();
+
+        String id = writer.create(EmailNotification.class, EmailNotification.builder().build(),
+                NotificationStatus.PENDING).getId();
+        assertThat(tickWriting.await(2, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> flushed = CompletableFuture.runAsync(() -> writer.flush(EmailNotification.class, id));
+        assertThatThrownBy(() -> flushed.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        commit.countDown();
+        flushed.get(2, TimeUnit.SECONDS);
+        verify(mongoTemplate, times(1)).bulkOps(any(BulkOperations.BulkMode.class), eq(EmailNotification.class));
+    }
+}
@@ -0,0 +1,101 @@
+package com.aigreentick.services.notification.bulk;
+
+import com.aigreentick.services.notification.config.properties.BulkSendProperties;
+import com.aigreentick.services.notification.dto.response.BulkItemResult;
+import com.aigreentick.services.notification.dto.response.BulkSendSummary;
+import com.aigreentick.services.notification.service.bulk.NdjsonBulkProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("NDJSON bulk processor")
+class NdjsonBulkProcessorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    record Item(String name) {
+    }
+
+    @Test
+    @DisplayName("Items are handed over in chunks and answered with one line each plus a summary")
+    void acceptsInChunks() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            input.append("{\"name\":\"item-").append(i).append("\"}\n");
+        }
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkSendSummary summary = processor(10).process(null, stream(input.toString()), out, Item.class, chunk -> {
+            chunkSizes.add(chunk.size());
+            return chunk.stream()
+                    .map(item -> BulkItemResult.accepted(item.index(), item.item().name(), null))
+                    .toList();
+        });
+
+        assertThat(chunkSizes).containsExactly(10, 10, 5);
+        assertThat(summary.getTotal()).isEqualTo(25);
+        assertThat(summary.getAccepted()).isEqualTo(25);
+        assertThat(summary.getError()).isNull();
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(26);
+        assertThat(objectMapper.readValue(lines.get(24), BulkItemResult.class).getNotificationId())
+                .isEqualTo("item-24");
+    }
+
+    @Test
+    @DisplayName("Items that do not map are rejected on their own; malformed JSON ends the submission")
+    void rejectsBadItems() throws IOException {
+        String input = """
+                {"name":"a"}
+                {"name":{"nested":true}}
+                42
+                {"name":"b"}
+                {"name":
+                {"name":"never read"}
+                """;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkSendSummary summary = processor(100).process(null, stream(input), out, Item.class, chunk -> chunk.stream()
+                .map(item -> BulkItemResult.accepted(item.index(), item.item().name(), null))
+                .toList());
+
+        List<BulkItemResult> results = out.toString(StandardCharsets.UTF_8).lines()
+                .limit(summary.getTotal())
+                .map(this::read)
+                .toList();
+
+        assertThat(results).extracting(BulkItemResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BulkItemResult::isAccepted).containsExactly(true, false, false, true);
+        assertThat(summary.getRejected()).isEqualTo(2);
+        assertThat(summary.getError()).startsWith("Malformed JSON at item 4");
+    }
+
+    private NdjsonBulkProcessor processor(int chunkSize) {
+        BulkSendProperties properties = new BulkSendProperties();
+        properties.setChunkSize(chunkSize);
+        return new NdjsonBulkProcessor(objectMapper, properties, null);
+    }
+
+    private BulkItemResult read(String line) {
+        try {
+            return objectMapper.readValue(line, BulkItemResult.class);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.aigreentick.services.notification.concurrency;
+
+import com.aigreentick.services.notification.config.AsyncConfig;
+import com.aigreentick.services.notification.config.properties.AsyncProperties;
+import com.aigreentick.services.notification.enums.AsyncExecutionMode;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.enums.email.EmailProviderType;
+import com.aigreentick.services.notification.service.concurrency.ProviderBulkheads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares POOL and VIRTUAL modes on sends that stay blocked until released,
+ * by how many of them are in flight at once
+ */
+@DisplayName("Async execution mode load comparison")
+class AsyncExecutionModeLoadTest {
+
+    private static final int SENDS = 400;
+    private static final int POOL_SIZE = 10;
+    private static final int PROVIDER_LIMIT = 200;
+
+    @Test
+    @DisplayName("Virtual threads fill the provider limit with blocking sends while the pool stays within its threads")
+    void virtualModeReachesProviderLimit() throws InterruptedException {
+        int pool = peakInFlight(AsyncExecutionMode.POOL, 1);
+        int virtual = peakInFlight(AsyncExecutionMode.VIRTUAL, PROVIDER_LIMIT);
+
+        assertThat(pool).isBetween(1, POOL_SIZE);
+        assertThat(virtual).isEqualTo(PROVIDER_LIMIT);
+    }
+
+    /**
+     * Hold every send until {@code released} are in flight, then let them all finish
+     */
+    private int peakInFlight(AsyncExecutionMode mode, int released) throws InterruptedException {
+        AsyncProperties properties = new AsyncProperties();
+        AsyncProperties.EmailAsyncConfig email = properties.getEmail();
+        email.setMode(mode);
+        email.setCorePoolSize(POOL_SIZE);
+        email.setMaxPoolSize(POOL_SIZE);
+        email.setQueueCapacity(SENDS);
+        email.setMaxConcurrentSendsPerProvider(PROVIDER_LIMIT);
+        AsyncProperties.ProviderBulkheadConfig smtp = new AsyncProperties.ProviderBulkheadConfig();
+        smtp.setMaxWaitingCalls(SENDS);
+        smtp.setMaxWaitMs(30000);
+        properties.getBulkheads().put("SMTP", smtp);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Executor executor = new AsyncConfig(properties, meterRegistry).emailTaskExecutor();
+        ProviderBulkheads bulkheads = new ProviderBulkheads(properties, meterRegistry);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(SENDS);
+
+        for (int i = 0; i < SENDS; i++) {
+            executor.execute(() -> {
+                try {
+                    bulkheads.run(NotificationChannel.EMAIL, EmailProviderType.SMTP, () -> {
+                        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        try {
+                            gate.await(30, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (peakInFlight.get() < released && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        gate.countDown();
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
+        }
+        return peakInFlight.get();
+    }
+}
@@ -0,0 +1,113 @@
+package com.aigreentick.services.notification.concurrency;
+
+import com.aigreentick.services.notification.config.properties.AsyncProperties;
+import com.aigreentick.services.notification.enums.NotificationChannel;
+import com.aigreentick.services.notification.enums.email.EmailProviderType;
+import com.aigreentick.services.notification.exceptions.ProviderNotAvailableException;
+import com.aigreentick.services.notification.service.concurrency.ProviderBulkheads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Provider bulkheads")
+class ProviderBulkheadsTest {
+
+    @Test
+    @DisplayName("A saturated provider rejects new sends while other providers keep running")
+    void saturatedProviderDoesNotBlockOthers() throws InterruptedException {
+        AsyncProperties properties = new AsyncProperties();
+        AsyncProperties.ProviderBulkheadConfig smtp = new AsyncProperties.ProviderBulkheadConfig();
+        smtp.setMaxConcurrentCalls(1);
+        smtp.setMaxWaitingCalls(0);
+        properties.getBulkheads().put("SMTP", smtp);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProviderBulkheads bulkheads = new ProviderBulkheads(properties, meterRegistry);
+
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowSend = Thread.ofVirtual().start(() -> bulkheads.run(NotificationChannel.EMAIL,
+                EmailProviderType.SMTP, () -> {
+                    stalled.countDown();
+                    awaitQuietly(release);
+                }));
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> bulkheads.run(NotificationChannel.EMAIL, EmailProviderType.SMTP, () -> { }))
+                .isInstanceOf(ProviderNotAvailableException.class);
+
+        AtomicBoolean sentViaSendGrid = new AtomicBoolean();
+        bulkheads.run(NotificationChannel.EMAIL, EmailProviderType.SENDGRID, () -> sentViaSendGrid.set(true));
+        assertThat(sentViaSendGrid).isTrue();
+
+        release.countDown();
+        slowSend.join();
+
+        assertThat(meterRegistry.get("notification.bulkhead.rejected").tag("provider", "SMTP").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("In POOL mode a provider limit above the pool is lowered so a stalled provider leaves threads free")
+    void poolModeCapsProviderBelowPoolSize() throws InterruptedException {
+        AsyncProperties properties = new AsyncProperties();
+        properties.getEmail().setMaxPoolSize(4);
+        AsyncProperties.ProviderBulkheadConfig smtp = new AsyncProperties.ProviderBulkheadConfig();
+        smtp.setMaxConcurrentCalls(50);
+        smtp.setMaxWaitingCalls(0);
+        properties.getBulkheads().put("SMTP", smtp);
+
+        ProviderBulkheads bulkheads = new ProviderBulkheads(properties, new SimpleMeterRegistry());
+        bulkheads.validate();
+
+        CountDownLatch stalled = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> slowSends = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            slowSends.add(Thread.ofVirtual().start(() -> bulkheads.run(NotificationChannel.EMAIL,
+                    EmailProviderType.SMTP, () -> {
+                        stalled.countDown();
+                        awaitQuietly(release);
+                    })));
+        }
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> bulkheads.run(NotificationChannel.EMAIL, EmailProviderType.SMTP, () -> { }))
+                .isInstanceOf(ProviderNotAvailableException.class);
+
+        release.countDown();
+        for (Thread slowSend : slowSends) {
+            slowSend.join();
+        }
+    }
+
+    @Test
+    @DisplayName("Startup fails when the pool is too small to keep a thread free of any one provider")
+    void rejectsPoolTooSmallToCap() {
+        AsyncProperties properties = new AsyncProperties();
+        properties.getEmail().setMaxPoolSize(1);
+
+        ProviderBulkheads bulkheads = new ProviderBulkheads(properties, new SimpleMeterRegistry());
+
+        assertThatThrownBy(bulkheads::validate)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("async.email.max-pool-size");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
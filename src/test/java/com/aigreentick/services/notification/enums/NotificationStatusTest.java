@@ -0,0 +1,64 @@
+package com.aigreentick.services.notification.enums;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Notification status transitions")
+class NotificationStatusTest {
+
+    @Test
+    @DisplayName("A delivery goes from PENDING through PROCESSING to SENT and DELIVERED")
+    void allowsDeliveryPath() {
+        assertThat(NotificationStatus.SCHEDULED.canTransitionTo(NotificationStatus.PENDING)).isTrue();
+        assertThat(NotificationStatus.PENDING.canTransitionTo(NotificationStatus.PROCESSING)).isTrue();
+        assertThat(NotificationStatus.PROCESSING.canTransitionTo(NotificationStatus.SENT)).isTrue();
+        assertThat(NotificationStatus.SENT.canTransitionTo(NotificationStatus.DELIVERED)).isTrue();
+        assertThat(NotificationStatus.DELIVERED.canTransitionTo(NotificationStatus.BOUNCED)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A failed attempt is retried through RETRYING")
+    void allowsRetryPath() {
+        assertThat(NotificationStatus.PROCESSING.canTransitionTo(NotificationStatus.RETRYING)).isTrue();
+        assertThat(NotificationStatus.RETRYING.canTransitionTo(NotificationStatus.PROCESSING)).isTrue();
+        assertThat(NotificationStatus.RETRYING.canTransitionTo(NotificationStatus.SENT)).isTrue();
+        assertThat(NotificationStatus.RETRYING.canTransitionTo(NotificationStatus.FAILED)).isTrue();
+    }
+
+    @Test
+    @DisplayName("FAILED is final apart from counting another failure")
+    void failedIsFinal() {
+        assertThat(NotificationStatus.FAILED.canTransitionTo(NotificationStatus.PROCESSING)).isFalse();
+        assertThat(NotificationStatus.FAILED.canTransitionTo(NotificationStatus.RETRYING)).isFalse();
+        assertThat(NotificationStatus.FAILED.canTransitionTo(NotificationStatus.SENT)).isFalse();
+        assertThat(NotificationStatus.FAILED.canTransitionTo(NotificationStatus.FAILED)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A late or reordered update cannot move a notification backwards")
+    void rejectsBackwardTransitions() {
+        assertThat(NotificationStatus.SENT.canTransitionTo(NotificationStatus.PROCESSING)).isFalse();
+        assertThat(NotificationStatus.SENT.canTransitionTo(NotificationStatus.PENDING)).isFalse();
+        assertThat(NotificationStatus.PROCESSING.canTransitionTo(NotificationStatus.PENDING)).isFalse();
+        assertThat(NotificationStatus.PENDING.canTransitionTo(NotificationStatus.SCHEDULED)).isFalse();
+    }
+
+    @Test
+    @DisplayName("No status leads out of a terminal status except the ones that follow a send")
+    void terminalStatusesOnlyLeadToLaterOutcomes() {
+        for (NotificationStatus from : NotificationStatus.values()) {
+            if (!from.isTerminal()) {
+                continue;
+            }
+            Arrays.stream(NotificationStatus.values())
+                    .filter(from::canTransitionTo)
+                    .forEach(to -> assertThat(to.isTerminal())
+                            .as("%s -> %s", from, to)
+                            .isTrue());
+        }
+    }
+}
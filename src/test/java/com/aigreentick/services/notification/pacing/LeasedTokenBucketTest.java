@@ -0,0 +1,49 @@
+package com.aigreentick.services.notification.pacing;
+
+import com.aigreentick.services.notification.service.pacing.LeasedTokenBucket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Leased token bucket")
+class LeasedTokenBucketTest {
+
+    @Test
+    @DisplayName("Single takes are served from one lease until it is spent")
+    void leasesInBatches() {
+        List<Integer> requested = new ArrayList<>();
+        LeasedTokenBucket bucket = new LeasedTokenBucket(wanted -> {
+            requested.add(wanted);
+            return new LeasedTokenBucket.Take(wanted, 0);
+        }, 10);
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(bucket.take(1)).isEqualTo(new LeasedTokenBucket.Take(1, 0));
+        }
+
+        assertThat(requested).containsExactly(10, 10, 10);
+        assertThat(bucket.getHeld()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("A short lease hands out what it got and reports when to retry")
+    void partialTakeReportsRetry() {
+        int[] available = {3};
+        LeasedTokenBucket bucket = new LeasedTokenBucket(wanted -> {
+            int granted = Math.min(wanted, available[0]);
+            available[0] -= granted;
+            return new LeasedTokenBucket.Take(granted, granted < wanted ? 40 : 0);
+        }, 5);
+
+        assertThat(bucket.take(8)).isEqualTo(new LeasedTokenBucket.Take(3, 40));
+        assertThat(bucket.take(5)).isEqualTo(new LeasedTokenBucket.Take(0, 40));
+
+        available[0] = 100;
+        assertThat(bucket.take(5)).isEqualTo(new LeasedTokenBucket.Take(5, 0));
+        assertThat(bucket.getHeld()).isZero();
+    }
+}
@@ -0,0 +1,93 @@
+package com.aigreentick.services.notification.push;
+
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.dto.response.push.PushSendResult;
+import com.aigreentick.services.notification.enums.push.PushErrorCode;
+import com.aigreentick.services.notification.provider.push.ApnsPushProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("APNs pipelined sends against a local stub server")
+class ApnsPipeliningLoadTest {
+
+    private static final int MAX_STREAMS = 100;
+
+    @TempDir
+    Path workDir;
+
+    private MockApnsServerHarness server;
+    private ApnsPushProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockApnsServerHarness(MAX_STREAMS);
+        provider = new ApnsPushProvider(server.clientProperties(workDir, MAX_STREAMS));
+        provider.initialize();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        provider.shutdown();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Thousands of sends complete through futures on one connection")
+    void pipelinesManySends() {
+        int sends = 2000;
+        List<CompletableFuture<PushSendResult>> futures = new ArrayList<>(sends);
+
+        for (int i = 0; i < sends; i++) {
+            futures.add(provider.sendAsync(request(randomToken())));
+            assertThat(provider.getInFlightCount()).isLessThanOrEqualTo(MAX_STREAMS);
+        }
+        List<PushSendResult> results = futures.stream()
+                .map(future -> future.orTimeout(30, TimeUnit.SECONDS).join())
+                .toList();
+
+        assertThat(results).allMatch(PushSendResult::isSuccess);
+        assertThat(server.getReceivedCount()).isEqualTo(sends);
+        assertThat(provider.getInFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rejected tokens come back as failed results flagged invalid")
+    void mapsRejectionsToResults() {
+        List<PushSendResult> results = provider.sendBatch(List.of(
+                request(randomToken()),
+                request(MockApnsServerHarness.BAD_TOKEN_PREFIX + randomToken())));
+
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).getErrorCode()).isEqualTo(PushErrorCode.INVALID_TOKEN);
+        assertThat(results.get(1).getProviderReason()).isEqualTo("BadDeviceToken");
+        assertThat(results.get(1).isInvalidToken()).isTrue();
+    }
+
+    private static PushNotificationRequest request(String token) {
+        return PushNotificationRequest.builder()
+                .deviceToken(token)
+                .title("Load test")
+                .body("Hello from the stub")
+                .build();
+    }
+
+    private static String randomToken() {
+        byte[] bytes = new byte[32];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,96 @@
+package com.aigreentick.services.notification.push;
+
+import com.aigreentick.services.notification.dto.request.push.PushNotificationRequest;
+import com.aigreentick.services.notification.provider.push.FcmCampaignMessage;
+import com.google.firebase.messaging.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out of one campaign request to many tokens: rebuilding every message
+ * (what sendBatch does per request) versus stamping tokens onto a prebuilt
+ * {@link FcmCampaignMessage}.
+ *
+ * Not part of the test suite. Run {@link #main} from the IDE, or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=...FcmCampaignMessageBenchmark}; the GC profiler reports
+ * bytes allocated per operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FcmCampaignMessageBenchmark {
+
+    @Param({"100", "1000"})
+    int tokenCount;
+
+    private PushNotificationRequest template;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        template = PushNotificationRequest.builder()
+                .title("Weekend sale")
+                .body("Everything 20% off until Sunday")
+                .imageUrl("https://cdn.example.com/sale.png")
+                .sound("default")
+                .badge(1)
+                .clickAction("OPEN_SALE")
+                .priority(10)
+                .ttl(3600)
+                .data(Map.of("campaignId", "c-42", "deepLink", "app://sale"))
+                .build();
+
+        tokens = new ArrayList<>(tokenCount);
+        for (int i = 0; i < tokenCount; i++) {
+            tokens.add("fcm-token-" + i);
+        }
+    }
+
+    @Benchmark
+    public void rebuildPerToken(Blackhole blackhole) {
+        for (String token : tokens) {
+            PushNotificationRequest request = template.toBuilder().deviceToken(token).build();
+            Message message = FcmCampaignMessage.of(request).forToken(request.getDeviceToken());
+            blackhole.consume(message);
+        }
+    }
+
+    @Benchmark
+    public void stampPrebuiltCampaign(Blackhole blackhole) {
+        FcmCampaignMessage campaign = FcmCampaignMessage.of(template);
+        for (String token : tokens) {
+            blackhole.consume(campaign.forToken(token));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FcmCampaignMessageBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,50 @@
+package com.aigreentick.services.notification.push;
+
+import com.aigreentick.services.notification.service.push.impl.TokenDedupSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Token dedup set")
+class TokenDedupSetTest {
+
+    @Test
+    @DisplayName("Only the first occurrence of a token is accepted")
+    void dropsRepeatedTokens() {
+        TokenDedupSet set = new TokenDedupSet(4);
+
+        assertThat(set.add("token-a")).isTrue();
+        assertThat(set.add("token-b")).isTrue();
+        assertThat(set.add("token-a")).isFalse();
+        assertThat(set.add("token-b")).isFalse();
+        assertThat(set.add("token-c")).isTrue();
+
+        assertThat(set.size()).isEqualTo(3);
+        assertThat(set.getSuppressed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Growing far past the expected size keeps every token and catches every duplicate")
+    void growsWithoutLosingEntries() {
+        TokenDedupSet set = new TokenDedupSet(16);
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            tokens.add(UUID.randomUUID() + ":APA91b" + i);
+        }
+
+        for (String token : tokens) {
+            assertThat(set.add(token)).isTrue();
+        }
+        for (String token : tokens) {
+            assertThat(set.add(token)).isFalse();
+        }
+
+        assertThat(set.size()).isEqualTo(tokens.size());
+        assertThat(set.getSuppressed()).isEqualTo(tokens.size());
+    }
+}
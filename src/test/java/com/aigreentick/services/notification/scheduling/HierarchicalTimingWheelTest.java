@@ -0,0 +1,63 @@
+package com.aigreentick.services.notification.scheduling;
+
+import com.aigreentick.services.notification.service.scheduling.HierarchicalTimingWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Hierarchical timing wheel")
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MS = 100;
+    private static final int WHEEL_SIZE = 16;
+
+    @Test
+    @DisplayName("Items are released at the end of their tick, never early")
+    void releasesWithinOneTick() {
+        long start = 1_000_000;
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, start);
+        Random random = new Random(42);
+        // Spans several overflow levels above the base span of 1.6s
+        long[] dueTimes = new long[10_000];
+        for (int i = 0; i < dueTimes.length; i++) {
+            dueTimes[i] = start + random.nextLong(0, 3_000_000);
+            assertThat(wheel.add(i, dueTimes[i])).isTrue();
+        }
+
+        Map<Integer, Long> releasedAt = new HashMap<>();
+        for (long now = start; now <= start + 3_100_000; now += 37) {
+            long current = now;
+            wheel.advance(now, item -> assertThat(releasedAt.put(item, current)).isNull());
+        }
+
+        assertThat(wheel.size()).isZero();
+        assertThat(releasedAt).hasSize(dueTimes.length);
+        releasedAt.forEach((item, released) -> {
+            assertThat(released).isGreaterThanOrEqualTo(dueTimes[item]);
+            assertThat(released - dueTimes[item]).isLessThan(TICK_MS + 37);
+        });
+    }
+
+    @Test
+    @DisplayName("Past-due items are refused so the caller releases them directly")
+    void refusesPastDueItems() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, 10_000);
+        wheel.advance(20_000, item -> { });
+
+        assertThat(wheel.add("late", 15_000)).isFalse();
+        assertThat(wheel.add("on-time", 20_050)).isTrue();
+
+        List<String> released = new ArrayList<>();
+        wheel.advance(20_099, released::add);
+        assertThat(released).isEmpty();
+        wheel.advance(20_100, released::add);
+        assertThat(released).containsExactly("on-time");
+    }
+}